@@ -0,0 +1,331 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.security.Provider;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import javax.sql.DataSource;
+
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.hsqldb.jdbc.JDBCPool;
+import org.hsqldb.server.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.CachingSecurityRealm;
+import org.wildfly.security.auth.realm.jdbc.JdbcSecurityRealm;
+import org.wildfly.security.auth.realm.jdbc.mapper.PasswordKeyMapper;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.cache.LRURealmIdentityCache;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.WildFlyElytronPasswordProvider;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.authauthz.TestSecurityRealm;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.PortAllocator;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.jdbc.JdbcIdentityLoader;
+import org.wildfly.security.tests.common.authauthz.proxy.TcpProxy;
+
+/**
+ * Benchmark of the LDAP and JDBC realms, optionally behind a {@link CachingSecurityRealm}, whilst the connection to
+ * the backing server is periodically degraded by a {@link TcpProxy}.
+ *
+ * For {@code faultMillis} of every {@code periodMillis} the proxy injects the fault under test, after which all
+ * faults are cleared. Once a fault has been injected failed authentications are counted rather than failing the
+ * benchmark so the latency distribution reported by JMH includes the time taken to fail, a failure before the first
+ * fault or with {@code fault=none} fails the benchmark as the proxy, pool or realm is misconfigured. At the end of
+ * each iteration the failures and the time taken after each fault is cleared until an authentication succeeds again
+ * are printed.
+ *
+ * The LDAP server is the same directory used by the functional tests, the JDBC realm queries a HSQLDB server
+ * listening on TCP using a connection pool so the connections can be routed through the proxy.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BackendFaultBenchmark {
+
+    private static final String LDAP_PORT = "ldap.port";
+    private static final String DATABASE = "backend-fault";
+    private static final Duration LATENCY = Duration.ofMillis(50);
+    private static final long BANDWIDTH = 16 * 1024;
+    private static final int READ_TIMEOUT = 2000;
+    private static final int POOL_SIZE = 16;
+    private static final Supplier<Provider[]> PROVIDERS = () -> new Provider[] { WildFlyElytronPasswordProvider.getInstance() };
+
+    @State(Scope.Benchmark)
+    public static class FaultState {
+
+        @Param({"LDAP", "JDBC"})
+        String backend;
+
+        /**
+         * Wrap the realm in a {@code CachingSecurityRealm} with space for every identity.
+         */
+        @Param({"false", "true"})
+        boolean caching;
+
+        @Param({"none", "latency", "bandwidth", "stall", "reset", "refuse"})
+        String fault;
+
+        @Param({"500"})
+        long faultMillis;
+
+        @Param({"2000"})
+        long periodMillis;
+
+        final LongAdder failures = new LongAdder();
+        final LongAdder faultWindows = new LongAdder();
+        final LongAdder recoveries = new LongAdder();
+        final LongAdder recoveryNanos = new LongAdder();
+        final LongAccumulator maxRecoveryNanos = new LongAccumulator(Long::max, 0);
+        final AtomicBoolean awaitingRecovery = new AtomicBoolean();
+        volatile boolean faultInjected;
+        volatile long faultClearedAt;
+
+        TestSecurityRealm testSecurityRealm;
+        Server databaseServer;
+        JDBCPool pool;
+        TcpProxy tcpProxy;
+        ScheduledExecutorService faultScheduler;
+        SecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            final int backendPort;
+            if ("LDAP".equals(backend)) {
+                backendPort = PortAllocator.allocatePort("localhost");
+                System.setProperty(LDAP_PORT, Integer.toString(backendPort));
+                testSecurityRealm = TestSecurityRealm.LDAP;
+                testSecurityRealm.begin();
+            } else {
+                backendPort = startDatabase();
+            }
+
+            tcpProxy = TcpProxy.builder()
+                    .setTarget("localhost", backendPort)
+                    .setConnectTimeout(Duration.ofMillis(READ_TIMEOUT))
+                    .start();
+            final SecurityRealm backendRealm;
+            if ("LDAP".equals(backend)) {
+                backendRealm = BenchmarkSupport.createLdapRealm(tcpProxy.getPort(), READ_TIMEOUT);
+            } else {
+                pool = new JDBCPool(POOL_SIZE);
+                pool.setUrl(toUrl(tcpProxy.getPort()));
+                pool.setUser("sa");
+                pool.setPassword("");
+                backendRealm = createJdbcRealm(pool);
+            }
+
+            principals = AbstractAuthenticationSuite.obtainTestIdentities()
+                    .map(IdentityDefinition::username)
+                    .map(NamePrincipal::new)
+                    .toArray(NamePrincipal[]::new);
+            evidence = AbstractAuthenticationSuite.obtainTestIdentities()
+                    .map(i -> new PasswordGuessEvidence(i.password().toCharArray()))
+                    .toArray(PasswordGuessEvidence[]::new);
+            securityRealm = caching
+                    ? new CachingSecurityRealm(backendRealm, new LRURealmIdentityCache(principals.length), PROVIDERS)
+                    : backendRealm;
+
+            faultScheduler = Executors.newSingleThreadScheduledExecutor();
+            if (!"none".equals(fault)) {
+                faultScheduler.scheduleAtFixedRate(this::injectFault, periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            failures.reset();
+            faultWindows.reset();
+            recoveries.reset();
+            recoveryNanos.reset();
+            maxRecoveryNanos.reset();
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportIteration() {
+            final long count = Math.max(1, recoveries.sum());
+            System.out.printf("%nBackendFaultBenchmark - %s caching=%b %s - %d failures, %d fault windows, recovery mean %.1f ms max %.1f ms%n",
+                    backend, caching, fault, failures.sum(), faultWindows.sum(),
+                    recoveryNanos.sum() / (count * 1_000_000d), maxRecoveryNanos.get() / 1_000_000d);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            faultScheduler.shutdownNow();
+            faultScheduler.awaitTermination(10, TimeUnit.SECONDS);
+            tcpProxy.close();
+            securityRealm = null;
+            if (pool != null) {
+                pool.close(0);
+                pool = null;
+            }
+            if (databaseServer != null) {
+                databaseServer.shutdown();
+                databaseServer = null;
+            }
+            if (testSecurityRealm != null) {
+                testSecurityRealm.end();
+                System.clearProperty(LDAP_PORT);
+            }
+        }
+
+        /**
+         * Inject the fault under test for {@code faultMillis}, the scheduler has a single thread so the next fault
+         * can not begin until this one has been cleared.
+         */
+        private void injectFault() {
+            try {
+                faultInjected = true;
+                switch (fault) {
+                    case "latency" -> tcpProxy.setLatency(LATENCY);
+                    case "bandwidth" -> tcpProxy.setBandwidth(BANDWIDTH);
+                    case "stall" -> tcpProxy.setStalled(true);
+                    case "reset" -> tcpProxy.resetConnections();
+                    case "refuse" -> {
+                        tcpProxy.setRefuseConnections(true);
+                        tcpProxy.resetConnections();
+                    }
+                    default -> throw new IllegalArgumentException(String.format("Unknown fault '%s'", fault));
+                }
+                faultWindows.increment();
+                TimeUnit.MILLISECONDS.sleep(faultMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                tcpProxy.clearFaults();
+                faultClearedAt = System.nanoTime();
+                awaitingRecovery.set(true);
+            }
+        }
+
+        void recordSuccess() {
+            if (awaitingRecovery.get() && awaitingRecovery.compareAndSet(true, false)) {
+                final long recovery = System.nanoTime() - faultClearedAt;
+                recoveries.increment();
+                recoveryNanos.add(recovery);
+                maxRecoveryNanos.accumulate(recovery);
+            }
+        }
+
+        private int startDatabase() throws Exception {
+            final int port = PortAllocator.allocatePort("localhost");
+            databaseServer = new Server();
+            databaseServer.setLogWriter(null);
+            databaseServer.setErrWriter(null);
+            databaseServer.setSilent(true);
+            databaseServer.setAddress("localhost");
+            databaseServer.setPort(port);
+            databaseServer.setDatabaseName(0, DATABASE);
+            databaseServer.setDatabasePath(0, "mem:" + DATABASE);
+            databaseServer.start();
+
+            JDBCDataSource dataSource = toDataSource(port);
+            JdbcIdentityLoader loader = JdbcIdentityLoader.builder()
+                    .setConnectionFactory(dataSource::getConnection)
+                    .build();
+            loader.createTables();
+            loader.load(AbstractAuthenticationSuite.obtainTestIdentities());
+
+            return port;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean authenticate(final FaultState faultState, final IdentityState identityState) {
+        return verify(faultState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean authenticateConcurrent(final FaultState faultState, final IdentityState identityState) {
+        return verify(faultState, identityState);
+    }
+
+    private static boolean verify(final FaultState faultState, final IdentityState identityState) {
+        final int index = identityState.nextIndex(faultState.principals.length);
+        Exception failure = null;
+        try {
+            RealmIdentity realmIdentity = faultState.securityRealm.getRealmIdentity(faultState.principals[index]);
+            try {
+                if (realmIdentity.verifyEvidence(faultState.evidence[index])) {
+                    faultState.recordSuccess();
+                    return true;
+                }
+            } finally {
+                realmIdentity.dispose();
+            }
+        } catch (Exception e) {
+            // A failure of the backing server is expected once a fault has been injected.
+            failure = e;
+        }
+        if (!faultState.faultInjected) {
+            // Before the first fault, or with no fault at all, a failure means the proxy, pool or realm is misconfigured.
+            throw new IllegalStateException(String.format("Authentication of identity '%s' failed with no fault injected",
+                    faultState.principals[index].getName()), failure);
+        }
+        faultState.failures.increment();
+
+        return false;
+    }
+
+    private static SecurityRealm createJdbcRealm(final DataSource dataSource) {
+        PasswordKeyMapper passwordKeyMapper = PasswordKeyMapper.builder()
+                .setDefaultAlgorithm(ClearPassword.ALGORITHM_CLEAR)
+                .setHashColumn(1)
+                .build();
+        return JdbcSecurityRealm.builder()
+                .principalQuery("SELECT password FROM jdbc_realm_users WHERE username = ?")
+                .withMapper(passwordKeyMapper)
+                .from(dataSource)
+                .setProviders(PROVIDERS)
+                .build();
+    }
+
+    private static JDBCDataSource toDataSource(final int port) {
+        JDBCDataSource dataSource = new JDBCDataSource();
+        dataSource.setUrl(toUrl(port));
+        dataSource.setUser("sa");
+        dataSource.setPassword("");
+
+        return dataSource;
+    }
+
+    private static String toUrl(final int port) {
+        return String.format("jdbc:hsqldb:hsql://localhost:%d/%s", port, DATABASE);
+    }
+}
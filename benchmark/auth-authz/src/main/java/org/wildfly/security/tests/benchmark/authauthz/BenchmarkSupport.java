@@ -0,0 +1,198 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Principal;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+import javax.security.auth.callback.Callback;
+import javax.security.auth.callback.CallbackHandler;
+import javax.security.auth.callback.NameCallback;
+import javax.security.auth.callback.PasswordCallback;
+import javax.security.auth.callback.UnsupportedCallbackException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.wildfly.security.auth.realm.ldap.DirContextFactory;
+import org.wildfly.security.auth.realm.ldap.LdapSecurityRealmBuilder;
+import org.wildfly.security.auth.realm.ldap.SimpleDirContextFactoryBuilder;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.evidence.Evidence;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+
+/**
+ * State and utility methods shared by the benchmarks in this package.
+ *
+ * Each benchmark method annotated {@code @Threads(1)} has a {@code Concurrent} variant annotated
+ * {@code @Threads(Threads.MAX)} which runs the same operation using one thread per available core, the thread count
+ * of the concurrent variants can be overridden on the JMH command line using {@code -t}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class BenchmarkSupport {
+
+    private static final String SERVER_DN = "uid=server,dc=security,dc=wildfly,dc=org";
+    private static final String SERVER_CREDENTIAL = "serverPassword";
+
+    private BenchmarkSupport() {
+    }
+
+    /**
+     * The index of the next identity for a thread, each thread cycles through every identity in order.
+     */
+    @State(Scope.Thread)
+    public static class IdentityState {
+
+        int next;
+
+        int nextIndex(final int count) {
+            int current = next;
+            next = current + 1 == count ? 0 : current + 1;
+            return current;
+        }
+    }
+
+    /**
+     * The index of the next identity for a thread, selected at random using a sequence seeded by the thread id.
+     */
+    @State(Scope.Thread)
+    public static class RandomIdentityState {
+
+        SplittableRandom random;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            random = new SplittableRandom(Thread.currentThread().getId());
+        }
+
+        int nextIndex(final int count) {
+            return random.nextInt(count);
+        }
+    }
+
+    /**
+     * Verify the evidence of an identity, a benchmark is expected to only verify valid evidence so a verification
+     * failure is reported as an {@code IllegalStateException}.
+     *
+     * @param securityRealm the {@code SecurityRealm} to verify the evidence against.
+     * @param principal the principal of the identity.
+     * @param evidence the evidence to verify.
+     * @return {@code true} as the evidence was verified.
+     * @throws RealmUnavailableException if the realm is unable to handle the request.
+     */
+    static boolean verify(final SecurityRealm securityRealm, final Principal principal,
+            final Evidence evidence) throws RealmUnavailableException {
+        RealmIdentity realmIdentity = securityRealm.getRealmIdentity(principal);
+        try {
+            return verified(realmIdentity.verifyEvidence(evidence), principal.getName());
+        } finally {
+            realmIdentity.dispose();
+        }
+    }
+
+    /**
+     * Check the outcome of a verification performed by the benchmark itself.
+     *
+     * @param verified the outcome of the verification.
+     * @param name the name of the identity verified.
+     * @return {@code true} as the verification succeeded.
+     * @throws IllegalStateException if the verification failed.
+     */
+    static boolean verified(final boolean verified, final String name) {
+        if (!verified) {
+            throw new IllegalStateException(String.format("Verification failed for identity '%s'", name));
+        }
+        return verified;
+    }
+
+    /**
+     * Get the heap used after requesting garbage collection, only suitable for comparing the retained size of large
+     * structures.
+     */
+    static long usedHeap() {
+        final MemoryMXBean memoryMXBean = ManagementFactory.getMemoryMXBean();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+
+        return memoryMXBean.getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Delete a directory and all of its content, if it exists.
+     *
+     * @param dir the directory to delete.
+     * @throws IOException if the directory can not be walked.
+     */
+    static void deleteDir(final Path dir) throws IOException {
+        if (Files.exists(dir)) {
+            try (Stream<Path> pathStream = Files.walk(dir)) {
+                pathStream.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+            }
+        }
+    }
+
+    /**
+     * Create a {@code LdapSecurityRealm} for the directory used by the functional tests listening on the specified port.
+     *
+     * @param port the port to connect to, e.g. the port of a {@code TcpProxy}.
+     * @param timeout the connect and read timeout in milliseconds.
+     * @return the new {@code SecurityRealm}.
+     */
+    static SecurityRealm createLdapRealm(final int port, final int timeout) {
+        return LdapSecurityRealmBuilder.builder()
+                .setDirContextSupplier(() -> SimpleDirContextFactoryBuilder.builder()
+                    .setProviderUrl(String.format("ldap://localhost:%d/", port))
+                    .setSecurityPrincipal(SERVER_DN)
+                    .setSecurityCredential(SERVER_CREDENTIAL)
+                    .setConnectTimeout(timeout)
+                    .setReadTimeout(timeout)
+                    .build().obtainDirContext(DirContextFactory.ReferralMode.IGNORE))
+                .identityMapping()
+                    .setSearchDn("dc=security,dc=wildfly,dc=org")
+                    .setRdnIdentifier("uid")
+                    .build()
+                .userPasswordCredentialLoader().build()
+                .build();
+    }
+
+    /**
+     * A {@code CallbackHandler} providing the clear text password of the identity to the client.
+     */
+    static class ClientCallbackHandler implements CallbackHandler {
+
+        private final IdentityDefinition identity;
+
+        ClientCallbackHandler(final IdentityDefinition identity) {
+            this.identity = identity;
+        }
+
+        @Override
+        public void handle(final Callback[] callbacks) throws UnsupportedCallbackException {
+            for (Callback current : callbacks) {
+                if (current instanceof NameCallback nameCallback) {
+                    nameCallback.setName(identity.username());
+                } else if (current instanceof PasswordCallback passwordCallback) {
+                    passwordCallback.setPassword(identity.password().toCharArray());
+                } else {
+                    throw new UnsupportedCallbackException(current);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.lang.ref.Reference;
+import java.security.Principal;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.CachingSecurityRealm;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.cache.LRURealmIdentityCache;
+import org.wildfly.security.cache.RealmIdentityCache;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.authauthz.TestSecurityRealm;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+
+/**
+ * Benchmark of a {@link CachingSecurityRealm} in front of the JDBC and LDAP realms to size the cache needed to
+ * protect the backing store.
+ *
+ * The backing realms are created using the same factories as the functional tests with the population of identities
+ * set on the {@link IdentityGenerator}. The backing realm is wrapped to add a configurable latency to each
+ * {@code getRealmIdentity} call, simulating a remote database or directory server, and the usernames are replayed
+ * from a pre-computed sequence following a Zipfian, hot set or uniform distribution.
+ *
+ * The latency percentiles are reported by JMH, at the end of each iteration the cache hit ratio, the number of
+ * lookups which reached the backing realm and the number of evictions are printed. At the end of each trial the heap
+ * retained per cached identity is estimated by caching the whole population.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CachingSecurityRealmBenchmark {
+
+    private static final int SEQUENCE_LENGTH = 1 << 20;
+    private static final double ZIPF_EXPONENT = 1.0;
+    private static final double HOT_SET_FRACTION = 0.1;
+    private static final double HOT_SET_PROBABILITY = 0.9;
+
+    @State(Scope.Benchmark)
+    public static class CacheState {
+
+        @Param({"JDBC", "LDAP"})
+        String backend;
+
+        @Param({"20000"})
+        long population;
+
+        @Param({"100", "1000", "10000"})
+        int cacheSize;
+
+        @Param({"zipfian", "hotset", "uniform"})
+        String distribution;
+
+        @Param({"0", "1000"})
+        long backendLatencyMicros;
+
+        TestSecurityRealm testSecurityRealm;
+        LatencySecurityRealm backendRealm;
+        CountingRealmIdentityCache cache;
+        CachingSecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+        int[] sequence;
+
+        private long iterationPuts;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            // The IdentityGenerator used by the realms reads this once, JMH forks a new JVM for each trial.
+            System.setProperty(IdentityGenerator.COUNT, Long.toString(population));
+            IdentityGenerator identityGenerator = AbstractAuthenticationSuite.identityGenerator();
+            if (identityGenerator.getCount() != population) {
+                throw new IllegalStateException("The IdentityGenerator was initialised before the trial, a fork per trial is required.");
+            }
+
+            testSecurityRealm = TestSecurityRealm.forRealmType(backend);
+            testSecurityRealm.begin();
+            backendRealm = new LatencySecurityRealm(testSecurityRealm.createSecurityRealm(),
+                    TimeUnit.MICROSECONDS.toNanos(backendLatencyMicros));
+            cache = new CountingRealmIdentityCache(new LRURealmIdentityCache(cacheSize));
+            securityRealm = new CachingSecurityRealm(backendRealm, cache);
+
+            final int count = (int) population;
+            principals = new NamePrincipal[count];
+            evidence = new PasswordGuessEvidence[count];
+            for (int i = 0; i < count; i++) {
+                IdentityDefinition identity = identityGenerator.identity(identityGenerator.getFirstIndex() + i);
+                principals[i] = new NamePrincipal(identity.username());
+                evidence[i] = new PasswordGuessEvidence(identity.password().toCharArray());
+            }
+            sequence = createSequence(distribution, count);
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            cache.reset();
+            backendRealm.lookups.reset();
+            iterationPuts = cache.totalPuts.sum();
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportIteration() {
+            final long gets = cache.gets.sum();
+            final long totalPuts = cache.totalPuts.sum();
+            // The cache only grows until it is full, after that every put evicts the least recently used identity.
+            final long evictions = Math.max(0, totalPuts - cacheSize) - Math.max(0, iterationPuts - cacheSize);
+            System.out.printf("%nCachingSecurityRealmBenchmark - %s cache %d %s - hit ratio %.4f, backend lookups %d, evictions %d over %d lookups%n",
+                    backend, cacheSize, distribution, gets == 0 ? 0d : cache.hits.sum() / (double) gets,
+                    backendRealm.lookups.sum(), evictions, gets);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            reportHeapPerIdentity();
+
+            securityRealm = null;
+            cache = null;
+            backendRealm = null;
+            testSecurityRealm.end();
+            System.clearProperty(IdentityGenerator.COUNT);
+        }
+
+        /**
+         * Estimate the heap retained by each cached identity by comparing the used heap before and after filling a
+         * new cache large enough to hold the whole population, the cache under test is too small to give a reliable
+         * figure on its own.
+         */
+        private void reportHeapPerIdentity() throws RealmUnavailableException {
+            backendRealm.latencyNanos = 0;
+            securityRealm.removeAllFromCache();
+            final CachingSecurityRealm populationRealm = new CachingSecurityRealm(backendRealm,
+                    new LRURealmIdentityCache(principals.length));
+            final long empty = BenchmarkSupport.usedHeap();
+            for (int i = 0; i < principals.length; i++) {
+                BenchmarkSupport.verify(populationRealm, principals[i], evidence[i]);
+            }
+            final long full = BenchmarkSupport.usedHeap();
+            Reference.reachabilityFence(populationRealm);
+            System.out.printf("%nCachingSecurityRealmBenchmark - %s - approximately %d bytes of heap per cached identity over %d identities%n",
+                    backend, (full - empty) / principals.length, principals.length);
+        }
+    }
+
+    /**
+     * Each thread starts at a different offset of the sequence so concurrent threads do not look up the same identity
+     * at the same moment, which would inflate the hit ratio.
+     */
+    @State(Scope.Thread)
+    public static class SequenceState extends IdentityState {
+
+        @Setup(Level.Trial)
+        public void setup(final CacheState cacheState) {
+            next = (int) (Thread.currentThread().getId() * 7919 % cacheState.sequence.length);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean cachedAuthentication(final CacheState cacheState, final SequenceState identityState)
+            throws RealmUnavailableException {
+        final int index = cacheState.sequence[identityState.nextIndex(cacheState.sequence.length)];
+        return BenchmarkSupport.verify(cacheState.securityRealm, cacheState.principals[index], cacheState.evidence[index]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean cachedAuthenticationConcurrent(final CacheState cacheState, final SequenceState identityState)
+            throws RealmUnavailableException {
+        final int index = cacheState.sequence[identityState.nextIndex(cacheState.sequence.length)];
+        return BenchmarkSupport.verify(cacheState.securityRealm, cacheState.principals[index], cacheState.evidence[index]);
+    }
+
+    /**
+     * Create the sequence of identity indexes to replay, a fixed seed is used so each trial replays the same sequence.
+     *
+     * <ul>
+     *   <li>{@code zipfian} - the identity of rank {@code k} is selected with a probability proportional to
+     *       {@code 1 / k^s}.</li>
+     *   <li>{@code hotset} - 90% of the selections are from a hot set of 10% of the identities.</li>
+     *   <li>{@code uniform} - every identity is equally likely to be selected.</li>
+     * </ul>
+     */
+    static int[] createSequence(final String distribution, final int population) {
+        final SplittableRandom random = new SplittableRandom(population);
+        final int[] sequence = new int[SEQUENCE_LENGTH];
+        switch (distribution) {
+            case "zipfian" -> {
+                final double[] cumulative = new double[population];
+                double total = 0;
+                for (int i = 0; i < population; i++) {
+                    total += 1 / Math.pow(i + 1, ZIPF_EXPONENT);
+                    cumulative[i] = total;
+                }
+                for (int i = 0; i < sequence.length; i++) {
+                    int rank = Arrays.binarySearch(cumulative, random.nextDouble() * total);
+                    sequence[i] = Math.min(rank < 0 ? -rank - 1 : rank, population - 1);
+                }
+            }
+            case "hotset" -> {
+                final int hotSetSize = Math.max(1, (int) (population * HOT_SET_FRACTION));
+                for (int i = 0; i < sequence.length; i++) {
+                    sequence[i] = random.nextDouble() < HOT_SET_PROBABILITY || hotSetSize == population
+                            ? random.nextInt(hotSetSize)
+                            : hotSetSize + random.nextInt(population - hotSetSize);
+                }
+            }
+            case "uniform" -> {
+                for (int i = 0; i < sequence.length; i++) {
+                    sequence[i] = random.nextInt(population);
+                }
+            }
+            default -> throw new IllegalArgumentException(String.format("Unknown distribution '%s'", distribution));
+        }
+
+        return sequence;
+    }
+
+    /**
+     * A {@code RealmIdentityCache} delegating to the cache under test which counts the hits, misses and puts.
+     */
+    static class CountingRealmIdentityCache implements RealmIdentityCache {
+
+        private final RealmIdentityCache delegate;
+        final LongAdder gets = new LongAdder();
+        final LongAdder hits = new LongAdder();
+        final LongAdder totalPuts = new LongAdder();
+
+        CountingRealmIdentityCache(final RealmIdentityCache delegate) {
+            this.delegate = delegate;
+        }
+
+        void reset() {
+            gets.reset();
+            hits.reset();
+        }
+
+        @Override
+        public void put(final Principal principal, final RealmIdentity realmIdentity) {
+            totalPuts.increment();
+            delegate.put(principal, realmIdentity);
+        }
+
+        @Override
+        public RealmIdentity get(final Principal principal) {
+            gets.increment();
+            RealmIdentity realmIdentity = delegate.get(principal);
+            if (realmIdentity != null) {
+                hits.increment();
+            }
+
+            return realmIdentity;
+        }
+
+        @Override
+        public void remove(final Principal principal) {
+            delegate.remove(principal);
+        }
+
+        @Override
+        public void clear() {
+            // Clearing the cache starts filling it again from empty.
+            totalPuts.reset();
+            delegate.clear();
+        }
+    }
+}
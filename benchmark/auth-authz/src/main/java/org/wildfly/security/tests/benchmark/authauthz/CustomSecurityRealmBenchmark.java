@@ -0,0 +1,163 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.security.Provider;
+import java.security.Security;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.WildFlyElytronPasswordProvider;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+import org.wildfly.security.tests.common.authauthz.realm.IndexedSecurityRealm;
+
+/**
+ * Benchmark of the {@link IndexedSecurityRealm} reference custom realm against a realm implemented in the same way as
+ * the integration testsuite's {@code TestCustomSecurityRealm}, the {@link GeneratingSecurityRealm}.
+ *
+ * <ul>
+ *   <li>{@code authenticate} - {@code getRealmIdentity} followed by {@code verifyEvidence}, as used for a
+ *       {@code BASIC} or SASL {@code PLAIN} authentication.</li>
+ *   <li>{@code acquireCredential} - {@code getRealmIdentity} followed by {@code getCredential}, as used by the
+ *       challenge response mechanisms such as {@code DIGEST-MD5}.</li>
+ * </ul>
+ *
+ * The realms are called directly, the integration testsuite deploys the realm to WildFly as a {@code custom-realm}
+ * where the same calls are made by the server for each authentication.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class CustomSecurityRealmBenchmark {
+
+    private static final Supplier<Provider[]> PROVIDERS = () -> new Provider[] { WildFlyElytronPasswordProvider.getInstance() };
+
+    @State(Scope.Benchmark)
+    public static class RealmState {
+
+        @Param({"Generating", "Indexed"})
+        String realm;
+
+        @Param({"99", "100000"})
+        long population;
+
+        SecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+        boolean providerAdded;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            // The GeneratingSecurityRealm obtains its PasswordFactory from the globally registered providers.
+            final Provider provider = WildFlyElytronPasswordProvider.getInstance();
+            if (Security.getProvider(provider.getName()) == null) {
+                providerAdded = Security.addProvider(provider) >= 0;
+            }
+
+            final IdentityGenerator identityGenerator = IdentityGenerator.builder()
+                    .setFirstIndex(1)
+                    .setCount(population)
+                    .build();
+            securityRealm = switch (realm) {
+                case "Generating" -> new GeneratingSecurityRealm(identityGenerator);
+                case "Indexed" -> IndexedSecurityRealm.builder()
+                        .setProviders(PROVIDERS)
+                        .setIdentities(identityGenerator.stream())
+                        .build();
+                default -> throw new IllegalArgumentException(String.format("Unknown realm '%s'", realm));
+            };
+
+            final int count = (int) population;
+            principals = new NamePrincipal[count];
+            evidence = new PasswordGuessEvidence[count];
+            for (int i = 0; i < count; i++) {
+                IdentityDefinition identity = identityGenerator.identity(identityGenerator.getFirstIndex() + i);
+                principals[i] = new NamePrincipal(identity.username());
+                evidence[i] = new PasswordGuessEvidence(identity.password().toCharArray());
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            securityRealm = null;
+            if (providerAdded) {
+                Security.removeProvider(WildFlyElytronPasswordProvider.getInstance().getName());
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean authenticate(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean authenticateConcurrent(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public PasswordCredential acquireCredential(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return acquire(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public PasswordCredential acquireCredentialConcurrent(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return acquire(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    private static boolean verify(final RealmState realmState, final int index) throws RealmUnavailableException {
+        return BenchmarkSupport.verify(realmState.securityRealm, realmState.principals[index], realmState.evidence[index]);
+    }
+
+    private static PasswordCredential acquire(final RealmState realmState, final int index) throws RealmUnavailableException {
+        RealmIdentity realmIdentity = realmState.securityRealm.getRealmIdentity(realmState.principals[index]);
+        try {
+            PasswordCredential credential = realmIdentity.getCredential(PasswordCredential.class);
+            if (credential == null) {
+                throw new IllegalStateException(String.format("No credential for identity '%s'",
+                        realmState.principals[index].getName()));
+            }
+            return credential;
+        } finally {
+            realmIdentity.dispose();
+        }
+    }
+}
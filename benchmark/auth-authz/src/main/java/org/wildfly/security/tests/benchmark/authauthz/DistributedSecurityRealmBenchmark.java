@@ -0,0 +1,249 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.nio.file.Path;
+import java.security.Provider;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.DistributedSecurityRealm;
+import org.wildfly.security.auth.realm.FileSystemSecurityRealm;
+import org.wildfly.security.auth.realm.SimpleMapBackedSecurityRealm;
+import org.wildfly.security.auth.realm.SimpleRealmEntry;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.Password;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.WildFlyElytronPasswordProvider;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+
+/**
+ * Benchmark of a {@link DistributedSecurityRealm} as the number of delegate realms grows, reporting the number of
+ * delegate realms probed for each authentication.
+ *
+ * The identities are spread round robin across the delegate realms so identity {@code i} is held by delegate
+ * {@code i % realmCount}. Each invocation authenticates an identity held by the first, the middle or the last
+ * delegate, or looks up an identity which does not exist in any delegate and so has to probe every one. Each
+ * delegate is wrapped to add {@code probeLatencyMicros} to each lookup, simulating a remote directory, and to
+ * count the lookups which reach it.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class DistributedSecurityRealmBenchmark {
+
+    private static final Supplier<Provider[]> PROVIDERS = () -> new Provider[] { WildFlyElytronPasswordProvider.getInstance() };
+    private static final int IDENTITIES_PER_REALM = 20;
+    private static final Path REALM_DIR = Path.of("target", "distributed-realm-benchmark").toAbsolutePath();
+
+    @State(Scope.Benchmark)
+    public static class DistributedState {
+
+        @Param({"3", "10", "50"})
+        int realmCount;
+
+        @Param({"Map", "FileSystem"})
+        String backend;
+
+        @Param({"first", "middle", "last", "missing"})
+        String location;
+
+        @Param({"0", "200"})
+        long probeLatencyMicros;
+
+        final LongAdder authentications = new LongAdder();
+
+        LatencySecurityRealm[] delegates;
+        SecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            final IdentityGenerator identityGenerator = IdentityGenerator.builder()
+                    .setCount((long) realmCount * IDENTITIES_PER_REALM)
+                    .build();
+            final PasswordFactory passwordFactory = PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR, PROVIDERS);
+
+            final List<List<IdentityDefinition>> realmIdentities = new ArrayList<>(realmCount);
+            for (int i = 0; i < realmCount; i++) {
+                realmIdentities.add(new ArrayList<>());
+            }
+            final List<IdentityDefinition> all = identityGenerator.stream().toList();
+            for (int i = 0; i < all.size(); i++) {
+                realmIdentities.get(i % realmCount).add(all.get(i));
+            }
+
+            delegates = new LatencySecurityRealm[realmCount];
+            final long latencyNanos = TimeUnit.MICROSECONDS.toNanos(probeLatencyMicros);
+            for (int i = 0; i < realmCount; i++) {
+                final SecurityRealm delegate = switch (backend) {
+                    case "Map" -> createMapRealm(realmIdentities.get(i), passwordFactory);
+                    case "FileSystem" -> createFileSystemRealm(REALM_DIR.resolve(Integer.toString(i)),
+                            realmIdentities.get(i), passwordFactory);
+                    default -> throw new IllegalArgumentException(String.format("Unknown backend '%s'", backend));
+                };
+                delegates[i] = new LatencySecurityRealm(delegate, latencyNanos);
+            }
+            securityRealm = new DistributedSecurityRealm(delegates);
+
+            final List<IdentityDefinition> targets = switch (location) {
+                case "first" -> realmIdentities.get(0);
+                case "middle" -> realmIdentities.get(realmCount / 2);
+                case "last" -> realmIdentities.get(realmCount - 1);
+                case "missing" -> null;
+                default -> throw new IllegalArgumentException(String.format("Unknown location '%s'", location));
+            };
+            if (targets == null) {
+                principals = new NamePrincipal[IDENTITIES_PER_REALM];
+                for (int i = 0; i < principals.length; i++) {
+                    principals[i] = new NamePrincipal("missing" + i);
+                }
+            } else {
+                principals = targets.stream()
+                        .map(IdentityDefinition::username)
+                        .map(NamePrincipal::new)
+                        .toArray(NamePrincipal[]::new);
+                evidence = targets.stream()
+                        .map(i -> new PasswordGuessEvidence(i.password().toCharArray()))
+                        .toArray(PasswordGuessEvidence[]::new);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            authentications.reset();
+            for (LatencySecurityRealm current : delegates) {
+                current.lookups.reset();
+            }
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportIteration() {
+            long probes = 0;
+            for (LatencySecurityRealm current : delegates) {
+                probes += current.lookups.sum();
+            }
+            System.out.printf("%nDistributedSecurityRealmBenchmark - %d %s realms, %s - %.2f realms probed per authentication%n",
+                    realmCount, backend, location, probes / (double) Math.max(1, authentications.sum()));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            securityRealm = null;
+            delegates = null;
+            BenchmarkSupport.deleteDir(REALM_DIR);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean authenticate(final DistributedState distributedState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(distributedState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean authenticateConcurrent(final DistributedState distributedState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(distributedState, identityState);
+    }
+
+    private static boolean verify(final DistributedState distributedState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        final int index = identityState.nextIndex(distributedState.principals.length);
+        distributedState.authentications.increment();
+        RealmIdentity realmIdentity = distributedState.securityRealm.getRealmIdentity(distributedState.principals[index]);
+        try {
+            if (distributedState.evidence == null) {
+                if (realmIdentity.exists()) {
+                    throw new IllegalStateException(String.format("Identity '%s' should not exist",
+                            distributedState.principals[index].getName()));
+                }
+                return false;
+            }
+
+            return BenchmarkSupport.verified(realmIdentity.verifyEvidence(distributedState.evidence[index]),
+                    distributedState.principals[index].getName());
+        } finally {
+            realmIdentity.dispose();
+        }
+    }
+
+    private static SecurityRealm createMapRealm(final List<IdentityDefinition> identities,
+            final PasswordFactory passwordFactory) throws InvalidKeySpecException {
+        final Map<String, SimpleRealmEntry> identityMap = new HashMap<>();
+        for (IdentityDefinition current : identities) {
+            identityMap.put(current.username(), new SimpleRealmEntry(
+                    Collections.singletonList(new PasswordCredential(toPassword(current, passwordFactory)))));
+        }
+        SimpleMapBackedSecurityRealm realm = new SimpleMapBackedSecurityRealm(PROVIDERS);
+        realm.setIdentityMap(identityMap);
+
+        return realm;
+    }
+
+    private static SecurityRealm createFileSystemRealm(final Path root, final List<IdentityDefinition> identities,
+            final PasswordFactory passwordFactory) throws InvalidKeySpecException, RealmUnavailableException {
+        FileSystemSecurityRealm realm = FileSystemSecurityRealm.builder()
+                .setRoot(root)
+                .setProviders(PROVIDERS)
+                .build();
+        for (IdentityDefinition current : identities) {
+            ModifiableRealmIdentity realmIdentity = realm.getRealmIdentityForUpdate(new NamePrincipal(current.username()));
+            try {
+                realmIdentity.create();
+                realmIdentity.setCredentials(Collections.singleton(
+                        new PasswordCredential(toPassword(current, passwordFactory))));
+            } finally {
+                realmIdentity.dispose();
+            }
+        }
+
+        return realm;
+    }
+
+    private static Password toPassword(final IdentityDefinition identity, final PasswordFactory passwordFactory)
+            throws InvalidKeySpecException {
+        return passwordFactory.generatePassword(new ClearPasswordSpec(identity.password().toCharArray()));
+    }
+}
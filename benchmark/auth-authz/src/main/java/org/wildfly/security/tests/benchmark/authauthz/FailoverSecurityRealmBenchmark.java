@@ -0,0 +1,210 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.FailoverSecurityRealm;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.authauthz.TestSecurityRealm;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.PortAllocator;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.proxy.TcpProxy;
+
+/**
+ * Benchmark of a {@link FailoverSecurityRealm} where the delegate realm is slow or hangs rather than failing
+ * immediately.
+ *
+ * The delegate is the LDAP realm connected to the directory used by the functional tests through a {@link TcpProxy},
+ * the failover realm is the Map realm holding the same identities. The scenarios are:
+ *
+ * <ul>
+ *   <li>{@code healthy} - no faults, the baseline cost of the delegate.</li>
+ *   <li>{@code slow} - every response from the delegate is delayed by {@code slowMillis} but never times out.</li>
+ *   <li>{@code hung} - the delegate accepts connections but never responds so every authentication waits for the
+ *       read timeout before failing over.</li>
+ *   <li>{@code intermittent} - the delegate hangs for {@code faultMillis} of every {@code periodMillis}.</li>
+ *   <li>{@code outage} - the delegate refuses connections for {@code faultMillis} of every {@code periodMillis}.</li>
+ * </ul>
+ *
+ * The latency distribution and throughput are reported by JMH, the number of authentications which failed over is
+ * printed at the end of each iteration.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FailoverSecurityRealmBenchmark {
+
+    private static final String LDAP_PORT = "ldap.port";
+
+    @State(Scope.Benchmark)
+    public static class FailoverState {
+
+        @Param({"healthy", "slow", "hung", "intermittent", "outage"})
+        String scenario;
+
+        /**
+         * The connect and read timeout of the delegate realm.
+         */
+        @Param({"1000"})
+        int timeoutMillis;
+
+        @Param({"100"})
+        long slowMillis;
+
+        /**
+         * The duration of each fault, for the {@code intermittent} scenario this should exceed {@code timeoutMillis}.
+         */
+        @Param({"2000"})
+        long faultMillis;
+
+        @Param({"5000"})
+        long periodMillis;
+
+        final LongAdder failovers = new LongAdder();
+        final LongAdder authentications = new LongAdder();
+        final LongAdder failures = new LongAdder();
+
+        TcpProxy tcpProxy;
+        ScheduledExecutorService faultScheduler;
+        SecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            final int ldapPort = PortAllocator.allocatePort("localhost");
+            System.setProperty(LDAP_PORT, Integer.toString(ldapPort));
+            TestSecurityRealm.LDAP.begin();
+            TestSecurityRealm.MAP.begin();
+
+            tcpProxy = TcpProxy.builder()
+                    .setTarget("localhost", ldapPort)
+                    .start();
+            securityRealm = new FailoverSecurityRealm(
+                    BenchmarkSupport.createLdapRealm(tcpProxy.getPort(), timeoutMillis),
+                    TestSecurityRealm.MAP.createSecurityRealm(), e -> failovers.increment());
+
+            principals = AbstractAuthenticationSuite.obtainTestIdentities()
+                    .map(IdentityDefinition::username)
+                    .map(NamePrincipal::new)
+                    .toArray(NamePrincipal[]::new);
+            evidence = AbstractAuthenticationSuite.obtainTestIdentities()
+                    .map(i -> new PasswordGuessEvidence(i.password().toCharArray()))
+                    .toArray(PasswordGuessEvidence[]::new);
+
+            faultScheduler = Executors.newSingleThreadScheduledExecutor();
+            switch (scenario) {
+                case "healthy" -> { }
+                case "slow" -> tcpProxy.setLatency(Duration.ofMillis(slowMillis));
+                case "hung" -> tcpProxy.setStalled(true);
+                case "intermittent", "outage" -> faultScheduler.scheduleAtFixedRate(this::injectFault,
+                        periodMillis, periodMillis, TimeUnit.MILLISECONDS);
+                default -> throw new IllegalArgumentException(String.format("Unknown scenario '%s'", scenario));
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            failovers.reset();
+            authentications.reset();
+            failures.reset();
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportIteration() {
+            final long count = Math.max(1, authentications.sum());
+            System.out.printf("%nFailoverSecurityRealmBenchmark - %s - %d of %d authentications failed over (%.1f%%), %d failures%n",
+                    scenario, failovers.sum(), authentications.sum(), failovers.sum() * 100d / count, failures.sum());
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            faultScheduler.shutdownNow();
+            faultScheduler.awaitTermination(10, TimeUnit.SECONDS);
+            tcpProxy.close();
+            securityRealm = null;
+            TestSecurityRealm.MAP.end();
+            TestSecurityRealm.LDAP.end();
+            System.clearProperty(LDAP_PORT);
+        }
+
+        private void injectFault() {
+            try {
+                if ("outage".equals(scenario)) {
+                    tcpProxy.setRefuseConnections(true);
+                    tcpProxy.resetConnections();
+                } else {
+                    tcpProxy.setStalled(true);
+                }
+                TimeUnit.MILLISECONDS.sleep(faultMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                tcpProxy.clearFaults();
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean authenticate(final FailoverState failoverState, final IdentityState identityState) {
+        return verify(failoverState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean authenticateConcurrent(final FailoverState failoverState, final IdentityState identityState) {
+        return verify(failoverState, identityState);
+    }
+
+    private static boolean verify(final FailoverState failoverState, final IdentityState identityState) {
+        final int index = identityState.nextIndex(failoverState.principals.length);
+        failoverState.authentications.increment();
+        try {
+            RealmIdentity realmIdentity = failoverState.securityRealm.getRealmIdentity(failoverState.principals[index]);
+            try {
+                if (realmIdentity.verifyEvidence(failoverState.evidence[index])) {
+                    return true;
+                }
+            } finally {
+                realmIdentity.dispose();
+            }
+        } catch (Exception e) {
+            // Both realms failed, counted below.
+        }
+        failoverState.failures.increment();
+
+        return false;
+    }
+}
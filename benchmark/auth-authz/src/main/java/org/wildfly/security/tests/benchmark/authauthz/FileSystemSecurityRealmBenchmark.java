@@ -0,0 +1,270 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Provider;
+import java.util.Collections;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.FileSystemSecurityRealm;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.ModifiableRealmIdentityIterator;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.WildFlyElytronPasswordProvider;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+import org.wildfly.security.tests.common.authauthz.realm.ModifiableRealmIdentityLoader;
+
+/**
+ * Benchmark of a {@link FileSystemSecurityRealm} holding a large population of identities, as the number of
+ * directory levels and the encoding of the file names is changed.
+ *
+ * The realm is filled using the {@link ModifiableRealmIdentityLoader} which creates the identities from several
+ * threads. Once filled the number of directories and the files per directory are printed along with the time taken
+ * for a new realm instance to iterate every identity, the scan performed by tools such as the
+ * {@code filesystem-realm} integrity checks and bulk exports.
+ *
+ * <ul>
+ *   <li>{@code coldLookup} - each invocation authenticates the next identity from a random permutation of the whole
+ *       population so an identity is not read again until every other identity has been read.</li>
+ *   <li>{@code warmLookup} - each invocation authenticates one of a small hot set of identities so the files are
+ *       always in the page cache.</li>
+ * </ul>
+ *
+ * The page cache of the operating system is not dropped so on a machine with sufficient memory the cold lookups
+ * still avoid physical I/O, the difference is the cost of resolving and reading a file not recently read.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class FileSystemSecurityRealmBenchmark {
+
+    private static final Supplier<Provider[]> PROVIDERS = () -> new Provider[] { WildFlyElytronPasswordProvider.getInstance() };
+    private static final Path REALM_DIR = Path.of("target", "filesystem-realm-benchmark").toAbsolutePath();
+    private static final int HOT_SET_SIZE = 100;
+    private static final int PROVISIONING_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    // The directory levels are taken from the leading characters of the name so the index leads the name to spread
+    // the identities across the directories, "user%d" would place every identity under "u/s".
+    private static final String USERNAME_PATTERN = "%duser";
+
+    @State(Scope.Benchmark)
+    public static class RealmState {
+
+        @Param({"100000"})
+        long population;
+
+        @Param({"0", "1", "2"})
+        int levels;
+
+        /**
+         * Encode the names of the identity files using base32.
+         */
+        @Param({"true", "false"})
+        boolean encoded;
+
+        FileSystemSecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+        int[] coldSequence;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            BenchmarkSupport.deleteDir(REALM_DIR);
+            final IdentityGenerator identityGenerator = IdentityGenerator.builder()
+                    .setUsernamePattern(USERNAME_PATTERN)
+                    .setCount(population)
+                    .build();
+            final PasswordFactory passwordFactory = PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR, PROVIDERS);
+
+            ModifiableRealmIdentityLoader.builder()
+                    .setSecurityRealm(createRealm())
+                    .setCredentialFactory(i -> {
+                        try {
+                            return Collections.singleton(new PasswordCredential(
+                                    passwordFactory.generatePassword(new ClearPasswordSpec(i.password().toCharArray()))));
+                        } catch (Exception e) {
+                            throw new IllegalStateException(e);
+                        }
+                    })
+                    .setThreads(PROVISIONING_THREADS)
+                    .build()
+                    .load(identityGenerator.stream());
+
+            reportFanOut();
+            reportScan();
+
+            securityRealm = createRealm();
+            final int count = (int) population;
+            principals = new NamePrincipal[count];
+            evidence = new PasswordGuessEvidence[count];
+            for (int i = 0; i < count; i++) {
+                IdentityDefinition identity = identityGenerator.identity(identityGenerator.getFirstIndex() + i);
+                principals[i] = new NamePrincipal(identity.username());
+                evidence[i] = new PasswordGuessEvidence(identity.password().toCharArray());
+            }
+
+            // A fixed seed so each trial reads the identities in the same order.
+            SplittableRandom random = new SplittableRandom(population);
+            coldSequence = new int[count];
+            for (int i = 0; i < count; i++) {
+                int j = random.nextInt(i + 1);
+                coldSequence[i] = coldSequence[j];
+                coldSequence[j] = i;
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            securityRealm = null;
+            BenchmarkSupport.deleteDir(REALM_DIR);
+        }
+
+        private FileSystemSecurityRealm createRealm() {
+            return FileSystemSecurityRealm.builder()
+                    .setRoot(REALM_DIR)
+                    .setLevels(levels)
+                    .setEncoded(encoded)
+                    .setProviders(PROVIDERS)
+                    .build();
+        }
+
+        /**
+         * Print the number of directories and the distribution of the identity files across them.
+         *
+         * @throws IllegalStateException if the realm has levels but the identity files are all in one directory.
+         */
+        private void reportFanOut() throws IOException {
+            long directories = 0;
+            long leafDirectories = 0;
+            long files = 0;
+            long maxEntries = 0;
+            try (Stream<Path> pathStream = Files.walk(REALM_DIR)) {
+                for (Path current : (Iterable<Path>) pathStream::iterator) {
+                    if (Files.isDirectory(current)) {
+                        directories++;
+                        long entryCount = 0;
+                        boolean leaf = false;
+                        try (Stream<Path> entries = Files.list(current)) {
+                            for (Path entry : (Iterable<Path>) entries::iterator) {
+                                entryCount++;
+                                leaf |= Files.isRegularFile(entry);
+                            }
+                        }
+                        maxEntries = Math.max(maxEntries, entryCount);
+                        if (leaf) {
+                            leafDirectories++;
+                        }
+                    } else {
+                        files++;
+                    }
+                }
+            }
+            System.out.printf("%nFileSystemSecurityRealmBenchmark - %d levels, encoded=%b - %d identity files in %d directories (%d containing identities), max %d entries per directory%n",
+                    levels, encoded, files, directories, leafDirectories, maxEntries);
+            if (levels > 0 && leafDirectories < 2) {
+                throw new IllegalStateException(String.format(
+                        "The identities were not spread across directories with %d levels, %d leaf directories", levels, leafDirectories));
+            }
+        }
+
+        /**
+         * Print the time for a new realm instance to iterate and load every identity.
+         */
+        private void reportScan() throws RealmUnavailableException {
+            final long start = System.nanoTime();
+            long count = 0;
+            try (ModifiableRealmIdentityIterator iterator = createRealm().getRealmIdentityIterator()) {
+                while (iterator.hasNext()) {
+                    ModifiableRealmIdentity realmIdentity = iterator.next();
+                    try {
+                        if (realmIdentity.getCredential(PasswordCredential.class) != null) {
+                            count++;
+                        }
+                    } finally {
+                        realmIdentity.dispose();
+                    }
+                }
+            }
+            System.out.printf("%nFileSystemSecurityRealmBenchmark - %d levels, encoded=%b - scanned %d identities in %d ms%n",
+                    levels, encoded, count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+
+    /**
+     * Each thread starts at a different offset of the permutation so concurrent threads do not read the same files.
+     */
+    @State(Scope.Thread)
+    public static class ColdIdentityState extends IdentityState {
+
+        @Setup(Level.Trial)
+        public void setup(final RealmState realmState) {
+            next = (int) (Thread.currentThread().getId() * 7919 % realmState.coldSequence.length);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean coldLookup(final RealmState realmState, final ColdIdentityState identityState)
+            throws RealmUnavailableException {
+        return authenticate(realmState, realmState.coldSequence[identityState.nextIndex(realmState.coldSequence.length)]);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean coldLookupConcurrent(final RealmState realmState, final ColdIdentityState identityState)
+            throws RealmUnavailableException {
+        return authenticate(realmState, realmState.coldSequence[identityState.nextIndex(realmState.coldSequence.length)]);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean warmLookup(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return authenticate(realmState, identityState.nextIndex(Math.min(HOT_SET_SIZE, realmState.principals.length)));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean warmLookupConcurrent(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return authenticate(realmState, identityState.nextIndex(Math.min(HOT_SET_SIZE, realmState.principals.length)));
+    }
+
+    private static boolean authenticate(final RealmState realmState, final int index) throws RealmUnavailableException {
+        return BenchmarkSupport.verify(realmState.securityRealm, realmState.principals[index], realmState.evidence[index]);
+    }
+}
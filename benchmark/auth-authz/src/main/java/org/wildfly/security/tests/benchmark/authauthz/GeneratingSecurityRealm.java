@@ -0,0 +1,155 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import static org.wildfly.security.password.interfaces.ClearPassword.ALGORITHM_CLEAR;
+import static org.wildfly.security.password.interfaces.DigestPassword.ALGORITHM_DIGEST_MD5;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Collections;
+import java.util.Set;
+
+import org.wildfly.common.Assert;
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.authz.MapAttributes;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.Evidence;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.Password;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+import org.wildfly.security.password.spec.DigestPasswordAlgorithmSpec;
+import org.wildfly.security.password.spec.PasswordSpec;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+
+/**
+ * A {@code SecurityRealm} implemented the same way as the integration testsuite's {@code TestCustomSecurityRealm},
+ * the identity is generated for each lookup and a {@code PasswordFactory} is obtained and a {@code Password}
+ * generated for each {@code getCredential} and {@code verifyEvidence} call.
+ *
+ * The integration testsuite classes are not available to the benchmarks so the read path of that realm is
+ * reproduced here as the baseline for the {@code IndexedSecurityRealm}, any change to the read path of
+ * {@code TestCustomSecurityRealm} should be made here as well.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+class GeneratingSecurityRealm implements SecurityRealm {
+
+    private final IdentityGenerator identities;
+
+    GeneratingSecurityRealm(final IdentityGenerator identities) {
+        this.identities = identities;
+    }
+
+    @Override
+    public SupportLevel getCredentialAcquireSupport(final Class<? extends Credential> credentialType,
+            final String algorithmName, final AlgorithmParameterSpec parameterSpec) throws RealmUnavailableException {
+        Assert.checkNotNullParam("credentialType", credentialType);
+        return PasswordCredential.class.isAssignableFrom(credentialType)
+                && (algorithmName == null || algorithmName.equals(ALGORITHM_CLEAR) || algorithmName.equals(ALGORITHM_DIGEST_MD5))
+                && (parameterSpec == null || parameterSpec instanceof DigestPasswordAlgorithmSpec)
+                ? SupportLevel.SUPPORTED : SupportLevel.UNSUPPORTED;
+    }
+
+    @Override
+    public SupportLevel getEvidenceVerifySupport(final Class<? extends Evidence> evidenceType,
+            final String algorithmName) throws RealmUnavailableException {
+        return PasswordGuessEvidence.class.isAssignableFrom(evidenceType) ? SupportLevel.SUPPORTED : SupportLevel.UNSUPPORTED;
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(final Principal principal) throws RealmUnavailableException {
+        NamePrincipal namePrincipal = NamePrincipal.from(principal);
+        IdentityDefinition identity = namePrincipal == null ? null : identities.lookup(namePrincipal.getName());
+
+        if (identity == null) {
+            return RealmIdentity.NON_EXISTENT;
+        }
+
+        return new RealmIdentity() {
+
+            @Override
+            public Principal getRealmIdentityPrincipal() {
+                return namePrincipal;
+            }
+
+            @Override
+            public SupportLevel getCredentialAcquireSupport(final Class<? extends Credential> credentialType,
+                    final String algorithmName, final AlgorithmParameterSpec parameterSpec) throws RealmUnavailableException {
+                return GeneratingSecurityRealm.this.getCredentialAcquireSupport(credentialType, algorithmName, parameterSpec);
+            }
+
+            @Override
+            public <C extends Credential> C getCredential(final Class<C> credentialType) throws RealmUnavailableException {
+                return getCredential(credentialType, null, null);
+            }
+
+            @Override
+            public <C extends Credential> C getCredential(final Class<C> credentialType, final String algorithmName)
+                    throws RealmUnavailableException {
+                return getCredential(credentialType, algorithmName, null);
+            }
+
+            @Override
+            public <C extends Credential> C getCredential(final Class<C> credentialType, final String algorithmName,
+                    final AlgorithmParameterSpec parameterSpec) throws RealmUnavailableException {
+                try {
+                    final PasswordFactory passwordFactory = PasswordFactory.getInstance(ALGORITHM_CLEAR);
+                    final PasswordSpec passwordSpec = new ClearPasswordSpec(identity.password().toCharArray());
+                    return credentialType.cast(new PasswordCredential(passwordFactory.generatePassword(passwordSpec)));
+                } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public SupportLevel getEvidenceVerifySupport(final Class<? extends Evidence> evidenceType,
+                    final String algorithmName) throws RealmUnavailableException {
+                return GeneratingSecurityRealm.this.getEvidenceVerifySupport(evidenceType, algorithmName);
+            }
+
+            @Override
+            public boolean verifyEvidence(final Evidence evidence) throws RealmUnavailableException {
+                if (!(evidence instanceof PasswordGuessEvidence)) {
+                    return false;
+                }
+
+                final char[] guess = ((PasswordGuessEvidence) evidence).getGuess();
+
+                try {
+                    final PasswordFactory passwordFactory = PasswordFactory.getInstance(ALGORITHM_CLEAR);
+                    final PasswordSpec passwordSpec = new ClearPasswordSpec(identity.password().toCharArray());
+                    final Password actualPassword = passwordFactory.generatePassword(passwordSpec);
+                    return passwordFactory.verify(actualPassword, guess);
+                } catch (InvalidKeySpecException | InvalidKeyException | IllegalStateException | NoSuchAlgorithmException e) {
+                    throw new IllegalStateException(e);
+                }
+            }
+
+            @Override
+            public boolean exists() throws RealmUnavailableException {
+                return true;
+            }
+
+            @Override
+            public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+                return AuthorizationIdentity.basicIdentity(new MapAttributes(
+                        Collections.singletonMap("groups", Collections.unmodifiableSet(Set.of("admin")))));
+            }
+        };
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.http.ConcurrentHttpDigestClientAuthenticationUtility;
+import org.wildfly.security.tests.common.authauthz.http.ConcurrentHttpDigestClientAuthenticationUtility.Challenge;
+import org.wildfly.security.tests.common.authauthz.http.ConcurrentHttpDigestClientAuthenticationUtility.Credentials;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+
+/**
+ * Benchmark of the client side signing of HTTP DIGEST requests using the
+ * {@link ConcurrentHttpDigestClientAuthenticationUtility}, i.e. the rate a single load generating process can
+ * create {@code Authorization} headers without any network or server overhead.
+ *
+ * All threads share the same utility and challenge so the concurrent benchmark also measures the contention
+ * on the nonce count of a nonce reused by many clients.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class HttpDigestSigningBenchmark {
+
+    private static final String CHALLENGE = "realm=\"Elytron Realm\", nonce=\"AAAAAQAEnTXyWRGBZh1ujsz4xOjsNeoJT6z8gSsaaqtiMZQB6T3Eo0U=\", "
+            + "opaque=\"00000000000000000000000000000000\", algorithm=MD5, qop=auth";
+    private static final String PATH = "/helloDIGEST_MD5/secured";
+
+    @State(Scope.Benchmark)
+    public static class SignerState {
+
+        /**
+         * The number of distinct users signing requests, {@code HA1} is cached for each user.
+         */
+        @Param({"1", "1000"})
+        int users;
+
+        ConcurrentHttpDigestClientAuthenticationUtility digestUtility;
+        Challenge challenge;
+        Credentials[] credentials;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            digestUtility = new ConcurrentHttpDigestClientAuthenticationUtility();
+            challenge = digestUtility.parseChallenge(CHALLENGE);
+            IdentityDefinition[] identities = IdentityGenerator.builder()
+                    .setCount(users)
+                    .build()
+                    .stream()
+                    .toArray(IdentityDefinition[]::new);
+            credentials = new Credentials[identities.length];
+            for (int i = 0; i < identities.length; i++) {
+                credentials[i] = digestUtility.credentials(identities[i].username(), identities[i].password());
+            }
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public String sign(final SignerState signerState, final IdentityState identityState) {
+        return createAuthorization(signerState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public String signConcurrent(final SignerState signerState, final IdentityState identityState) {
+        return createAuthorization(signerState, identityState);
+    }
+
+    private static String createAuthorization(final SignerState signerState, final IdentityState identityState) {
+        Credentials credentials = signerState.credentials[identityState.nextIndex(signerState.credentials.length)];
+        return signerState.digestUtility.createAuthorization(credentials, signerState.challenge, PATH);
+    }
+}
@@ -0,0 +1,141 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.security.auth.login.Configuration;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.JaasSecurityRealm;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+import org.wildfly.security.tests.common.authauthz.jaas.IndexedJaasLoginModule;
+
+/**
+ * Benchmark of a {@link JaasSecurityRealm} backed by the {@link IndexedJaasLoginModule}, measuring the cost of the
+ * JAAS {@code LoginContext} for each authentication.
+ *
+ * <ul>
+ *   <li>{@code authenticate} - verifies the password of an identity through {@code JaasSecurityRealm("JaasEntry")}, a
+ *       new {@code LoginContext} and {@code LoginModule} are created for each verification.</li>
+ *   <li>{@code direct} - verifies the same password directly against the index used by the login module.</li>
+ * </ul>
+ *
+ * With {@code costMicros=0} the difference between the two is the overhead of the JAAS framework and the realm, with
+ * a simulated backend cost the overhead can be compared to the cost of the store being bridged. The simulated cost is
+ * only spent by the login module so is not included in {@code direct}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JaasSecurityRealmBenchmark {
+
+    private static final String ENTRY_NAME = "JaasEntry";
+
+    @State(Scope.Benchmark)
+    public static class JaasState {
+
+        @Param({"100", "100000"})
+        long population;
+
+        /**
+         * The simulated backend cost of each login in microseconds.
+         */
+        @Param({"0", "100"})
+        long costMicros;
+
+        SecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+        char[][] passwords;
+
+        @Setup(Level.Trial)
+        public void setup() {
+            final IdentityGenerator identityGenerator = IdentityGenerator.builder()
+                    .setCount(population)
+                    .build();
+            IndexedJaasLoginModule.install(identityGenerator.stream());
+            Configuration.setConfiguration(IndexedJaasLoginModule.configuration(ENTRY_NAME, costMicros));
+            securityRealm = new JaasSecurityRealm(ENTRY_NAME);
+
+            final int count = (int) population;
+            principals = new NamePrincipal[count];
+            evidence = new PasswordGuessEvidence[count];
+            passwords = new char[count][];
+            for (int i = 0; i < count; i++) {
+                IdentityDefinition identity = identityGenerator.identity(identityGenerator.getFirstIndex() + i);
+                principals[i] = new NamePrincipal(identity.username());
+                passwords[i] = identity.password().toCharArray();
+                evidence[i] = new PasswordGuessEvidence(passwords[i]);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() {
+            securityRealm = null;
+            IndexedJaasLoginModule.uninstall();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean authenticate(final JaasState jaasState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(jaasState, identityState.nextIndex(jaasState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean authenticateConcurrent(final JaasState jaasState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(jaasState, identityState.nextIndex(jaasState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean direct(final JaasState jaasState, final IdentityState identityState) {
+        return verifyDirect(jaasState, identityState.nextIndex(jaasState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean directConcurrent(final JaasState jaasState, final IdentityState identityState) {
+        return verifyDirect(jaasState, identityState.nextIndex(jaasState.principals.length));
+    }
+
+    private static boolean verify(final JaasState jaasState, final int index) throws RealmUnavailableException {
+        return BenchmarkSupport.verify(jaasState.securityRealm, jaasState.principals[index], jaasState.evidence[index]);
+    }
+
+    private static boolean verifyDirect(final JaasState jaasState, final int index) {
+        return BenchmarkSupport.verified(
+                IndexedJaasLoginModule.verify(jaasState.principals[index].getName(), jaasState.passwords[index]),
+                jaasState.principals[index].getName());
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.security.Provider;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.hsqldb.jdbc.JDBCDataSource;
+import org.hsqldb.jdbc.JDBCPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.jdbc.JdbcSecurityRealm;
+import org.wildfly.security.auth.realm.jdbc.mapper.PasswordKeyMapper;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.WildFlyElytronPasswordProvider;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+import org.wildfly.security.tests.common.authauthz.jdbc.JdbcIdentityLoader;
+
+/**
+ * Benchmark of the principal query of a {@link JdbcSecurityRealm} as the number of rows in the users table grows.
+ *
+ * The table is populated using the {@link JdbcIdentityLoader} and each invocation authenticates an identity
+ * selected at random from across the whole table so the lookups are not served from a small set of hot rows.
+ * The realm either obtains a new connection for each query or borrows one from a pool of the configured size.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class JdbcSecurityRealmBenchmark {
+
+    private static final int SAMPLE_SIZE = 10_000;
+    private static final int LOAD_CONNECTIONS = 4;
+
+    @State(Scope.Benchmark)
+    public static class RealmState {
+
+        @Param({"1000", "100000", "1000000"})
+        long tableSize;
+
+        /**
+         * The size of the connection pool, {@code 0} to open a new connection for each query.
+         */
+        @Param({"0", "16"})
+        int poolSize;
+
+        JDBCDataSource unpooledDataSource;
+        JDBCPool pool;
+        SecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            // A new database for each trial so the tables of previous trials are not retained.
+            String database = String.format("mem:jdbc-realm-benchmark-%d-%d", tableSize, poolSize);
+            unpooledDataSource = new JDBCDataSource();
+            unpooledDataSource.setDatabase(database);
+            unpooledDataSource.setUser("sa");
+
+            IdentityGenerator identityGenerator = IdentityGenerator.builder()
+                    .setCount(tableSize)
+                    .build();
+            JdbcIdentityLoader loader = JdbcIdentityLoader.builder()
+                    .setConnectionFactory(unpooledDataSource::getConnection)
+                    .setBatchSize(10_000)
+                    .setConnections(LOAD_CONNECTIONS)
+                    .build();
+            loader.createTables();
+            loader.load(identityGenerator.stream());
+
+            DataSource dataSource = unpooledDataSource;
+            if (poolSize > 0) {
+                pool = new JDBCPool(poolSize);
+                pool.setUrl("jdbc:hsqldb:" + database);
+                pool.setUser("sa");
+                pool.setPassword("");
+                dataSource = pool;
+            }
+
+            PasswordKeyMapper passwordKeyMapper = PasswordKeyMapper.builder()
+                    .setDefaultAlgorithm(ClearPassword.ALGORITHM_CLEAR)
+                    .setHashColumn(1)
+                    .build();
+            securityRealm = JdbcSecurityRealm.builder()
+                    .principalQuery("SELECT password FROM jdbc_realm_users WHERE username = ?")
+                    .withMapper(passwordKeyMapper)
+                    .from(dataSource)
+                    .setProviders(() -> new Provider[] { WildFlyElytronPasswordProvider.getInstance() })
+                    .build();
+
+            // A fixed seed so each trial authenticates the same sample of identities.
+            SplittableRandom random = new SplittableRandom(tableSize);
+            int sampleSize = (int) Math.min(SAMPLE_SIZE, tableSize);
+            principals = new NamePrincipal[sampleSize];
+            evidence = new PasswordGuessEvidence[sampleSize];
+            for (int i = 0; i < sampleSize; i++) {
+                IdentityDefinition identity = identityGenerator.identity(random.nextLong(tableSize));
+                principals[i] = new NamePrincipal(identity.username());
+                evidence[i] = new PasswordGuessEvidence(identity.password().toCharArray());
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws SQLException {
+            securityRealm = null;
+            if (pool != null) {
+                pool.close(0);
+                pool = null;
+            }
+            try (Connection connection = unpooledDataSource.getConnection();
+                    Statement statement = connection.createStatement()) {
+                statement.execute("SHUTDOWN");
+            }
+            unpooledDataSource = null;
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean principalQuery(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return authenticate(realmState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean principalQueryConcurrent(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return authenticate(realmState, identityState);
+    }
+
+    private static boolean authenticate(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        int index = identityState.nextIndex(realmState.principals.length);
+        return BenchmarkSupport.verify(realmState.securityRealm, realmState.principals[index], realmState.evidence[index]);
+    }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.security.Principal;
+import java.security.spec.AlgorithmParameterSpec;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.realm.CacheableSecurityRealm;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.evidence.Evidence;
+
+/**
+ * A {@code SecurityRealm} delegating to a backing realm which adds a fixed latency to each {@code getRealmIdentity}
+ * call, simulating a remote store, and counts the calls which reach it.
+ *
+ * The {@code CachingSecurityRealm} only accepts a {@code CacheableSecurityRealm}, the identity change listener
+ * is registered with the backing realm where it supports it.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+class LatencySecurityRealm implements CacheableSecurityRealm {
+
+    private final SecurityRealm delegate;
+    final LongAdder lookups = new LongAdder();
+    volatile long latencyNanos;
+
+    LatencySecurityRealm(final SecurityRealm delegate, final long latencyNanos) {
+        this.delegate = delegate;
+        this.latencyNanos = latencyNanos;
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(final Principal principal) throws RealmUnavailableException {
+        lookups.increment();
+        final long latency = latencyNanos;
+        if (latency > 0) {
+            final long deadline = System.nanoTime() + latency;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+
+        return delegate.getRealmIdentity(principal);
+    }
+
+    @Override
+    public SupportLevel getCredentialAcquireSupport(final Class<? extends Credential> credentialType,
+            final String algorithmName, final AlgorithmParameterSpec parameterSpec) throws RealmUnavailableException {
+        return delegate.getCredentialAcquireSupport(credentialType, algorithmName, parameterSpec);
+    }
+
+    @Override
+    public SupportLevel getEvidenceVerifySupport(final Class<? extends Evidence> evidenceType,
+            final String algorithmName) throws RealmUnavailableException {
+        return delegate.getEvidenceVerifySupport(evidenceType, algorithmName);
+    }
+
+    @Override
+    public void registerIdentityChangeListener(final Consumer<Principal> listener) {
+        if (delegate instanceof CacheableSecurityRealm cacheableSecurityRealm) {
+            cacheableSecurityRealm.registerIdentityChangeListener(listener);
+        }
+    }
+}
@@ -0,0 +1,380 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.Provider;
+import java.security.spec.InvalidKeySpecException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.FileSystemSecurityRealm;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.ModifiableRealmIdentityIterator;
+import org.wildfly.security.auth.server.ModifiableSecurityRealm;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.authz.MapAttributes;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.WildFlyElytronPasswordProvider;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.RandomIdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+import org.wildfly.security.tests.common.authauthz.realm.ModifiableRealmIdentityLoader;
+
+/**
+ * Benchmark of the write operations of a {@link ModifiableSecurityRealm}, and of reads whilst the realm is being
+ * written to, using a {@link FileSystemSecurityRealm} filled with {@code population} identities.
+ *
+ * <ul>
+ *   <li>{@code create} - creates a new identity with a password.</li>
+ *   <li>{@code updateCredential} - replaces the password of a random existing identity, as a password reset does.</li>
+ *   <li>{@code updateAttributes} - replaces the attributes of a random existing identity.</li>
+ *   <li>{@code delete} - deletes an identity, the identity is created before each invocation outside of the
+ *       measurement.</li>
+ *   <li>{@code iterate} - a single shot iteration of every identity in a separate realm filled with
+ *       {@code iterationPopulation} identities, loading the credential of each.</li>
+ *   <li>{@code read} - authentication of random identities with no writes in progress.</li>
+ *   <li>{@code readWithWrites} - the {@code reader} threads authenticate random identities whilst a {@code writer}
+ *       thread replaces passwords of random identities, the latency of {@code reader} compared to {@code read} shows
+ *       the interference of the writes with the reads. Reads which fail to verify are counted and printed after each
+ *       iteration.</li>
+ * </ul>
+ *
+ * The passwords are replaced with the same value so concurrent reads can always be verified.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ModifiableSecurityRealmBenchmark {
+
+    private static final Supplier<Provider[]> PROVIDERS = () -> new Provider[] { WildFlyElytronPasswordProvider.getInstance() };
+    private static final Path REALM_DIR = Path.of("target", "modifiable-realm-benchmark").toAbsolutePath();
+    private static final Path ITERATION_REALM_DIR = Path.of("target", "modifiable-realm-iteration-benchmark").toAbsolutePath();
+    private static final int PROVISIONING_THREADS = Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    // The directory levels are taken from the leading characters of the name so the index leads the name to spread
+    // the identities across the directories, "user%d" would place every identity under "u/s".
+    private static final String USERNAME_PATTERN = "%duser";
+    private static final String CREATED_USERNAME_PATTERN = "%dcreated";
+
+    @State(Scope.Benchmark)
+    public static class RealmState {
+
+        @Param({"100000"})
+        long population;
+
+        final AtomicLong created = new AtomicLong();
+        final LongAdder failedReads = new LongAdder();
+
+        ModifiableSecurityRealm securityRealm;
+        PasswordFactory passwordFactory;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+        String[] passwords;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            passwordFactory = PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR, PROVIDERS);
+            final IdentityGenerator identityGenerator = createIdentityGenerator(population);
+            securityRealm = createRealm(REALM_DIR, passwordFactory, identityGenerator);
+
+            final int count = (int) population;
+            principals = new NamePrincipal[count];
+            evidence = new PasswordGuessEvidence[count];
+            passwords = new String[count];
+            for (int i = 0; i < count; i++) {
+                IdentityDefinition identity = identityGenerator.identity(identityGenerator.getFirstIndex() + i);
+                principals[i] = new NamePrincipal(identity.username());
+                passwords[i] = identity.password();
+                evidence[i] = new PasswordGuessEvidence(passwords[i].toCharArray());
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            failedReads.reset();
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportIteration() {
+            final long failed = failedReads.sum();
+            if (failed > 0) {
+                System.out.printf("%nModifiableSecurityRealmBenchmark - %d reads failed to verify%n", failed);
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            securityRealm = null;
+            BenchmarkSupport.deleteDir(REALM_DIR);
+        }
+
+        NamePrincipal nextNewPrincipal() {
+            return new NamePrincipal(String.format(CREATED_USERNAME_PATTERN, created.incrementAndGet()));
+        }
+    }
+
+    /**
+     * A separate realm for {@code iterate} so the iteration can use a larger population than the other benchmarks
+     * without each of them filling a realm of that size.
+     */
+    @State(Scope.Benchmark)
+    public static class IterationState {
+
+        @Param({"1000000"})
+        long iterationPopulation;
+
+        ModifiableSecurityRealm securityRealm;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            securityRealm = createRealm(ITERATION_REALM_DIR,
+                    PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR, PROVIDERS),
+                    createIdentityGenerator(iterationPopulation));
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            securityRealm = null;
+            BenchmarkSupport.deleteDir(ITERATION_REALM_DIR);
+        }
+    }
+
+    /**
+     * An identity created before each invocation of {@code delete}, creating the identity takes at least as long as
+     * deleting it so the overhead of an invocation level fixture is not significant.
+     */
+    @State(Scope.Thread)
+    public static class DeleteState {
+
+        NamePrincipal principal;
+
+        @Setup(Level.Invocation)
+        public void createIdentity(final RealmState realmState) throws Exception {
+            principal = realmState.nextNewPrincipal();
+            create(realmState, principal);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void create(final RealmState realmState) throws Exception {
+        create(realmState, realmState.nextNewPrincipal());
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void createConcurrent(final RealmState realmState) throws Exception {
+        create(realmState, realmState.nextNewPrincipal());
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void updateCredential(final RealmState realmState, final RandomIdentityState identityState) throws Exception {
+        updateCredential(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void updateCredentialConcurrent(final RealmState realmState, final RandomIdentityState identityState) throws Exception {
+        updateCredential(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void updateAttributes(final RealmState realmState, final RandomIdentityState identityState)
+            throws RealmUnavailableException {
+        updateAttributes(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void updateAttributesConcurrent(final RealmState realmState, final RandomIdentityState identityState)
+            throws RealmUnavailableException {
+        updateAttributes(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(1)
+    public void delete(final RealmState realmState, final DeleteState deleteState) throws RealmUnavailableException {
+        delete(realmState, deleteState.principal);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public void deleteConcurrent(final RealmState realmState, final DeleteState deleteState) throws RealmUnavailableException {
+        delete(realmState, deleteState.principal);
+    }
+
+    @Benchmark
+    @Threads(1)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    public long iterate(final IterationState iterationState) throws RealmUnavailableException {
+        long count = 0;
+        try (ModifiableRealmIdentityIterator iterator = iterationState.securityRealm.getRealmIdentityIterator()) {
+            while (iterator.hasNext()) {
+                ModifiableRealmIdentity realmIdentity = iterator.next();
+                try {
+                    if (realmIdentity.getCredential(PasswordCredential.class) != null) {
+                        count++;
+                    }
+                } finally {
+                    realmIdentity.dispose();
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Uses the same number of threads as {@link #reader(RealmState, RandomIdentityState)} so the two can be compared.
+     */
+    @Benchmark
+    @Threads(3)
+    public boolean read(final RealmState realmState, final RandomIdentityState identityState) throws RealmUnavailableException {
+        return authenticate(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Group("readWithWrites")
+    @GroupThreads(3)
+    public boolean reader(final RealmState realmState, final RandomIdentityState identityState) throws RealmUnavailableException {
+        return authenticate(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Group("readWithWrites")
+    @GroupThreads(1)
+    public void writer(final RealmState realmState, final RandomIdentityState identityState) throws Exception {
+        updateCredential(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    private static boolean authenticate(final RealmState realmState, final int index) throws RealmUnavailableException {
+        RealmIdentity realmIdentity = realmState.securityRealm.getRealmIdentity(realmState.principals[index]);
+        try {
+            boolean verified = realmIdentity.verifyEvidence(realmState.evidence[index]);
+            if (!verified) {
+                realmState.failedReads.increment();
+            }
+            return verified;
+        } finally {
+            realmIdentity.dispose();
+        }
+    }
+
+    private static void create(final RealmState realmState, final NamePrincipal principal) throws Exception {
+        ModifiableRealmIdentity realmIdentity = realmState.securityRealm.getRealmIdentityForUpdate(principal);
+        try {
+            realmIdentity.create();
+            realmIdentity.setCredentials(createCredentials(realmState.passwordFactory, principal.getName()));
+        } finally {
+            realmIdentity.dispose();
+        }
+    }
+
+    private static void updateCredential(final RealmState realmState, final int index) throws Exception {
+        ModifiableRealmIdentity realmIdentity = realmState.securityRealm.getRealmIdentityForUpdate(realmState.principals[index]);
+        try {
+            realmIdentity.setCredentials(createCredentials(realmState.passwordFactory, realmState.passwords[index]));
+        } finally {
+            realmIdentity.dispose();
+        }
+    }
+
+    private static void updateAttributes(final RealmState realmState, final int index) throws RealmUnavailableException {
+        ModifiableRealmIdentity realmIdentity = realmState.securityRealm.getRealmIdentityForUpdate(realmState.principals[index]);
+        try {
+            MapAttributes attributes = new MapAttributes();
+            attributes.addFirst("passwordLastReset", Long.toString(System.currentTimeMillis()));
+            realmIdentity.setAttributes(attributes);
+        } finally {
+            realmIdentity.dispose();
+        }
+    }
+
+    private static void delete(final RealmState realmState, final NamePrincipal principal) throws RealmUnavailableException {
+        ModifiableRealmIdentity realmIdentity = realmState.securityRealm.getRealmIdentityForUpdate(principal);
+        try {
+            realmIdentity.delete();
+        } finally {
+            realmIdentity.dispose();
+        }
+    }
+
+    private static IdentityGenerator createIdentityGenerator(final long population) {
+        return IdentityGenerator.builder()
+                .setUsernamePattern(USERNAME_PATTERN)
+                .setCount(population)
+                .build();
+    }
+
+    /**
+     * Create a {@code FileSystemSecurityRealm} in an empty directory filled with the identities of the generator.
+     */
+    private static ModifiableSecurityRealm createRealm(final Path realmDir, final PasswordFactory passwordFactory,
+            final IdentityGenerator identityGenerator) throws IOException, RealmUnavailableException {
+        BenchmarkSupport.deleteDir(realmDir);
+        final ModifiableSecurityRealm securityRealm = FileSystemSecurityRealm.builder()
+                .setRoot(realmDir)
+                .setLevels(2)
+                .setProviders(PROVIDERS)
+                .build();
+
+        ModifiableRealmIdentityLoader.builder()
+                .setSecurityRealm(securityRealm)
+                .setCredentialFactory(i -> {
+                    try {
+                        return createCredentials(passwordFactory, i.password());
+                    } catch (InvalidKeySpecException e) {
+                        throw new IllegalStateException(e);
+                    }
+                })
+                .setThreads(PROVISIONING_THREADS)
+                .build()
+                .load(identityGenerator.stream());
+
+        return securityRealm;
+    }
+
+    private static List<PasswordCredential> createCredentials(final PasswordFactory passwordFactory, final String password)
+            throws InvalidKeySpecException {
+        return Collections.singletonList(new PasswordCredential(
+                passwordFactory.generatePassword(new ClearPasswordSpec(password.toCharArray()))));
+    }
+}
@@ -0,0 +1,394 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.security.cert.Certificate;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import javax.net.ssl.SSLSession;
+import javax.security.sasl.SaslClient;
+import javax.security.sasl.SaslClientFactory;
+import javax.security.sasl.SaslException;
+import javax.security.sasl.SaslServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.HttpAuthenticationFactory;
+import org.wildfly.security.auth.server.MechanismConfiguration;
+import org.wildfly.security.auth.server.MechanismConfigurationSelector;
+import org.wildfly.security.auth.server.MechanismRealmConfiguration;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SaslAuthenticationFactory;
+import org.wildfly.security.auth.server.SecurityDomain;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.http.HttpAuthenticationException;
+import org.wildfly.security.http.HttpScope;
+import org.wildfly.security.http.HttpServerAuthenticationMechanism;
+import org.wildfly.security.http.HttpServerCookie;
+import org.wildfly.security.http.HttpServerMechanismsResponder;
+import org.wildfly.security.http.HttpServerRequest;
+import org.wildfly.security.http.basic.BasicMechanismFactory;
+import org.wildfly.security.sasl.plain.PlainSaslClientFactory;
+import org.wildfly.security.sasl.plain.PlainSaslServerFactory;
+import org.wildfly.security.sasl.util.ProtocolSaslServerFactory;
+import org.wildfly.security.sasl.util.ServerNameSaslServerFactory;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.authauthz.TestSecurityRealm;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.ClientCallbackHandler;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+
+/**
+ * Benchmark of the cost of verifying a password for each password storage algorithm a realm can be configured
+ * with, both directly using {@link RealmIdentity#verifyEvidence(org.wildfly.security.evidence.Evidence)} and end to
+ * end through the HTTP BASIC and SASL PLAIN mechanisms.
+ *
+ * The {@code storage} parameter is the password algorithm optionally followed by {@code :} and the iteration count,
+ * for bcrypt this is the cost factor. The realms are created using the same factories as the functional tests with
+ * the {@link IdentityGenerator} configured to store the passwords using the algorithm under test.
+ *
+ * The mechanisms are evaluated in process, the HTTP request is a minimal {@link HttpServerRequest} carrying only the
+ * {@code Authorization} header so the cost measured is the mechanism and {@code SecurityDomain} without any network.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PasswordStorageBenchmark {
+
+    private static final String AUTHORIZATION = "Authorization";
+    private static final String BASIC = "BASIC";
+    private static final String PLAIN = "PLAIN";
+    private static final String PROTOCOL = "remote";
+    private static final String SERVER_NAME = "localhost";
+
+    @State(Scope.Benchmark)
+    public static class StorageState {
+
+        @Param({"Map", "FileSystem", "JDBC"})
+        String realmType;
+
+        @Param({"clear", "password-salt-digest-sha-256", "bcrypt:10", "bcrypt:12", "crypt-sha-512:5000",
+                "crypt-sha-512:50000", "scram-sha-256:4096", "scram-sha-256:100000"})
+        String storage;
+
+        TestSecurityRealm testSecurityRealm;
+        SecurityRealm securityRealm;
+        HttpAuthenticationFactory httpAuthenticationFactory;
+        SaslAuthenticationFactory saslAuthenticationFactory;
+        SaslClientFactory saslClientFactory;
+        IdentityDefinition[] identities;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+        String[] authorizations;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            // The IdentityGenerator used by the realms reads these once, JMH forks a new JVM for each trial.
+            final int separator = storage.indexOf(':');
+            final String passwordAlgorithm = separator > 0 ? storage.substring(0, separator) : storage;
+            final int iterationCount = separator > 0 ? Integer.parseInt(storage.substring(separator + 1)) : 0;
+            System.setProperty(IdentityGenerator.PASSWORD_ALGORITHM, passwordAlgorithm);
+            System.setProperty(IdentityGenerator.ITERATION_COUNT, Integer.toString(iterationCount));
+            IdentityGenerator identityGenerator = AbstractAuthenticationSuite.identityGenerator();
+            if (!passwordAlgorithm.equals(identityGenerator.getPasswordAlgorithm())
+                    || identityGenerator.getIterationCount() != iterationCount) {
+                throw new IllegalStateException("The IdentityGenerator was initialised before the trial, a fork per trial is required.");
+            }
+
+            testSecurityRealm = TestSecurityRealm.forRealmType(realmType);
+            testSecurityRealm.begin();
+            securityRealm = testSecurityRealm.createSecurityRealm();
+
+            SecurityDomain securityDomain = AbstractAuthenticationSuite.createSecurityDomain(UnaryOperator.identity());
+            httpAuthenticationFactory = HttpAuthenticationFactory.builder()
+                    .setFactory(new BasicMechanismFactory())
+                    .setSecurityDomain(securityDomain)
+                    .setMechanismConfigurationSelector(MechanismConfigurationSelector.constantSelector(
+                            MechanismConfiguration.builder()
+                                    .addMechanismRealm(MechanismRealmConfiguration.builder().setRealmName("Elytron Realm").build())
+                                    .build()))
+                    .build();
+            saslAuthenticationFactory = SaslAuthenticationFactory.builder()
+                    .setSecurityDomain(securityDomain)
+                    .setFactory(new PlainSaslServerFactory())
+                    .setMechanismConfigurationSelector(mechanismInformation -> MechanismConfiguration.EMPTY)
+                    .build();
+            saslClientFactory = new PlainSaslClientFactory();
+
+            identities = AbstractAuthenticationSuite.obtainTestIdentities().toArray(IdentityDefinition[]::new);
+            principals = new NamePrincipal[identities.length];
+            evidence = new PasswordGuessEvidence[identities.length];
+            authorizations = new String[identities.length];
+            for (int i = 0; i < identities.length; i++) {
+                principals[i] = new NamePrincipal(identities[i].username());
+                evidence[i] = new PasswordGuessEvidence(identities[i].password().toCharArray());
+                authorizations[i] = "Basic " + Base64.getEncoder().encodeToString(
+                        (identities[i].username() + ":" + identities[i].password()).getBytes(UTF_8));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            securityRealm = null;
+            httpAuthenticationFactory = null;
+            saslAuthenticationFactory = null;
+            testSecurityRealm.end();
+            System.clearProperty(IdentityGenerator.PASSWORD_ALGORITHM);
+            System.clearProperty(IdentityGenerator.ITERATION_COUNT);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean verifyEvidence(final StorageState storageState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(storageState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean verifyEvidenceConcurrent(final StorageState storageState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(storageState, identityState);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean httpBasic(final StorageState storageState, final IdentityState identityState)
+            throws HttpAuthenticationException {
+        return basic(storageState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean httpBasicConcurrent(final StorageState storageState, final IdentityState identityState)
+            throws HttpAuthenticationException {
+        return basic(storageState, identityState);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean saslPlain(final StorageState storageState, final IdentityState identityState) throws SaslException {
+        return plain(storageState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean saslPlainConcurrent(final StorageState storageState, final IdentityState identityState)
+            throws SaslException {
+        return plain(storageState, identityState);
+    }
+
+    private static boolean verify(final StorageState storageState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        int index = identityState.nextIndex(storageState.principals.length);
+        return BenchmarkSupport.verify(storageState.securityRealm, storageState.principals[index], storageState.evidence[index]);
+    }
+
+    private static boolean basic(final StorageState storageState, final IdentityState identityState)
+            throws HttpAuthenticationException {
+        int index = identityState.nextIndex(storageState.identities.length);
+        HttpServerAuthenticationMechanism mechanism = storageState.httpAuthenticationFactory.createMechanism(BASIC);
+        BasicServerRequest request = new BasicServerRequest(storageState.authorizations[index]);
+        try {
+            mechanism.evaluateRequest(request);
+        } finally {
+            mechanism.dispose();
+        }
+        if (!request.complete) {
+            throw new IllegalStateException(String.format("Authentication failed for identity '%s'",
+                    storageState.identities[index].username()));
+        }
+
+        return true;
+    }
+
+    private static boolean plain(final StorageState storageState, final IdentityState identityState) throws SaslException {
+        final IdentityDefinition identity = storageState.identities[identityState.nextIndex(storageState.identities.length)];
+        final SaslClient saslClient = storageState.saslClientFactory.createSaslClient(new String[] { PLAIN }, null,
+                PROTOCOL, SERVER_NAME, Collections.emptyMap(), new ClientCallbackHandler(identity));
+        final SaslServer saslServer = storageState.saslAuthenticationFactory.createMechanism(PLAIN,
+                f -> new ServerNameSaslServerFactory(new ProtocolSaslServerFactory(f, PROTOCOL), SERVER_NAME));
+        try {
+            saslServer.evaluateResponse(saslClient.evaluateChallenge(new byte[0]));
+            if (!saslServer.isComplete() || !identity.username().equals(saslServer.getAuthorizationID())) {
+                throw new IllegalStateException(String.format("Authentication failed for identity '%s'", identity.username()));
+            }
+        } finally {
+            saslServer.dispose();
+            saslClient.dispose();
+        }
+
+        return true;
+    }
+
+    /**
+     * A minimal {@code HttpServerRequest} containing only an {@code Authorization} header, the outcome of the
+     * authentication is recorded but no response is sent.
+     */
+    private static class BasicServerRequest implements HttpServerRequest {
+
+        private final List<String> authorization;
+        boolean complete;
+
+        BasicServerRequest(final String authorization) {
+            this.authorization = List.of(authorization);
+        }
+
+        @Override
+        public List<String> getRequestHeaderValues(final String headerName) {
+            return AUTHORIZATION.equalsIgnoreCase(headerName) ? authorization : Collections.emptyList();
+        }
+
+        @Override
+        public String getFirstRequestHeaderValue(final String headerName) {
+            return AUTHORIZATION.equalsIgnoreCase(headerName) ? authorization.get(0) : null;
+        }
+
+        @Override
+        public SSLSession getSSLSession() {
+            return null;
+        }
+
+        @Override
+        public Certificate[] getPeerCertificates() {
+            return null;
+        }
+
+        @Override
+        public void noAuthenticationInProgress(final HttpServerMechanismsResponder responder) {
+        }
+
+        @Override
+        public void authenticationInProgress(final HttpServerMechanismsResponder responder) {
+        }
+
+        @Override
+        public void authenticationComplete(final HttpServerMechanismsResponder responder) {
+            complete = true;
+        }
+
+        @Override
+        public void authenticationComplete(final HttpServerMechanismsResponder responder, final Runnable logoutHandler) {
+            complete = true;
+        }
+
+        @Override
+        public void authenticationFailed(final String message, final HttpServerMechanismsResponder responder) {
+        }
+
+        @Override
+        public void badRequest(final HttpAuthenticationException failure, final HttpServerMechanismsResponder responder) {
+        }
+
+        @Override
+        public String getRequestMethod() {
+            return "GET";
+        }
+
+        @Override
+        public URI getRequestURI() {
+            return URI.create("http://localhost/secured");
+        }
+
+        @Override
+        public String getRequestPath() {
+            return "/secured";
+        }
+
+        @Override
+        public Map<String, List<String>> getParameters() {
+            return Collections.emptyMap();
+        }
+
+        @Override
+        public Set<String> getParameterNames() {
+            return Collections.emptySet();
+        }
+
+        @Override
+        public List<String> getParameterValues(final String name) {
+            return null;
+        }
+
+        @Override
+        public String getFirstParameterValue(final String name) {
+            return null;
+        }
+
+        @Override
+        public List<HttpServerCookie> getCookies() {
+            return Collections.emptyList();
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return InputStream.nullInputStream();
+        }
+
+        @Override
+        public InetSocketAddress getSourceAddress() {
+            return null;
+        }
+
+        @Override
+        public boolean suspendRequest() {
+            return false;
+        }
+
+        @Override
+        public boolean resumeRequest() {
+            return false;
+        }
+
+        @Override
+        public HttpScope getScope(final org.wildfly.security.http.Scope scope) {
+            return null;
+        }
+
+        @Override
+        public Collection<String> getScopeIds(final org.wildfly.security.http.Scope scope) {
+            return null;
+        }
+
+        @Override
+        public HttpScope getScope(final org.wildfly.security.http.Scope scope, final String id) {
+            return null;
+        }
+    }
+}
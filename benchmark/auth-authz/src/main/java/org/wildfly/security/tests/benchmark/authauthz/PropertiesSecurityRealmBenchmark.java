@@ -0,0 +1,217 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.Provider;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.realm.LegacyPropertiesSecurityRealm;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.WildFlyElytronPasswordProvider;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.RandomIdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+import org.wildfly.security.tests.common.authauthz.properties.PropertiesFileGenerator;
+
+/**
+ * Benchmark of a {@link LegacyPropertiesSecurityRealm} loaded from users and groups files of millions of identities.
+ *
+ * The files are written by the {@link PropertiesFileGenerator} at the start of the trial, the time taken to build the
+ * realm from the files and the heap retained by the loaded realm are then printed.
+ *
+ * Each invocation authenticates a random identity from the whole population. Where {@code reloadMillis} is greater
+ * than zero a background thread reloads the realm from the same files with that delay between reloads, the sample
+ * time of the benchmark then shows the latency of the authentications in flight whilst the files are being parsed
+ * and the number and duration of the reloads are printed after each iteration.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class PropertiesSecurityRealmBenchmark {
+
+    private static final Supplier<Provider[]> PROVIDERS = () -> new Provider[] { WildFlyElytronPasswordProvider.getInstance() };
+    private static final Path PROPERTIES_DIR = Path.of("target", "properties-realm-benchmark").toAbsolutePath();
+    private static final String REALM_NAME = "BenchmarkRealm";
+
+    @State(Scope.Benchmark)
+    public static class RealmState {
+
+        @Param({"1000000", "3000000"})
+        long population;
+
+        /**
+         * Store the passwords in the clear, otherwise the pre-digested form is stored.
+         */
+        @Param({"true", "false"})
+        boolean plainText;
+
+        /**
+         * The delay between reloads of the realm during the iterations, {@code 0} to disable reloading.
+         */
+        @Param({"0", "1000"})
+        long reloadMillis;
+
+        final LongAdder reloads = new LongAdder();
+        final LongAdder reloadNanos = new LongAdder();
+        final AtomicLong maxReloadNanos = new AtomicLong();
+
+        Path usersFile;
+        Path groupsFile;
+        LegacyPropertiesSecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+        ScheduledExecutorService reloadExecutor;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            BenchmarkSupport.deleteDir(PROPERTIES_DIR);
+            Files.createDirectories(PROPERTIES_DIR);
+            usersFile = PROPERTIES_DIR.resolve("users.properties");
+            groupsFile = PROPERTIES_DIR.resolve("groups.properties");
+
+            final IdentityGenerator identityGenerator = IdentityGenerator.builder()
+                    .setCount(population)
+                    .build();
+            PropertiesFileGenerator.builder()
+                    .setPlainText(plainText)
+                    .setRealmName(REALM_NAME)
+                    .build()
+                    .write(identityGenerator.stream(), usersFile, groupsFile);
+
+            final long empty = BenchmarkSupport.usedHeap();
+            final long start = System.nanoTime();
+            securityRealm = createRealm();
+            final long buildMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            final long loaded = BenchmarkSupport.usedHeap();
+            Reference.reachabilityFence(securityRealm);
+            System.out.printf("%nPropertiesSecurityRealmBenchmark - %d identities, plainText=%b - built in %d ms, approximately %d bytes of heap per identity%n",
+                    population, plainText, buildMillis, (loaded - empty) / population);
+
+            final int count = (int) population;
+            principals = new NamePrincipal[count];
+            evidence = new PasswordGuessEvidence[count];
+            for (int i = 0; i < count; i++) {
+                IdentityDefinition identity = identityGenerator.identity(identityGenerator.getFirstIndex() + i);
+                principals[i] = new NamePrincipal(identity.username());
+                evidence[i] = new PasswordGuessEvidence(identity.password().toCharArray());
+            }
+
+            if (reloadMillis > 0) {
+                reloadExecutor = Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread thread = new Thread(r, "PropertiesSecurityRealmBenchmark-reload");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+                reloadExecutor.scheduleWithFixedDelay(this::reload, reloadMillis, reloadMillis, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        @Setup(Level.Iteration)
+        public void resetCounters() {
+            reloads.reset();
+            reloadNanos.reset();
+            maxReloadNanos.set(0);
+        }
+
+        @TearDown(Level.Iteration)
+        public void reportIteration() {
+            if (reloadMillis > 0) {
+                final long count = reloads.sum();
+                System.out.printf("%nPropertiesSecurityRealmBenchmark - %d reloads, mean %d ms, max %d ms%n",
+                        count, count > 0 ? TimeUnit.NANOSECONDS.toMillis(reloadNanos.sum() / count) : 0,
+                        TimeUnit.NANOSECONDS.toMillis(maxReloadNanos.get()));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            if (reloadExecutor != null) {
+                reloadExecutor.shutdownNow();
+                reloadExecutor.awaitTermination(1, TimeUnit.MINUTES);
+                reloadExecutor = null;
+            }
+            securityRealm = null;
+            principals = null;
+            evidence = null;
+            BenchmarkSupport.deleteDir(PROPERTIES_DIR);
+        }
+
+        private LegacyPropertiesSecurityRealm createRealm() throws IOException {
+            try (InputStream users = Files.newInputStream(usersFile);
+                    InputStream groups = Files.newInputStream(groupsFile)) {
+                return LegacyPropertiesSecurityRealm.builder()
+                        .setProviders(PROVIDERS)
+                        .setUsersStream(users)
+                        .setGroupsStream(groups)
+                        .setDefaultRealm(REALM_NAME)
+                        .setPlainText(plainText)
+                        .build();
+            }
+        }
+
+        private void reload() {
+            final long start = System.nanoTime();
+            try (InputStream users = Files.newInputStream(usersFile);
+                    InputStream groups = Files.newInputStream(groupsFile)) {
+                securityRealm.load(users, groups);
+            } catch (IOException e) {
+                throw new IllegalStateException("Unable to reload the realm", e);
+            }
+            final long elapsed = System.nanoTime() - start;
+            reloads.increment();
+            reloadNanos.add(elapsed);
+            maxReloadNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean authenticate(final RealmState realmState, final RandomIdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean authenticateConcurrent(final RealmState realmState, final RandomIdentityState identityState)
+            throws RealmUnavailableException {
+        return verify(realmState, identityState.nextIndex(realmState.principals.length));
+    }
+
+    private static boolean verify(final RealmState realmState, final int index) throws RealmUnavailableException {
+        return BenchmarkSupport.verify(realmState.securityRealm, realmState.principals[index], realmState.evidence[index]);
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+import javax.security.sasl.SaslClient;
+import javax.security.sasl.SaslClientFactory;
+import javax.security.sasl.SaslException;
+import javax.security.sasl.SaslServer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.server.MechanismConfiguration;
+import org.wildfly.security.auth.server.SaslAuthenticationFactory;
+import org.wildfly.security.password.interfaces.ScramDigestPassword;
+import org.wildfly.security.sasl.WildFlySasl;
+import org.wildfly.security.sasl.scram.ScramSaslClientFactory;
+import org.wildfly.security.sasl.scram.ScramSaslServerFactory;
+import org.wildfly.security.sasl.util.PropertiesSaslServerFactory;
+import org.wildfly.security.sasl.util.ProtocolSaslServerFactory;
+import org.wildfly.security.sasl.util.ServerNameSaslServerFactory;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.authauthz.TestSecurityRealm;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.ClientCallbackHandler;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+
+/**
+ * Benchmark of a complete SCRAM handshake against realms storing pre-hashed SCRAM credentials as the iteration
+ * count is increased, to inform the choice of an iteration count balancing security against login throughput.
+ *
+ * The realms are created using the same factories as the functional tests with the {@link IdentityGenerator}
+ * configured to store the passwords using the SCRAM digest matching the mechanism and the iteration count under
+ * test. The client and server run in the same thread without a network connection so the handshake latency is
+ * dominated by the hashing. As the client also needs to derive the salted password for each handshake the CPU
+ * time of the client and of the server are recorded separately and printed per login at the end of each trial.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SaslScramBenchmark {
+
+    private static final String PROTOCOL = "remote";
+    private static final String SERVER_NAME = "localhost";
+
+    @State(Scope.Benchmark)
+    public static class HandshakeState {
+
+        @Param({"Map", "FileSystem", "JDBC"})
+        String realmType;
+
+        @Param({"SCRAM_SHA_1", "SCRAM_SHA_256", "SCRAM_SHA_384", "SCRAM_SHA_512"})
+        SaslAuthenticationMechanism mechanism;
+
+        @Param({"4096", "10000", "100000"})
+        int iterationCount;
+
+        final LongAdder serverCpuNanos = new LongAdder();
+        final LongAdder clientCpuNanos = new LongAdder();
+        final LongAdder logins = new LongAdder();
+
+        TestSecurityRealm testSecurityRealm;
+        SaslAuthenticationFactory saslAuthenticationFactory;
+        SaslClientFactory saslClientFactory;
+        String[] mechanisms;
+        Map<String, ?> properties;
+        IdentityDefinition[] identities;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            // The IdentityGenerator used by the realms reads these once, JMH forks a new JVM for each trial.
+            final String passwordAlgorithm = toPasswordAlgorithm(mechanism);
+            System.setProperty(IdentityGenerator.PASSWORD_ALGORITHM, passwordAlgorithm);
+            System.setProperty(IdentityGenerator.ITERATION_COUNT, Integer.toString(iterationCount));
+            IdentityGenerator identityGenerator = AbstractAuthenticationSuite.identityGenerator();
+            if (!passwordAlgorithm.equals(identityGenerator.getPasswordAlgorithm())
+                    || identityGenerator.getIterationCount() != iterationCount) {
+                throw new IllegalStateException("The IdentityGenerator was initialised before the trial, a fork per trial is required.");
+            }
+
+            testSecurityRealm = TestSecurityRealm.forRealmType(realmType);
+            testSecurityRealm.begin();
+            saslAuthenticationFactory = SaslAuthenticationFactory.builder()
+                    .setSecurityDomain(AbstractAuthenticationSuite.createSecurityDomain(UnaryOperator.identity()))
+                    .setFactory(new ScramSaslServerFactory())
+                    .setMechanismConfigurationSelector(mechanismInformation -> MechanismConfiguration.EMPTY)
+                    .build();
+            saslClientFactory = new ScramSaslClientFactory();
+            mechanisms = new String[] { mechanism.getMechanismName() };
+            // Both the client and the server reject iteration counts above 32768 by default.
+            properties = Map.of(WildFlySasl.SCRAM_MAX_ITERATION_COUNT, Integer.toString(iterationCount));
+            identities = AbstractAuthenticationSuite.obtainTestIdentities().toArray(IdentityDefinition[]::new);
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            final long count = Math.max(1, logins.sum());
+            System.out.printf("%nSaslScramBenchmark - %s %s %d iterations - server CPU %.3f ms/login, client CPU %.3f ms/login over %d logins%n",
+                    realmType, mechanism.getMechanismName(), iterationCount,
+                    serverCpuNanos.sum() / (count * 1_000_000d), clientCpuNanos.sum() / (count * 1_000_000d), logins.sum());
+
+            saslAuthenticationFactory = null;
+            testSecurityRealm.end();
+            System.clearProperty(IdentityGenerator.PASSWORD_ALGORITHM);
+            System.clearProperty(IdentityGenerator.ITERATION_COUNT);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean handshake(final HandshakeState handshakeState, final IdentityState identityState) throws SaslException {
+        return authenticate(handshakeState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean handshakeConcurrent(final HandshakeState handshakeState, final IdentityState identityState)
+            throws SaslException {
+        return authenticate(handshakeState, identityState);
+    }
+
+    private static boolean authenticate(final HandshakeState handshakeState, final IdentityState identityState)
+            throws SaslException {
+        final IdentityDefinition identity = handshakeState.identities[identityState.nextIndex(handshakeState.identities.length)];
+        final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+        long clientCpu = 0;
+        long serverCpu = 0;
+        long mark = threadMXBean.getCurrentThreadCpuTime();
+        final SaslClient saslClient = handshakeState.saslClientFactory.createSaslClient(handshakeState.mechanisms, null,
+                PROTOCOL, SERVER_NAME, handshakeState.properties, new ClientCallbackHandler(identity));
+        byte[] response = saslClient.hasInitialResponse() ? saslClient.evaluateChallenge(new byte[0]) : new byte[0];
+        long now = threadMXBean.getCurrentThreadCpuTime();
+        clientCpu += now - mark;
+        mark = now;
+
+        final SaslServer saslServer = handshakeState.saslAuthenticationFactory.createMechanism(
+                handshakeState.mechanisms[0],
+                f -> new ServerNameSaslServerFactory(new ProtocolSaslServerFactory(
+                        new PropertiesSaslServerFactory(f, handshakeState.properties), PROTOCOL), SERVER_NAME));
+        try {
+            while (true) {
+                byte[] challenge = saslServer.evaluateResponse(response);
+                now = threadMXBean.getCurrentThreadCpuTime();
+                serverCpu += now - mark;
+                mark = now;
+                if (saslServer.isComplete() && (challenge == null || saslClient.isComplete())) {
+                    break;
+                }
+
+                response = saslClient.evaluateChallenge(challenge);
+                now = threadMXBean.getCurrentThreadCpuTime();
+                clientCpu += now - mark;
+                mark = now;
+                if (saslServer.isComplete()) {
+                    break;
+                }
+            }
+
+            if (!saslServer.isComplete() || !identity.username().equals(saslServer.getAuthorizationID())) {
+                throw new IllegalStateException(String.format("Authentication failed for identity '%s'", identity.username()));
+            }
+        } finally {
+            saslServer.dispose();
+            saslClient.dispose();
+        }
+
+        handshakeState.clientCpuNanos.add(clientCpu);
+        handshakeState.serverCpuNanos.add(serverCpu);
+        handshakeState.logins.increment();
+
+        return true;
+    }
+
+    private static String toPasswordAlgorithm(final SaslAuthenticationMechanism mechanism) {
+        return switch (mechanism) {
+            case SCRAM_SHA_1 -> ScramDigestPassword.ALGORITHM_SCRAM_SHA_1;
+            case SCRAM_SHA_256 -> ScramDigestPassword.ALGORITHM_SCRAM_SHA_256;
+            case SCRAM_SHA_384 -> ScramDigestPassword.ALGORITHM_SCRAM_SHA_384;
+            case SCRAM_SHA_512 -> ScramDigestPassword.ALGORITHM_SCRAM_SHA_512;
+            default -> throw new IllegalArgumentException(String.format("Mechanism '%s' is not supported.", mechanism));
+        };
+    }
+}
@@ -0,0 +1,104 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.benchmark.authauthz;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.authauthz.TestSecurityRealm;
+import org.wildfly.security.tests.benchmark.authauthz.BenchmarkSupport.IdentityState;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+
+/**
+ * Benchmark of {@link SecurityRealm#getRealmIdentity(java.security.Principal)} followed by
+ * {@link RealmIdentity#verifyEvidence(org.wildfly.security.evidence.Evidence)} for each of the realms
+ * tested by the unit testsuite.
+ *
+ * The realms are created using the same factories as the functional tests and each invocation authenticates
+ * the next identity from the test identities so the realm can not simply serve the same identity repeatedly.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class SecurityRealmBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class RealmState {
+
+        @Param({"Map", "Properties", "FileSystem", "JDBC", "LDAP", "JAAS"})
+        String realmType;
+
+        TestSecurityRealm testSecurityRealm;
+        SecurityRealm securityRealm;
+        NamePrincipal[] principals;
+        PasswordGuessEvidence[] evidence;
+
+        @Setup(Level.Trial)
+        public void setup() throws Exception {
+            testSecurityRealm = TestSecurityRealm.forRealmType(realmType);
+            testSecurityRealm.begin();
+            securityRealm = testSecurityRealm.createSecurityRealm();
+
+            IdentityDefinition[] identities = AbstractAuthenticationSuite.obtainTestIdentities()
+                    .toArray(IdentityDefinition[]::new);
+            principals = new NamePrincipal[identities.length];
+            evidence = new PasswordGuessEvidence[identities.length];
+            for (int i = 0; i < identities.length; i++) {
+                principals[i] = new NamePrincipal(identities[i].username());
+                evidence[i] = new PasswordGuessEvidence(identities[i].password().toCharArray());
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws Exception {
+            securityRealm = null;
+            testSecurityRealm.end();
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean lookupAndVerify(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return authenticate(realmState, identityState);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean lookupAndVerifyConcurrent(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        return authenticate(realmState, identityState);
+    }
+
+    private static boolean authenticate(final RealmState realmState, final IdentityState identityState)
+            throws RealmUnavailableException {
+        int index = identityState.nextIndex(realmState.principals.length);
+        return BenchmarkSupport.verify(realmState.securityRealm, realmState.principals[index], realmState.evidence[index]);
+    }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+
+/**
+ * Utility to allocate the ports used by servers started for testing.
+ *
+ * Where a server can bind to port {@code 0} and report the port it was allocated that is preferred, this
+ * utility is for servers which need to be told a port in advance. Each suite allocating its own ports
+ * allows the suites to be run concurrently in separate forks.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class PortAllocator {
+
+    private PortAllocator() {
+    }
+
+    /**
+     * Obtain the port to use for a server, if the system property has been set to a port other than
+     * {@code 0} that port is used otherwise a free port is allocated.
+     *
+     * @param propertyName the name of the system property which can override the port.
+     * @param hostName the host name the server will bind to.
+     * @return the port to use.
+     */
+    public static int obtainPort(final String propertyName, final String hostName) {
+        final int port = Integer.getInteger(propertyName, 0);
+
+        return port != 0 ? port : allocatePort(hostName);
+    }
+
+    /**
+     * Allocate a port which is currently free on the specified host.
+     *
+     * The port is released before this method returns so there is a small window in which another process
+     * could bind to it, this is acceptable for tests but servers which can bind to port {@code 0} directly
+     * should do so instead.
+     *
+     * @param hostName the host name the server will bind to.
+     * @return a port which is currently free.
+     */
+    public static int allocatePort(final String hostName) {
+        try (ServerSocket serverSocket = new ServerSocket(0, 1, InetAddress.getByName(hostName))) {
+            return serverSocket.getLocalPort();
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to allocate a free port", e);
+        }
+    }
+}
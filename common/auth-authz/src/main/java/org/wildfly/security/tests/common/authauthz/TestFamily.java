@@ -8,10 +8,38 @@ package org.wildfly.security.tests.common.authauthz;
 /**
  * An enum to identify the family of tests being run.
  *
+ * Families that are not enabled by default only run when explicitly selected using the
+ * {@code TestFilter.TestFamily} system property.
+ *
  * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
  */
 public enum TestFamily {
 
-    STANDARD, BRUTE_FORCE;
+    STANDARD(true),
+    BRUTE_FORCE(true),
+    /**
+     * Many threads driving the brute force protection across the whole identity population to measure
+     * its latency, contention and memory overhead, these tests are long running so are only run on demand.
+     */
+    BRUTE_FORCE_STRESS(false),
+    /**
+     * Simulated attack traffic mixed with legitimate authentication to verify brute force protection does not
+     * degrade legitimate users, these tests are long running so are only run on demand.
+     */
+    ATTACK(false),
+    /**
+     * Sustained concurrent load, these tests are long running so are only run on demand.
+     */
+    LOAD(false);
+
+    private final boolean enabledByDefault;
+
+    TestFamily(final boolean enabledByDefault) {
+        this.enabledByDefault = enabledByDefault;
+    }
+
+    public boolean isEnabledByDefault() {
+        return enabledByDefault;
+    }
 
 }
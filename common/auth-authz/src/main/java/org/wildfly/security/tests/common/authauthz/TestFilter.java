@@ -35,7 +35,7 @@ public class TestFilter {
 
     private TestFilter() {
         transportTypePredicate = createPredicate(TransportType.class, TRANSPORT_TYPE_FILTER);
-        testFamilyPredicate = createPredicate(TestFamily.class, TEST_FAMILY_FILTER);
+        testFamilyPredicate = createPredicate(TestFamily.class, TEST_FAMILY_FILTER, TestFamily::isEnabledByDefault);
         testNamePredicate = createPredicate(TEST_NAME_FILTER);
         httpMechanismPredicate = createPredicate(HttpAuthenticationMechanism.class, HTTP_MECHANISM_FILTER);
         saslMechanismPredicate = createPredicate(SaslAuthenticationMechanism.class, SASL_MECHANISM_FILTER);
@@ -55,6 +55,11 @@ public class TestFilter {
     }
 
     private static <T extends Enum<T>> Predicate<T> createPredicate(Class<T> enumClass, String systemProperty) {
+        return createPredicate(enumClass, systemProperty, m -> true);
+    }
+
+    private static <T extends Enum<T>> Predicate<T> createPredicate(Class<T> enumClass, String systemProperty,
+            Predicate<T> defaultPredicate) {
         String filter = System.getProperty(systemProperty, null);
         if (filter != null) {
             String[] values = filter.split(",");
@@ -65,7 +70,7 @@ public class TestFilter {
 
             return enabledValues::contains;
         } else {
-            return m -> true;
+            return defaultPredicate;
         }
     }
 
@@ -73,6 +78,13 @@ public class TestFilter {
         return INSTANCE;
     }
 
+    /**
+     * Check if a test which exercises the {@code SecurityRealm} directly, without any transport, should be run.
+     */
+    public boolean shouldRunTest(TestFamily family, String testName) {
+        return testFamilyPredicate.test(family) && testNamePredicate.test(testName);
+    }
+
     public boolean shouldRunTest(TransportType transport, TestFamily family, String testName) {
         return transportTypePredicate.test(transport) && testFamilyPredicate.test(family) && testNamePredicate.test(testName);
     }
@@ -0,0 +1,389 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.http;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.AUTHORIZATION;
+import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.verifyMechanismChallenge;
+import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.verifyNoChallenge;
+import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.verifyPrincipal;
+import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.verifyStatusCode;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
+
+/**
+ * A thread safe equivalent of {@link HttpDigestClientAuthenticationUtility} for signing HTTP DIGEST requests
+ * at a high rate.
+ *
+ * A single instance can be shared by all of the threads of a load generator:
+ * <ul>
+ *   <li>Each thread uses its own {@code MessageDigest} and buffers.</li>
+ *   <li>The nonce count is tracked atomically in the {@link Challenge} so concurrent requests reusing a nonce
+ *       are each signed with a unique {@code nc}.</li>
+ *   <li>{@code HA1} is cached in the {@link Credentials} and {@code HA2} is cached for each request path.</li>
+ *   <li>Digests are hex encoded directly into the {@code Authorization} header without any intermediate
+ *       {@code String}s.</li>
+ * </ul>
+ *
+ * Per user state such as the current challenge is held in a {@link Session}, which implements
+ * {@link HttpClientAuthenticationUtility} so it can be used in place of {@link HttpDigestClientAuthenticationUtility}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class ConcurrentHttpDigestClientAuthenticationUtility {
+
+    private static final byte COLON = ':';
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int NONCE_COUNT_LENGTH = 8;
+    private static final String ALGORITHM = "algorithm";
+    private static final String MD5 = "MD5";
+    private static final String NONCE = "nonce";
+    private static final String OPAQUE = "opaque";
+    private static final String REALM = "realm";
+    private static final String STALE = "stale";
+    private static final byte[] GET = "GET:".getBytes(UTF_8);
+    private static final String expectedRealm = "Elytron Realm";
+
+    // In real world scenarios this must be securely generated and unique.
+    private static final String CNONCE_VALUE = "Security Testsuite";
+    private static final String QOP_VALUE = "auth";
+    private static final byte[] CNONCE_QOP = (":" + CNONCE_VALUE + ":" + QOP_VALUE + ":").getBytes(UTF_8);
+
+    private static final ThreadLocal<ThreadState> THREAD_STATE = ThreadLocal.withInitial(ThreadState::new);
+
+    private final Map<String, byte[]> ha2Cache = new ConcurrentHashMap<>();
+
+    /**
+     * Parse the parameters of a DIGEST challenge, i.e. the {@code WWW-Authenticate} header value following the
+     * mechanism name.
+     *
+     * @param challenge the challenge parameters.
+     * @return the parsed {@code Challenge}.
+     */
+    public Challenge parseChallenge(final String challenge) {
+        String realm = null;
+        String nonce = null;
+        String opaque = null;
+        boolean stale = false;
+        for (String currentPart : challenge.split(",")) {
+            currentPart = currentPart.trim();
+            int equalsLocation = currentPart.indexOf('=');
+            String key = currentPart.substring(0, equalsLocation);
+            String value = currentPart.substring(equalsLocation + 1);
+            if (value.length() > 1 && value.startsWith("\"") && value.endsWith("\"")) {
+                value = value.substring(1, value.length() - 1);
+            }
+            switch (key) {
+                case REALM -> realm = value;
+                case NONCE -> nonce = value;
+                case OPAQUE -> opaque = value;
+                case STALE -> stale = Boolean.parseBoolean(value);
+                default -> {
+                    // Other parameters such as the algorithm and qop are fixed for this client.
+                }
+            }
+        }
+        assertNotNull(realm, "Challenge realm is required");
+        assertNotNull(nonce, "Challenge nonce is required");
+
+        return new Challenge(realm, nonce, opaque, stale);
+    }
+
+    /**
+     * Create the {@code Credentials} of a user, these can be shared between threads and sessions.
+     *
+     * @param username the username of the user.
+     * @param password the password of the user.
+     * @return the {@code Credentials} of the user.
+     */
+    public Credentials credentials(final String username, final String password) {
+        return new Credentials(username, password.toCharArray());
+    }
+
+    /**
+     * Create the {@code Authorization} header value for a {@code GET} request to the specified path, each call
+     * uses the next nonce count for the nonce of the challenge.
+     *
+     * @param credentials the credentials to sign the request with.
+     * @param challenge the challenge being responded to.
+     * @param path the path of the request.
+     * @return the {@code Authorization} header value.
+     */
+    public String createAuthorization(final Credentials credentials, final Challenge challenge, final String path) {
+        final ThreadState state = THREAD_STATE.get();
+        final MessageDigest messageDigest = state.messageDigest;
+        final byte[] ha1 = credentials.ha1(challenge.realm(), messageDigest);
+        final byte[] ha2 = ha2Cache.computeIfAbsent(path, p -> calculateHA2(p, messageDigest));
+        final int nonceCount = challenge.nextNonceCount();
+
+        final byte[] nc = state.nonceCount;
+        for (int i = NONCE_COUNT_LENGTH - 1, value = nonceCount; i >= 0; i--, value >>>= 4) {
+            nc[i] = (byte) HEX[value & 0xF];
+        }
+
+        messageDigest.update(ha1);
+        messageDigest.update(COLON);
+        messageDigest.update(challenge.nonceBytes());
+        messageDigest.update(COLON);
+        messageDigest.update(nc);
+        messageDigest.update(CNONCE_QOP);
+        final byte[] response = messageDigest.digest(ha2);
+
+        final StringBuilder sb = state.header;
+        sb.setLength(0);
+        sb.append(HttpAuthenticationMechanism.DIGEST_MD5.getChallenge());
+        sb.append(" username=\"").append(credentials.username());
+        sb.append("\", realm=\"").append(challenge.realm());
+        sb.append("\", nonce=\"").append(challenge.nonce());
+        sb.append("\", uri=\"").append(path);
+        sb.append("\", cnonce=\"").append(CNONCE_VALUE);
+        sb.append("\", nc=");
+        for (byte b : nc) {
+            sb.append((char) b);
+        }
+        sb.append(", qop=").append(QOP_VALUE);
+        sb.append(", response=\"");
+        appendHex(sb, response);
+        sb.append('"');
+        if (challenge.opaque() != null) {
+            sb.append(", opaque=\"").append(challenge.opaque()).append('"');
+        }
+        sb.append(", ").append(ALGORITHM).append('=').append(MD5);
+
+        return sb.toString();
+    }
+
+    /**
+     * Create a new {@code Session} to hold the challenge and credentials of a single user.
+     *
+     * @return a new {@code Session}.
+     */
+    public Session newSession() {
+        return new Session();
+    }
+
+    private static byte[] calculateHA2(final String path, final MessageDigest messageDigest) {
+        messageDigest.update(GET);
+
+        return toHexBytes(messageDigest.digest(path.getBytes(UTF_8)));
+    }
+
+    private static byte[] toHexBytes(final byte[] digest) {
+        final byte[] hex = new byte[digest.length * 2];
+        for (int i = 0; i < digest.length; i++) {
+            hex[i * 2] = (byte) HEX[(digest[i] >> 4) & 0xF];
+            hex[i * 2 + 1] = (byte) HEX[digest[i] & 0xF];
+        }
+
+        return hex;
+    }
+
+    private static void appendHex(final StringBuilder sb, final byte[] digest) {
+        for (byte b : digest) {
+            sb.append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+        }
+    }
+
+    private static MessageDigest newMessageDigest() {
+        try {
+            return MessageDigest.getInstance(MD5);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("Unable to initialise.", e);
+        }
+    }
+
+    /**
+     * The state reused by each thread to sign requests.
+     */
+    private static final class ThreadState {
+
+        private final MessageDigest messageDigest = newMessageDigest();
+        private final byte[] nonceCount = new byte[NONCE_COUNT_LENGTH];
+        private final StringBuilder header = new StringBuilder(384);
+    }
+
+    /**
+     * The parameters of a challenge from the server along with the count of the requests signed using its nonce.
+     */
+    public static final class Challenge {
+
+        private final String realm;
+        private final String nonce;
+        private final byte[] nonceBytes;
+        private final String opaque;
+        private final boolean stale;
+        private final AtomicInteger nonceCount = new AtomicInteger();
+
+        Challenge(final String realm, final String nonce, final String opaque, final boolean stale) {
+            this.realm = realm;
+            this.nonce = nonce;
+            this.nonceBytes = nonce.getBytes(UTF_8);
+            this.opaque = opaque;
+            this.stale = stale;
+        }
+
+        public String realm() {
+            return realm;
+        }
+
+        public String nonce() {
+            return nonce;
+        }
+
+        /**
+         * Get the opaque value to return to the server, may be {@code null}.
+         */
+        public String opaque() {
+            return opaque;
+        }
+
+        /**
+         * Was this challenge issued as the nonce previously used was stale.
+         */
+        public boolean stale() {
+            return stale;
+        }
+
+        byte[] nonceBytes() {
+            return nonceBytes;
+        }
+
+        /**
+         * Get the next nonce count to use with this nonce, the first call returns {@code 1}.
+         */
+        int nextNonceCount() {
+            return nonceCount.incrementAndGet();
+        }
+    }
+
+    /**
+     * The credentials of a user, {@code HA1} is cached for the most recently used realm.
+     */
+    public static final class Credentials {
+
+        private final String username;
+        private final char[] password;
+        private volatile CachedHA1 cachedHA1;
+
+        Credentials(final String username, final char[] password) {
+            this.username = username;
+            this.password = password;
+        }
+
+        public String username() {
+            return username;
+        }
+
+        byte[] ha1(final String realm, final MessageDigest messageDigest) {
+            CachedHA1 current = cachedHA1;
+            if (current == null || !current.realm().equals(realm)) {
+                messageDigest.update(username.getBytes(UTF_8));
+                messageDigest.update(COLON);
+                messageDigest.update(realm.getBytes(UTF_8));
+                messageDigest.update(COLON);
+                ByteBuffer encodedPassword = UTF_8.encode(CharBuffer.wrap(password));
+                messageDigest.update(encodedPassword);
+                current = new CachedHA1(realm, toHexBytes(messageDigest.digest()));
+                cachedHA1 = current;
+            }
+
+            return current.ha1();
+        }
+
+        private record CachedHA1(String realm, byte[] ha1) {}
+    }
+
+    /**
+     * The state of a single user, a {@code Session} follows the same contract as the other
+     * {@link HttpClientAuthenticationUtility} implementations so should only be used by one user at a time but
+     * all sessions share the thread safe signing of the {@link ConcurrentHttpDigestClientAuthenticationUtility}.
+     */
+    public final class Session implements HttpClientAuthenticationUtility {
+
+        private volatile Credentials credentials;
+        private volatile Challenge challenge;
+
+        Session() {
+        }
+
+        /**
+         * Set the credentials of this session directly so {@link Credentials} with a cached {@code HA1} can be reused.
+         *
+         * @param credentials the credentials to use for subsequent requests.
+         */
+        public void setCredentials(final Credentials credentials) {
+            this.credentials = credentials;
+        }
+
+        public Challenge getChallenge() {
+            return challenge;
+        }
+
+        private void processChallenge(final String challengeParameters) {
+            final Challenge received = parseChallenge(challengeParameters);
+            assertEquals(expectedRealm, received.realm(), "Expected Realm Name");
+            challenge = received;
+        }
+
+        @Override
+        public <T> Function<HttpResponse<T>, HttpResponse<T>> verifyChallenge() {
+            Function<HttpResponse<T>, HttpResponse<T>> verifyStatusCode = verifyStatusCode(401);
+            Function<HttpResponse<T>, HttpResponse<T>> verifyMechanismChallenge =
+                    verifyMechanismChallenge(HttpAuthenticationMechanism.DIGEST_MD5, this::processChallenge);
+
+            return verifyStatusCode.andThen(verifyMechanismChallenge);
+        }
+
+        @Override
+        public HttpRequest createAuthenticationRequest(final URI resource, final String username, final String password) {
+            credentials = credentials(username, password);
+
+            return createRequest(resource);
+        }
+
+        @Override
+        public <T> Function<HttpResponse<T>, HttpResponse<T>> verifyAuthentication(final boolean expectSuccess) {
+            if (expectSuccess) {
+                Function<HttpResponse<T>, HttpResponse<T>> verifyStatusCode = verifyStatusCode(200);
+                Function<HttpResponse<T>, HttpResponse<T>> verifyNoChallenge = verifyNoChallenge();
+                Function<HttpResponse<T>, HttpResponse<T>> verifyPrincipal = verifyPrincipal(credentials.username());
+
+                return verifyStatusCode.andThen(verifyNoChallenge).andThen(verifyPrincipal);
+            } else {
+                return verifyChallenge();
+            }
+        }
+
+        @Override
+        public HttpRequest createRequest(final URI resource) {
+            final Credentials currentCredentials = credentials;
+            if (currentCredentials == null) {
+                return HttpRequest.newBuilder(resource).build();
+            }
+
+            final Challenge currentChallenge = challenge;
+            assertNotNull(currentChallenge, "Challenge data is required");
+
+            return HttpRequest.newBuilder(resource)
+                .header(AUTHORIZATION, createAuthorization(currentCredentials, currentChallenge, resource.getPath()))
+                .build();
+        }
+    }
+}
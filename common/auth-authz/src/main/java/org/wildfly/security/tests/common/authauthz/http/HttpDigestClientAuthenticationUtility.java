@@ -180,7 +180,7 @@ public class HttpDigestClientAuthenticationUtility implements HttpClientAuthenti
         // Assume we will use qop of auth
         messageDigest.update(COLON);
         Integer nonceCountInt = nonceCount++;
-        String nonceCount = String.format("%08d", nonceCountInt);
+        String nonceCount = String.format("%08x", nonceCountInt);
         messageDigest.update(nonceCount.getBytes(UTF_8));
         messageDigest.update(COLON);
         messageDigest.update(CNONCE_VALUE.getBytes(UTF_8));
@@ -0,0 +1,311 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.http;
+
+import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.WWW_AUTHENTICATE;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpResponse.BodyHandlers;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.load.LoadReport;
+import org.wildfly.security.tests.common.authauthz.load.LoadStatistics;
+
+/**
+ * A closed loop load driver for HTTP DIGEST comparing a full challenge for every request with reusing the
+ * server nonce for a pipeline of requests.
+ *
+ * <ul>
+ *   <li>{@link Mode#FULL_CHALLENGE} - each operation requests the secured resource without credentials, receives
+ *       a new nonce in the challenge and then responds to it.</li>
+ *   <li>{@link Mode#NONCE_REUSE} - each virtual user authenticates once and each operation is then a single request
+ *       signed using the same nonce with an incrementing {@code nc}. If the server rejects the nonce the
+ *       virtual user responds to the new challenge and counts the re-challenge as stale or otherwise.</li>
+ * </ul>
+ *
+ * The requests are signed using a single {@link ConcurrentHttpDigestClientAuthenticationUtility} shared by all of
+ * the virtual users so the client side cost is negligible compared to the server.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class HttpDigestNonceLoadDriver {
+
+    private static final int HTTP_OK = 200;
+    private static final int HTTP_UNAUTHORIZED = 401;
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final HttpTestClient testClient;
+    private final Mode mode;
+    private final List<HttpLoadDriver.Identity> identities;
+    private final int virtualUsers;
+    private final Duration warmUp;
+    private final Duration duration;
+    private final int requestsPerNonce;
+    private final Runnable measurementListener;
+    private final ConcurrentHttpDigestClientAuthenticationUtility digestUtility =
+            new ConcurrentHttpDigestClientAuthenticationUtility();
+    private final AtomicLong staleRechallenges = new AtomicLong();
+    private final AtomicLong rechallenges = new AtomicLong();
+    private final AtomicInteger reportedErrors = new AtomicInteger();
+
+    HttpDigestNonceLoadDriver(final Builder builder) {
+        this.testClient = builder.testClient;
+        this.mode = builder.mode;
+        this.identities = builder.identities;
+        this.virtualUsers = builder.virtualUsers;
+        this.warmUp = builder.warmUp;
+        this.duration = builder.duration;
+        this.requestsPerNonce = builder.requestsPerNonce;
+        this.measurementListener = builder.measurementListener;
+    }
+
+    /**
+     * Run the load, blocking until all virtual users have completed.
+     *
+     * @return the {@code LoadReport} with the statistics of the operations.
+     * @throws InterruptedException if interrupted waiting for the virtual users to complete.
+     */
+    public LoadReport run() throws InterruptedException {
+        final LoadStatistics statistics = new LoadStatistics(mode.name());
+        final URI securedResource = testClient.toUri(HttpAuthenticationMechanism.DIGEST_MD5, true);
+
+        System.out.printf("HttpDigestNonceLoadDriver - Starting %d virtual users in mode %s for %s after a warm up of %s\n",
+                virtualUsers, mode, duration, warmUp);
+        final ExecutorService executorService = Executors.newFixedThreadPool(virtualUsers);
+        try {
+            final long measureStart = System.nanoTime() + warmUp.toNanos();
+            final long measureEnd = measureStart + duration.toNanos();
+
+            List<Future<?>> futures = new ArrayList<>(virtualUsers);
+            for (int i = 0; i < virtualUsers; i++) {
+                final HttpLoadDriver.Identity identity = identities.get(i % identities.size());
+                futures.add(executorService.submit(
+                        () -> runVirtualUser(securedResource, identity, statistics, measureStart, measureEnd)));
+            }
+
+            final long untilMeasurement = measureStart - System.nanoTime();
+            if (untilMeasurement > 0) {
+                TimeUnit.NANOSECONDS.sleep(untilMeasurement);
+            }
+            staleRechallenges.set(0);
+            rechallenges.set(0);
+            measurementListener.run();
+
+            for (Future<?> current : futures) {
+                try {
+                    current.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Virtual user failed unexpectedly", e.getCause());
+                }
+            }
+
+            return new LoadReport(String.format("HTTP DIGEST %s, %d virtual users", mode, virtualUsers),
+                    measureEnd - measureStart, List.of(statistics));
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    /**
+     * Get the number of times the server rejected a reused nonce as stale during the measurement.
+     */
+    public long getStaleRechallenges() {
+        return staleRechallenges.get();
+    }
+
+    /**
+     * Get the number of times the server rejected a reused nonce without marking it as stale during the measurement.
+     */
+    public long getRechallenges() {
+        return rechallenges.get();
+    }
+
+    private void runVirtualUser(final URI securedResource, final HttpLoadDriver.Identity identity,
+            final LoadStatistics statistics, final long measureStart, final long measureEnd) {
+        final CookieManager cookieManager = new CookieManager();
+        final HttpClient httpClient = HttpTestClient.newHttpClient(cookieManager);
+        final ConcurrentHttpDigestClientAuthenticationUtility.Credentials credentials =
+                digestUtility.credentials(identity.username(), identity.password());
+
+        ConcurrentHttpDigestClientAuthenticationUtility.Session session = null;
+        int nonceRequests = 0;
+        long start;
+        while ((start = System.nanoTime()) < measureEnd) {
+            try {
+                if (mode == Mode.FULL_CHALLENGE || session == null
+                        || (requestsPerNonce > 0 && nonceRequests >= requestsPerNonce)) {
+                    session = challenge(httpClient, securedResource, credentials);
+                    nonceRequests = 0;
+                }
+                HttpResponse<String> response = send(httpClient, session.createRequest(securedResource));
+                nonceRequests++;
+                if (mode == Mode.NONCE_REUSE && response.statusCode() == HTTP_UNAUTHORIZED) {
+                    // The nonce was rejected, take the new nonce from this challenge and try again.
+                    session.<String>verifyChallenge().apply(response);
+                    (session.getChallenge().stale() ? staleRechallenges : rechallenges).incrementAndGet();
+                    response = send(httpClient, session.createRequest(securedResource));
+                    nonceRequests = 1;
+                }
+                session.<String>verifyAuthentication(true).apply(response);
+                if (start >= measureStart) {
+                    statistics.recordCompleted(start);
+                }
+            } catch (Exception | AssertionError e) {
+                // Start again with a new challenge.
+                session = null;
+                if (start >= measureStart) {
+                    statistics.recordError();
+                    if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                        System.out.printf("HttpDigestNonceLoadDriver - %s error for '%s': %s\n", mode, identity.username(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Request the secured resource without credentials to obtain a new challenge.
+     */
+    private ConcurrentHttpDigestClientAuthenticationUtility.Session challenge(final HttpClient httpClient,
+            final URI securedResource,
+            final ConcurrentHttpDigestClientAuthenticationUtility.Credentials credentials) throws Exception {
+        final ConcurrentHttpDigestClientAuthenticationUtility.Session session = digestUtility.newSession();
+        HttpResponse<String> response = send(httpClient, HttpRequest.newBuilder(securedResource).build());
+        if (!response.headers().firstValue(WWW_AUTHENTICATE).isPresent() || response.statusCode() == HTTP_OK) {
+            throw new IllegalStateException("Expected a challenge from the secured resource");
+        }
+        session.<String>verifyChallenge().apply(response);
+        session.setCredentials(credentials);
+
+        return session;
+    }
+
+    private static HttpResponse<String> send(final HttpClient httpClient, final HttpRequest request) throws Exception {
+        return httpClient.send(request, BodyHandlers.ofString());
+    }
+
+    static Builder builder(final HttpTestClient testClient) {
+        return new Builder(testClient);
+    }
+
+    /**
+     * The scenario run by each virtual user.
+     */
+    public enum Mode {
+        FULL_CHALLENGE,
+        NONCE_REUSE;
+    }
+
+    public static class Builder {
+
+        private final HttpTestClient testClient;
+        private Mode mode = Mode.NONCE_REUSE;
+        private final List<HttpLoadDriver.Identity> identities = new ArrayList<>();
+        private int virtualUsers = 100;
+        private Duration warmUp = Duration.ofSeconds(5);
+        private Duration duration = Duration.ofSeconds(30);
+        private int requestsPerNonce = 0;
+        private Runnable measurementListener = () -> {};
+
+        Builder(final HttpTestClient testClient) {
+            this.testClient = testClient;
+        }
+
+        public Builder setMode(final Mode mode) {
+            this.mode = mode;
+
+            return this;
+        }
+
+        /**
+         * Add an identity the virtual users can authenticate as, identities are assigned to the virtual users round
+         * robin so where possible at least as many identities as virtual users should be added.
+         *
+         * @param username the username of the identity.
+         * @param password the password of the identity.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder addIdentity(final String username, final String password) {
+            identities.add(new HttpLoadDriver.Identity(username, password));
+
+            return this;
+        }
+
+        public Builder setVirtualUsers(final int virtualUsers) {
+            this.virtualUsers = virtualUsers;
+
+            return this;
+        }
+
+        public Builder setWarmUp(final Duration warmUp) {
+            this.warmUp = warmUp;
+
+            return this;
+        }
+
+        public Builder setDuration(final Duration duration) {
+            this.duration = duration;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum number of requests to sign with a single nonce in {@link Mode#NONCE_REUSE} before
+         * obtaining a new challenge.
+         *
+         * @param requestsPerNonce the maximum number of requests, {@code 0} to reuse the nonce until it is rejected.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setRequestsPerNonce(final int requestsPerNonce) {
+            this.requestsPerNonce = requestsPerNonce;
+
+            return this;
+        }
+
+        /**
+         * Set a {@code Runnable} to be called once the warm up has completed, e.g. to reset server side statistics.
+         *
+         * @param measurementListener the {@code Runnable} to call as the measurement begins.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setMeasurementListener(final Runnable measurementListener) {
+            this.measurementListener = measurementListener;
+
+            return this;
+        }
+
+        public HttpDigestNonceLoadDriver build() {
+            if (mode == null) {
+                throw new IllegalStateException("A mode is required.");
+            }
+            if (identities.isEmpty()) {
+                throw new IllegalStateException("At least one identity is required.");
+            }
+            if (virtualUsers < 1) {
+                throw new IllegalStateException("At least one virtual user is required.");
+            }
+            if (requestsPerNonce < 0) {
+                throw new IllegalStateException("The requests per nonce can not be negative.");
+            }
+
+            return new HttpDigestNonceLoadDriver(this);
+        }
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.http;
+
+import java.net.CookieManager;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.load.LoadReport;
+import org.wildfly.security.tests.common.authauthz.load.LoadStatistics;
+
+/**
+ * A closed loop load driver for the scenarios implemented by {@link HttpTestClient}.
+ *
+ * Each virtual user runs on its own thread with its own {@code HttpClient} and repeatedly runs either the
+ * successful authentication scenario or the bad password scenario, the next iteration only begins once the previous
+ * iteration has completed. Virtual users are assigned round robin across the configured mechanisms so all of the
+ * mechanisms are exercised at the same time.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class HttpLoadDriver {
+
+    private static final String BAD_PASSWORD = "passwordx";
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final HttpTestClient testClient;
+    private final Set<HttpAuthenticationMechanism> mechanisms;
+    private final List<Identity> identities;
+    private final int virtualUsers;
+    private final Duration warmUp;
+    private final Duration duration;
+    private final int badPasswordPercentage;
+    private final AtomicInteger reportedErrors = new AtomicInteger();
+    // Shared by all virtual users so DIGEST signing does not limit the rate the load can be generated at.
+    private final ConcurrentHttpDigestClientAuthenticationUtility digestUtility =
+            new ConcurrentHttpDigestClientAuthenticationUtility();
+
+    HttpLoadDriver(final Builder builder) {
+        this.testClient = builder.testClient;
+        this.mechanisms = builder.mechanisms;
+        this.identities = builder.identities;
+        this.virtualUsers = builder.virtualUsers;
+        this.warmUp = builder.warmUp;
+        this.duration = builder.duration;
+        this.badPasswordPercentage = builder.badPasswordPercentage;
+    }
+
+    /**
+     * Run the load, blocking until all virtual users have completed.
+     *
+     * @return the {@code LoadReport} with the statistics for each mechanism.
+     * @throws InterruptedException if interrupted waiting for the virtual users to complete.
+     */
+    public LoadReport run() throws InterruptedException {
+        final Map<HttpAuthenticationMechanism, LoadStatistics> statistics = new EnumMap<>(HttpAuthenticationMechanism.class);
+        mechanisms.forEach(m -> statistics.put(m, new LoadStatistics(m.name())));
+        final HttpAuthenticationMechanism[] mechanismArray = mechanisms.toArray(new HttpAuthenticationMechanism[mechanisms.size()]);
+
+        System.out.printf("HttpLoadDriver - Starting %d virtual users for %s after a warm up of %s\n",
+                virtualUsers, duration, warmUp);
+        final ExecutorService executorService = Executors.newFixedThreadPool(virtualUsers);
+        try {
+            final long measureStart = System.nanoTime() + warmUp.toNanos();
+            final long measureEnd = measureStart + duration.toNanos();
+
+            List<Future<?>> futures = new ArrayList<>(virtualUsers);
+            for (int i = 0; i < virtualUsers; i++) {
+                final HttpAuthenticationMechanism mechanism = mechanismArray[i % mechanismArray.length];
+                final Identity identity = identities.get(i % identities.size());
+                final LoadStatistics mechanismStatistics = statistics.get(mechanism);
+                futures.add(executorService.submit(
+                        () -> runVirtualUser(mechanism, identity, mechanismStatistics, measureStart, measureEnd)));
+            }
+
+            for (Future<?> current : futures) {
+                try {
+                    current.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Virtual user failed unexpectedly", e.getCause());
+                }
+            }
+
+            return new LoadReport(String.format("HTTP %d virtual users, %d%% bad passwords", virtualUsers, badPasswordPercentage),
+                    measureEnd - measureStart, statistics.values());
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void runVirtualUser(final HttpAuthenticationMechanism mechanism, final Identity identity,
+            final LoadStatistics statistics, final long measureStart, final long measureEnd) {
+        // As with the individual tests each iteration needs a clean cookie store but the client is retained
+        // so connections can be reused the same as a real client.
+        final CookieManager cookieManager = new CookieManager();
+        final HttpClient httpClient = HttpTestClient.newHttpClient(cookieManager);
+
+        long start;
+        while ((start = System.nanoTime()) < measureEnd) {
+            cookieManager.getCookieStore().removeAll();
+            final HttpClientAuthenticationUtility authUtility = mechanism == HttpAuthenticationMechanism.DIGEST_MD5
+                    ? digestUtility.newSession() : HttpClientAuthenticationUtility.builder(mechanism).build();
+            final boolean badPassword = ThreadLocalRandom.current().nextInt(100) < badPasswordPercentage;
+            try {
+                if (badPassword) {
+                    testClient.httpFailure(httpClient, authUtility, mechanism, identity.username(), BAD_PASSWORD);
+                } else {
+                    testClient.httpSuccess(httpClient, authUtility, mechanism, identity.username(), identity.password(), false);
+                }
+                if (start >= measureStart) {
+                    statistics.recordCompleted(start);
+                }
+            } catch (Exception | AssertionError e) {
+                if (start >= measureStart) {
+                    statistics.recordError();
+                    if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                        System.out.printf("HttpLoadDriver - %s error for '%s': %s\n", mechanism, identity.username(), e);
+                    }
+                }
+            }
+        }
+    }
+
+    static Builder builder(final HttpTestClient testClient) {
+        return new Builder(testClient);
+    }
+
+    record Identity(String username, String password) {}
+
+    public static class Builder {
+
+        private final HttpTestClient testClient;
+        private Set<HttpAuthenticationMechanism> mechanisms = EnumSet.noneOf(HttpAuthenticationMechanism.class);
+        private final List<Identity> identities = new ArrayList<>();
+        private int virtualUsers = 100;
+        private Duration warmUp = Duration.ofSeconds(5);
+        private Duration duration = Duration.ofSeconds(30);
+        private int badPasswordPercentage = 0;
+
+        Builder(final HttpTestClient testClient) {
+            this.testClient = testClient;
+        }
+
+        /**
+         * Set the mechanisms the virtual users will be distributed across.
+         *
+         * @param mechanisms the mechanisms to use.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setMechanisms(final Set<HttpAuthenticationMechanism> mechanisms) {
+            this.mechanisms = mechanisms.isEmpty() ? EnumSet.noneOf(HttpAuthenticationMechanism.class) : EnumSet.copyOf(mechanisms);
+
+            return this;
+        }
+
+        /**
+         * Add an identity the virtual users can authenticate as, identities are assigned to the virtual users round
+         * robin so where possible at least as many identities as virtual users should be added.
+         *
+         * @param username the username of the identity.
+         * @param password the password of the identity.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder addIdentity(final String username, final String password) {
+            identities.add(new Identity(username, password));
+
+            return this;
+        }
+
+        public Builder setVirtualUsers(final int virtualUsers) {
+            this.virtualUsers = virtualUsers;
+
+            return this;
+        }
+
+        /**
+         * Set how long the virtual users should run before statistics are recorded.
+         *
+         * @param warmUp the warm up duration.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setWarmUp(final Duration warmUp) {
+            this.warmUp = warmUp;
+
+            return this;
+        }
+
+        /**
+         * Set how long statistics should be recorded for following the warm up.
+         *
+         * @param duration the measurement duration.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setDuration(final Duration duration) {
+            this.duration = duration;
+
+            return this;
+        }
+
+        /**
+         * Set the percentage of iterations that should use a bad password and expect authentication to fail.
+         *
+         * @param badPasswordPercentage the percentage between {@code 0} and {@code 100}.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setBadPasswordPercentage(final int badPasswordPercentage) {
+            this.badPasswordPercentage = badPasswordPercentage;
+
+            return this;
+        }
+
+        public HttpLoadDriver build() {
+            if (mechanisms.isEmpty()) {
+                throw new IllegalStateException("At least one mechanism is required.");
+            }
+            if (identities.isEmpty()) {
+                throw new IllegalStateException("At least one identity is required.");
+            }
+            if (virtualUsers < 1) {
+                throw new IllegalStateException("At least one virtual user is required.");
+            }
+            if (badPasswordPercentage < 0 || badPasswordPercentage > 100) {
+                throw new IllegalStateException("The bad password percentage must be between 0 and 100.");
+            }
+
+            return new HttpLoadDriver(this);
+        }
+    }
+}
@@ -5,6 +5,8 @@
 
 package org.wildfly.security.tests.common.authauthz.http;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.AUTHORIZATION;
 import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.verifyNoChallenge;
 import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.verifyPrincipal;
 import static org.wildfly.security.tests.common.authauthz.http.HttpClientAuthenticationCommon.verifyStatusCode;
@@ -19,6 +21,9 @@ import java.net.http.HttpResponse.BodyHandlers;
 
 import org.wildfly.common.function.ExceptionBiFunction;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.load.AttackSimulator;
+import org.wildfly.security.tests.common.authauthz.metrics.AuthenticationMetrics;
+import org.wildfly.security.tests.common.authauthz.metrics.AuthenticationPhase;
 
 /**
  * A common test utility for HTTP invocations.
@@ -35,6 +40,8 @@ public class HttpTestClient {
 
     private static final String NULL = "null";
     private static final int HTTP_OK = 200;
+    // Beyond 9 so the nonce count is only correct if it is hex encoded.
+    private static final int DIGEST_NONCE_COUNT = 17;
 
     private final ExceptionBiFunction<HttpAuthenticationMechanism, Boolean, URI, URISyntaxException> toUri;
 
@@ -44,7 +51,10 @@ public class HttpTestClient {
 
     private static HttpClient newHttpClient() {
         // We create a new client for each test scenario for a clean cookie manager.
-        CookieManager cookieManager = new CookieManager();
+        return newHttpClient(new CookieManager());
+    }
+
+    static HttpClient newHttpClient(final CookieManager cookieManager) {
         return HttpClient.newBuilder()
             .cookieHandler(cookieManager)
             .followRedirects(HttpClient.Redirect.ALWAYS)
@@ -65,6 +75,18 @@ public class HttpTestClient {
         HttpClientAuthenticationUtility authUtility = HttpClientAuthenticationUtility.builder(mechanism)
             .build();
 
+        httpSuccess(httpClient, authUtility, mechanism, username, password, true);
+    }
+
+    /**
+     * Run the successful authentication scenario.
+     *
+     * @param functional {@code true} for a functional test, progress is logged and the latency of each phase is
+     *        recorded in {@link AuthenticationMetrics}, {@code false} where called repeatedly under load.
+     */
+    void httpSuccess(final HttpClient httpClient, final HttpClientAuthenticationUtility authUtility,
+            final HttpAuthenticationMechanism mechanism, final String username, final String password,
+            final boolean functional) throws Exception {
         // Call Unsecured Path to verify accessible
         HttpRequest request = authUtility.createRequest(toUri.apply(mechanism, false));
 
@@ -72,34 +94,57 @@ public class HttpTestClient {
         // - Response is HTTP 200
         // - No challenge header
         // - Principal is 'null'
-        System.out.println("~~ Insecure Request");
+        if (functional) {
+            System.out.println("~~ Insecure Request");
+        }
+        long start = System.nanoTime();
         httpClient.sendAsync(request, BodyHandlers.ofString())
             .thenApply(verifyStatusCode(HTTP_OK))
             .thenApply(verifyNoChallenge())
             .thenApply(verifyPrincipal(NULL))
             .join();
+        recordPhase(functional, mechanism, AuthenticationPhase.INSECURE_REQUEST, start);
 
         // Call secured path and verify that the expected challenge was returned (as applicable)
-        System.out.println("~~ First Challenge");
+        if (functional) {
+            System.out.println("~~ First Challenge");
+        }
         URI securedResource = toUri.apply(mechanism, true);
         request = HttpRequest.newBuilder(securedResource).build();
+        start = System.nanoTime();
         httpClient.sendAsync(request, BodyHandlers.ofString())
             .thenApply(authUtility.verifyChallenge())
             .join();
+        recordPhase(functional, mechanism, AuthenticationPhase.FIRST_CHALLENGE, start);
 
         // Generate a response to the challenge
-        System.out.println("~~ Respond to Challenge");
+        if (functional) {
+            System.out.println("~~ Respond to Challenge");
+        }
         request = authUtility.createAuthenticationRequest(securedResource, username, password);
+        start = System.nanoTime();
         httpClient.sendAsync(request, BodyHandlers.ofString())
             .thenApply(authUtility.verifyAuthentication(true))
             .join();
+        recordPhase(functional, mechanism, AuthenticationPhase.CHALLENGE_RESPONSE, start);
 
         // Call deployment again with the challenge and verify success.
-        System.out.println("~~ Second call");
+        if (functional) {
+            System.out.println("~~ Second call");
+        }
         request = authUtility.createRequest(securedResource);
+        start = System.nanoTime();
         httpClient.sendAsync(request, BodyHandlers.ofString())
             .thenApply(authUtility.verifyAuthentication(true))
             .join();
+        recordPhase(functional, mechanism, AuthenticationPhase.AUTHENTICATED_REQUEST, start);
+    }
+
+    private static void recordPhase(final boolean functional, final HttpAuthenticationMechanism mechanism,
+            final AuthenticationPhase phase, final long startNanos) {
+        if (functional) {
+            AuthenticationMetrics.getInstance().record(mechanism.name(), phase, startNanos);
+        }
     }
 
     public void testHttpBadUsername(final HttpAuthenticationMechanism mechanism) throws Exception {
@@ -108,31 +153,7 @@ public class HttpTestClient {
         HttpClientAuthenticationUtility authUtility = HttpClientAuthenticationUtility.builder(mechanism)
             .build();
 
-        // Call Unsecured Path to verify accessible
-        HttpRequest request = authUtility.createRequest(toUri.apply(mechanism, false));
-
-        // Test Requirements:
-        // - Response is HTTP 200
-        // - No challenge header
-        // - Principal is 'null'
-        httpClient.sendAsync(request, BodyHandlers.ofString())
-            .thenApply(verifyStatusCode(HTTP_OK))
-            .thenApply(verifyNoChallenge())
-            .thenApply(verifyPrincipal(NULL))
-            .join();
-
-        // Call secured path and verify that the expected challenge was returned (as applicable)
-        URI securedResource = toUri.apply(mechanism, true);
-        request = HttpRequest.newBuilder(securedResource).build();
-        httpClient.sendAsync(request, BodyHandlers.ofString())
-            .thenApply(authUtility.verifyChallenge())
-            .join();
-
-        // Generate a response to the challenge
-        request = authUtility.createAuthenticationRequest(securedResource, badUsername, goodPassword);
-        httpClient.sendAsync(request, BodyHandlers.ofString())
-            .thenApply(authUtility.verifyAuthentication(false))
-            .join();
+        httpFailure(httpClient, authUtility, mechanism, badUsername, goodPassword);
     }
 
     public void testHttpBadPassword(final HttpAuthenticationMechanism mechanism) throws Exception {
@@ -147,6 +168,11 @@ public class HttpTestClient {
         HttpClientAuthenticationUtility authUtility = HttpClientAuthenticationUtility.builder(mechanism)
             .build();
 
+        httpFailure(httpClient, authUtility, mechanism, username, password);
+    }
+
+    void httpFailure(final HttpClient httpClient, final HttpClientAuthenticationUtility authUtility,
+            final HttpAuthenticationMechanism mechanism, final String username, final String password) throws Exception {
         // Call Unsecured Path to verify accessible
         HttpRequest request = authUtility.createRequest(toUri.apply(mechanism, false));
 
@@ -174,6 +200,101 @@ public class HttpTestClient {
             .join();
     }
 
+    /**
+     * Verify the {@link ConcurrentHttpDigestClientAuthenticationUtility} creates the same {@code Authorization} header
+     * as the {@link HttpDigestClientAuthenticationUtility} and that the server accepts it.
+     *
+     * Both utilities respond to the same challenge so sign using the same nonce and client nonce, the nonce is then
+     * reused up to a nonce count of {@value #DIGEST_NONCE_COUNT}.
+     */
+    public void testHttpConcurrentDigest() throws Exception {
+        final HttpAuthenticationMechanism mechanism = HttpAuthenticationMechanism.DIGEST_MD5;
+        HttpClient httpClient = newHttpClient();
+
+        HttpClientAuthenticationUtility expectedUtility = HttpClientAuthenticationUtility.builder(mechanism)
+            .build();
+        ConcurrentHttpDigestClientAuthenticationUtility.Session session =
+                new ConcurrentHttpDigestClientAuthenticationUtility().newSession();
+
+        URI securedResource = toUri.apply(mechanism, true);
+        HttpRequest request = HttpRequest.newBuilder(securedResource).build();
+        httpClient.sendAsync(request, BodyHandlers.ofString())
+            .thenApply(expectedUtility.verifyChallenge())
+            .thenApply(session.verifyChallenge())
+            .join();
+
+        HttpRequest expected = expectedUtility.createAuthenticationRequest(securedResource, goodUsername, goodPassword);
+        request = session.createAuthenticationRequest(securedResource, goodUsername, goodPassword);
+        for (int nonceCount = 1; nonceCount <= DIGEST_NONCE_COUNT; nonceCount++) {
+            if (nonceCount > 1) {
+                expected = expectedUtility.createRequest(securedResource);
+                request = session.createRequest(securedResource);
+            }
+
+            assertEquals(authorization(expected), authorization(request),
+                    String.format("Authorization header for nonce count %d", nonceCount));
+            httpClient.sendAsync(request, BodyHandlers.ofString())
+                .thenApply(session.verifyAuthentication(true))
+                .join();
+        }
+    }
+
+    private static String authorization(final HttpRequest request) {
+        return request.headers().firstValue(AUTHORIZATION).orElse(null);
+    }
+
+    /**
+     * Create a {@code HttpLoadDriver.Builder} to run the same scenarios as this client concurrently from
+     * many virtual users.
+     *
+     * @return a {@code HttpLoadDriver.Builder} using the same {@code URI} mapping as this client.
+     */
+    public HttpLoadDriver.Builder loadDriver() {
+        return HttpLoadDriver.builder(this);
+    }
+
+    /**
+     * Create a {@code HttpDigestNonceLoadDriver.Builder} to compare a full DIGEST challenge for every request with
+     * reuse of the server nonce.
+     *
+     * @return a {@code HttpDigestNonceLoadDriver.Builder} using the same {@code URI} mapping as this client.
+     */
+    public HttpDigestNonceLoadDriver.Builder digestNonceLoadDriver() {
+        return HttpDigestNonceLoadDriver.builder(this);
+    }
+
+    /**
+     * Create an {@code AuthenticationAttempt} for use with the {@link AttackSimulator}.
+     *
+     * Each attempt runs the same scenario as the individual tests, as with the {@link HttpLoadDriver} the
+     * {@code HttpClient} is retained between attempts but the cookie store is cleared before each attempt.
+     *
+     * @param mechanism the mechanism to authenticate using.
+     * @return a new {@code AuthenticationAttempt} which should only be used by a single thread.
+     */
+    public AttackSimulator.AuthenticationAttempt authenticationAttempt(final HttpAuthenticationMechanism mechanism) {
+        final CookieManager cookieManager = new CookieManager();
+        final HttpClient httpClient = newHttpClient(cookieManager);
+
+        return (username, password, expectSuccess) -> {
+            cookieManager.getCookieStore().removeAll();
+            HttpClientAuthenticationUtility authUtility = HttpClientAuthenticationUtility.builder(mechanism).build();
+            if (expectSuccess) {
+                httpSuccess(httpClient, authUtility, mechanism, username, password, false);
+            } else {
+                httpFailure(httpClient, authUtility, mechanism, username, password);
+            }
+        };
+    }
+
+    URI toUri(final HttpAuthenticationMechanism mechanism, final boolean secured) {
+        try {
+            return toUri.apply(mechanism, secured);
+        } catch (URISyntaxException e) {
+            throw new IllegalStateException("Unable to create URI", e);
+        }
+    }
+
     public static Builder builder() {
         return new Builder();
     }
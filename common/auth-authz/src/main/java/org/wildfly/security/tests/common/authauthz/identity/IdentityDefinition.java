@@ -0,0 +1,26 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.identity;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The definition of a single test identity as produced by an {@link IdentityGenerator}.
+ *
+ * @param username the name of the identity.
+ * @param password the clear text password of the identity.
+ * @param groups the groups the identity is a member of, may be empty.
+ * @param attributes the additional attributes of the identity, may be empty.
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public record IdentityDefinition(String username, String password, List<String> groups,
+        Map<String, List<String>> attributes) {
+
+    public IdentityDefinition(final String username, final String password) {
+        this(username, password, List.of(), Map.of());
+    }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.identity;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * A generator of deterministic test identities.
+ *
+ * Each identity is derived purely from its index so the identities are generated lazily as they
+ * are consumed, the same identity can be regenerated at any time and an identity can be looked up
+ * by name without holding the whole population in memory. This allows the same definitions to be
+ * used for the 100 identities of the functional tests or for populations of millions of identities
+ * when testing at scale.
+ *
+ * The username and password patterns must each contain a single {@code %d} which is replaced by
+ * the index of the identity.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class IdentityGenerator {
+
+    public static final String COUNT = "IdentityGenerator.Count";
+    public static final String GROUP_COUNT = "IdentityGenerator.GroupCount";
+    public static final String GROUPS_PER_IDENTITY = "IdentityGenerator.GroupsPerIdentity";
+    public static final String ATTRIBUTES_PER_IDENTITY = "IdentityGenerator.AttributesPerIdentity";
+    public static final String PASSWORD_ALGORITHM = "IdentityGenerator.PasswordAlgorithm";
+    public static final String ITERATION_COUNT = "IdentityGenerator.IterationCount";
+
+    private static final String INDEX_PLACEHOLDER = "%d";
+
+    private final String usernamePrefix;
+    private final String usernameSuffix;
+    private final String passwordPrefix;
+    private final String passwordSuffix;
+    private final long firstIndex;
+    private final long count;
+    private final int groupCount;
+    private final int groupsPerIdentity;
+    private final int attributesPerIdentity;
+    private final String passwordAlgorithm;
+    private final int iterationCount;
+
+    private IdentityGenerator(final Builder builder) {
+        int usernameIndex = builder.usernamePattern.indexOf(INDEX_PLACEHOLDER);
+        usernamePrefix = builder.usernamePattern.substring(0, usernameIndex);
+        usernameSuffix = builder.usernamePattern.substring(usernameIndex + INDEX_PLACEHOLDER.length());
+        int passwordIndex = builder.passwordPattern.indexOf(INDEX_PLACEHOLDER);
+        passwordPrefix = builder.passwordPattern.substring(0, passwordIndex);
+        passwordSuffix = builder.passwordPattern.substring(passwordIndex + INDEX_PLACEHOLDER.length());
+        firstIndex = builder.firstIndex;
+        count = builder.count;
+        groupCount = builder.groupCount;
+        groupsPerIdentity = builder.groupsPerIdentity;
+        attributesPerIdentity = builder.attributesPerIdentity;
+        passwordAlgorithm = builder.passwordAlgorithm;
+        iterationCount = builder.iterationCount;
+    }
+
+    /**
+     * Obtain a lazily generated {@code Stream} of all identities in index order.
+     *
+     * @return a {@code Stream} of all identities.
+     */
+    public Stream<IdentityDefinition> stream() {
+        return LongStream.range(firstIndex, firstIndex + count).mapToObj(this::generate);
+    }
+
+    /**
+     * Obtain the identity with the specified index.
+     *
+     * @param index the index of the identity.
+     * @return the identity with the specified index.
+     * @throws IllegalArgumentException if the index is outside of the range of this generator.
+     */
+    public IdentityDefinition identity(final long index) {
+        if (!contains(index)) {
+            throw new IllegalArgumentException(String.format("Index %d is outside of the range %d to %d",
+                    index, firstIndex, firstIndex + count - 1));
+        }
+
+        return generate(index);
+    }
+
+    /**
+     * Look up the identity with the specified name.
+     *
+     * @param username the name of the identity.
+     * @return the identity or {@code null} if the name was not produced by this generator.
+     */
+    public IdentityDefinition lookup(final String username) {
+        final long index = indexOf(username);
+
+        return index < 0 ? null : generate(index);
+    }
+
+    public long getFirstIndex() {
+        return firstIndex;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public String getPasswordAlgorithm() {
+        return passwordAlgorithm;
+    }
+
+    public int getIterationCount() {
+        return iterationCount;
+    }
+
+    private boolean contains(final long index) {
+        return index >= firstIndex && index < firstIndex + count;
+    }
+
+    private long indexOf(final String username) {
+        if (username == null || !username.startsWith(usernamePrefix) || !username.endsWith(usernameSuffix)) {
+            return -1;
+        }
+
+        final int start = usernamePrefix.length();
+        final int end = username.length() - usernameSuffix.length();
+        // Long.MAX_VALUE has 19 digits, rejecting anything longer avoids overflow.
+        if (end <= start || end - start > 18 || (username.charAt(start) == '0' && end - start > 1)) {
+            return -1;
+        }
+
+        long index = 0;
+        for (int i = start; i < end; i++) {
+            final char c = username.charAt(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            index = index * 10 + (c - '0');
+        }
+
+        return contains(index) ? index : -1;
+    }
+
+    private IdentityDefinition generate(final long index) {
+        return new IdentityDefinition(usernamePrefix + index + usernameSuffix, passwordPrefix + index + passwordSuffix,
+                generateGroups(index), generateAttributes(index));
+    }
+
+    private List<String> generateGroups(final long index) {
+        if (groupsPerIdentity == 0) {
+            return List.of();
+        }
+
+        // Consecutive groups starting from the identity index so membership is spread evenly across the groups.
+        final List<String> groups = new ArrayList<>(groupsPerIdentity);
+        for (int i = 0; i < groupsPerIdentity; i++) {
+            groups.add("group" + ((index + i) % groupCount));
+        }
+
+        return Collections.unmodifiableList(groups);
+    }
+
+    private Map<String, List<String>> generateAttributes(final long index) {
+        if (attributesPerIdentity == 0) {
+            return Map.of();
+        }
+
+        final Map<String, List<String>> attributes = new HashMap<>(attributesPerIdentity * 2);
+        for (int i = 0; i < attributesPerIdentity; i++) {
+            attributes.put("attribute" + i, List.of("value" + index + "-" + i));
+        }
+
+        return Collections.unmodifiableMap(attributes);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private String usernamePattern = "user%d";
+        private String passwordPattern = "password%d";
+        private long firstIndex = 0;
+        private long count = 100;
+        private int groupCount = 0;
+        private int groupsPerIdentity = 0;
+        private int attributesPerIdentity = 0;
+        private String passwordAlgorithm = "clear";
+        private int iterationCount = 0;
+
+        Builder() {
+        }
+
+        public Builder setUsernamePattern(final String usernamePattern) {
+            this.usernamePattern = usernamePattern;
+
+            return this;
+        }
+
+        public Builder setPasswordPattern(final String passwordPattern) {
+            this.passwordPattern = passwordPattern;
+
+            return this;
+        }
+
+        public Builder setFirstIndex(final long firstIndex) {
+            this.firstIndex = firstIndex;
+
+            return this;
+        }
+
+        public Builder setCount(final long count) {
+            this.count = count;
+
+            return this;
+        }
+
+        /**
+         * Set the number of distinct groups identities are assigned to.
+         */
+        public Builder setGroupCount(final int groupCount) {
+            this.groupCount = groupCount;
+
+            return this;
+        }
+
+        /**
+         * Set the number of groups each identity is a member of.
+         */
+        public Builder setGroupsPerIdentity(final int groupsPerIdentity) {
+            this.groupsPerIdentity = groupsPerIdentity;
+
+            return this;
+        }
+
+        public Builder setAttributesPerIdentity(final int attributesPerIdentity) {
+            this.attributesPerIdentity = attributesPerIdentity;
+
+            return this;
+        }
+
+        /**
+         * Set the algorithm realms populated from the generator should use to store passwords, the
+         * generated passwords are always clear text so clients can authenticate using them.
+         */
+        public Builder setPasswordAlgorithm(final String passwordAlgorithm) {
+            this.passwordAlgorithm = passwordAlgorithm;
+
+            return this;
+        }
+
+        /**
+         * Set the iteration count for iterated password algorithms, {@code 0} uses the algorithm default.
+         */
+        public Builder setIterationCount(final int iterationCount) {
+            this.iterationCount = iterationCount;
+
+            return this;
+        }
+
+        /**
+         * Override the values already set on this builder with any {@code IdentityGenerator.*} system
+         * properties which have been set.
+         */
+        public Builder applySystemProperties() {
+            count = Long.getLong(COUNT, count);
+            groupCount = Integer.getInteger(GROUP_COUNT, groupCount);
+            groupsPerIdentity = Integer.getInteger(GROUPS_PER_IDENTITY, groupsPerIdentity);
+            attributesPerIdentity = Integer.getInteger(ATTRIBUTES_PER_IDENTITY, attributesPerIdentity);
+            passwordAlgorithm = System.getProperty(PASSWORD_ALGORITHM, passwordAlgorithm);
+            iterationCount = Integer.getInteger(ITERATION_COUNT, iterationCount);
+
+            return this;
+        }
+
+        public IdentityGenerator build() {
+            if (!isValidPattern(usernamePattern)) {
+                throw new IllegalStateException("The username pattern must contain a single '%d'.");
+            }
+            if (!isValidPattern(passwordPattern)) {
+                throw new IllegalStateException("The password pattern must contain a single '%d'.");
+            }
+            if (firstIndex < 0 || count < 0 || firstIndex + count < firstIndex) {
+                throw new IllegalStateException("The first index and count must be positive.");
+            }
+            if (groupsPerIdentity < 0 || groupsPerIdentity > groupCount) {
+                throw new IllegalStateException("The groups per identity can not exceed the group count.");
+            }
+            if (attributesPerIdentity < 0) {
+                throw new IllegalStateException("The attributes per identity must be positive.");
+            }
+            if (passwordAlgorithm == null) {
+                throw new IllegalStateException("A password algorithm must be set.");
+            }
+            if (iterationCount < 0) {
+                throw new IllegalStateException("The iteration count must be positive.");
+            }
+
+            return new IdentityGenerator(this);
+        }
+
+        private static boolean isValidPattern(final String pattern) {
+            if (pattern == null) {
+                return false;
+            }
+            final int index = pattern.indexOf(INDEX_PLACEHOLDER);
+
+            return index >= 0 && pattern.indexOf('%', index + 1) < 0 && pattern.lastIndexOf('%', index - 1) < 0;
+        }
+    }
+}
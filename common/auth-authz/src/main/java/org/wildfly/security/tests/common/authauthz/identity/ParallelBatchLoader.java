@@ -0,0 +1,179 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.identity;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Loader which consumes identities from a {@code Stream} in batches and spreads the batches across a number of threads
+ * each writing through its own {@link BatchWriter}, e.g. a JDBC connection or a realm.
+ *
+ * The queue between the {@code Stream} and the threads is bounded so populations of millions of identities can be
+ * loaded without the whole population being held in memory. If a writer fails the remaining threads are stopped and
+ * the failure is reported to the caller.
+ *
+ * @param <E> the type of exception thrown by the writers, rethrown as is from {@link #load(Stream, BatchWriterFactory)}.
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class ParallelBatchLoader<E extends Exception> {
+
+    private static final List<IdentityDefinition> END_OF_IDENTITIES = new ArrayList<>(0);
+    private static final int WORKER_POLL_SECONDS = 1;
+
+    private final Class<E> exceptionType;
+    private final int batchSize;
+    private final int threads;
+
+    /**
+     * Construct a new loader.
+     *
+     * @param exceptionType the type of exception thrown by the writers.
+     * @param batchSize the number of identities passed to each call to {@link BatchWriter#write(List)}.
+     * @param threads the number of threads, each with its own writer.
+     */
+    public ParallelBatchLoader(final Class<E> exceptionType, final int batchSize, final int threads) {
+        if (batchSize < 1 || threads < 1) {
+            throw new IllegalArgumentException("The batch size and number of threads must be at least 1.");
+        }
+        this.exceptionType = exceptionType;
+        this.batchSize = batchSize;
+        this.threads = threads;
+    }
+
+    /**
+     * Write all of the identities from the {@code Stream} using one writer per thread.
+     *
+     * @param identities the identities to write.
+     * @param writerFactory the factory called once on each thread to create its writer.
+     * @return the number of identities written.
+     * @throws E if a writer fails.
+     */
+    public long load(final Stream<IdentityDefinition> identities, final BatchWriterFactory<E> writerFactory) throws E {
+        final BlockingQueue<List<IdentityDefinition>> queue = new ArrayBlockingQueue<>(threads * 2);
+        final ExecutorService executorService = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<Long>> workers = new ArrayList<>(threads);
+            for (int i = 0; i < threads; i++) {
+                workers.add(executorService.submit(() -> write(queue, writerFactory)));
+            }
+
+            Iterator<IdentityDefinition> iterator = identities.iterator();
+            while (iterator.hasNext()) {
+                List<IdentityDefinition> batch = new ArrayList<>(batchSize);
+                while (batch.size() < batchSize && iterator.hasNext()) {
+                    batch.add(iterator.next());
+                }
+                enqueue(queue, batch, workers);
+            }
+            for (int i = 0; i < threads; i++) {
+                enqueue(queue, END_OF_IDENTITIES, workers);
+            }
+
+            long count = 0;
+            for (Future<Long> current : workers) {
+                count += getResult(current);
+            }
+
+            return count;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private static <E extends Exception> long write(final BlockingQueue<List<IdentityDefinition>> queue,
+            final BatchWriterFactory<E> writerFactory) throws E, InterruptedException {
+        long count = 0;
+        try (BatchWriter<E> writer = writerFactory.createWriter()) {
+            List<IdentityDefinition> batch;
+            while ((batch = queue.take()) != END_OF_IDENTITIES) {
+                writer.write(batch);
+                count += batch.size();
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Add the batch to the queue, if a worker has failed there may be no worker left to take from the queue
+     * so the workers are checked whilst waiting.
+     */
+    private void enqueue(final BlockingQueue<List<IdentityDefinition>> queue, final List<IdentityDefinition> batch,
+            final List<Future<Long>> workers) throws E {
+        try {
+            while (!queue.offer(batch, WORKER_POLL_SECONDS, TimeUnit.SECONDS)) {
+                for (Future<Long> current : workers) {
+                    if (current.isDone()) {
+                        getResult(current);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted loading identities", e);
+        }
+    }
+
+    private long getResult(final Future<Long> worker) throws E {
+        try {
+            return worker.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted loading identities", e);
+        } catch (ExecutionException e) {
+            if (exceptionType.isInstance(e.getCause())) {
+                throw exceptionType.cast(e.getCause());
+            }
+            throw new IllegalStateException("Unable to load identities", e.getCause());
+        }
+    }
+
+    /**
+     * The writer used by a single thread, a writer is only ever called from the thread which created it.
+     *
+     * @param <E> the type of exception thrown by the writer.
+     */
+    public interface BatchWriter<E extends Exception> extends AutoCloseable {
+
+        /**
+         * Write a batch of identities.
+         *
+         * @param batch the identities to write.
+         * @throws E if the identities can not be written.
+         */
+        void write(List<IdentityDefinition> batch) throws E;
+
+        /**
+         * Release any resources held by this writer once all batches have been written or loading has failed.
+         *
+         * @throws E if the resources can not be released.
+         */
+        @Override
+        default void close() throws E {
+        }
+    }
+
+    /**
+     * Factory for the writer of each thread.
+     *
+     * @param <E> the type of exception thrown by the writers.
+     */
+    @FunctionalInterface
+    public interface BatchWriterFactory<E extends Exception> {
+
+        BatchWriter<E> createWriter() throws E;
+    }
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.jaas;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import javax.security.auth.Subject;
+import javax.security.auth.callback.Callback;
+import javax.security.auth.callback.CallbackHandler;
+import javax.security.auth.callback.NameCallback;
+import javax.security.auth.callback.PasswordCallback;
+import javax.security.auth.callback.UnsupportedCallbackException;
+import javax.security.auth.login.AppConfigurationEntry;
+import javax.security.auth.login.AppConfigurationEntry.LoginModuleControlFlag;
+import javax.security.auth.login.Configuration;
+import javax.security.auth.login.LoginException;
+import javax.security.auth.spi.LoginModule;
+
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+
+/**
+ * A JAAS {@link LoginModule} for benchmarking the cost of the JAAS framework, verifying against an immutable index of
+ * identities which is built once and shared by every instance of the module.
+ *
+ * A new instance of a {@code LoginModule} is created for each {@code LoginContext} so nothing is built per login,
+ * the only work performed by the module is the callback handling, a single map lookup and the optional simulated
+ * backend cost. The cost is configured using the {@value #COST_MICROS_OPTION} option and is spent parked so it
+ * behaves as a call to a remote store would.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class IndexedJaasLoginModule implements LoginModule {
+
+    /**
+     * The module option holding the simulated backend cost of each login in microseconds.
+     */
+    public static final String COST_MICROS_OPTION = "cost-micros";
+
+    private static volatile Map<String, char[]> identityIndex = Collections.emptyMap();
+
+    private Subject subject;
+    private CallbackHandler callbackHandler;
+    private long costNanos;
+    private NamePrincipal principal;
+
+    /**
+     * Build the index of identities used by every instance of the module, replacing any previous index.
+     *
+     * @param identities the identities to index.
+     * @return the number of identities indexed.
+     */
+    public static int install(final Stream<IdentityDefinition> identities) {
+        final Map<String, char[]> index = new HashMap<>();
+        Iterator<IdentityDefinition> iterator = identities.iterator();
+        while (iterator.hasNext()) {
+            IdentityDefinition identity = iterator.next();
+            index.put(identity.username(), identity.password().toCharArray());
+        }
+        identityIndex = Collections.unmodifiableMap(index);
+
+        return index.size();
+    }
+
+    /**
+     * Remove the index of identities so it can be garbage collected.
+     */
+    public static void uninstall() {
+        identityIndex = Collections.emptyMap();
+    }
+
+    /**
+     * Verify the password directly against the index, without JAAS, as a baseline for the cost of the framework.
+     *
+     * @param username the name of the identity.
+     * @param password the password to verify.
+     * @return {@code true} if the identity exists and the password matches.
+     */
+    public static boolean verify(final String username, final char[] password) {
+        final char[] expected = username != null ? identityIndex.get(username) : null;
+
+        return expected != null && password != null && Arrays.equals(expected, password);
+    }
+
+    /**
+     * Create a JAAS {@code Configuration} containing a single entry using this module, to be installed using
+     * {@link Configuration#setConfiguration(Configuration)}.
+     *
+     * @param entryName the name of the entry e.g. {@code JaasEntry}.
+     * @param costMicros the simulated backend cost of each login in microseconds.
+     * @return the {@code Configuration}.
+     */
+    public static Configuration configuration(final String entryName, final long costMicros) {
+        final AppConfigurationEntry[] entries = new AppConfigurationEntry[] {
+                new AppConfigurationEntry(IndexedJaasLoginModule.class.getName(), LoginModuleControlFlag.REQUIRED,
+                        Map.of(COST_MICROS_OPTION, Long.toString(costMicros)))
+        };
+
+        return new Configuration() {
+            @Override
+            public AppConfigurationEntry[] getAppConfigurationEntry(final String name) {
+                return entryName.equals(name) ? entries : null;
+            }
+        };
+    }
+
+    @Override
+    public void initialize(Subject subject, CallbackHandler callbackHandler, Map<String, ?> sharedState, Map<String, ?> options) {
+        this.subject = subject;
+        this.callbackHandler = callbackHandler;
+        Object costMicros = options.get(COST_MICROS_OPTION);
+        this.costNanos = costMicros != null ? TimeUnit.MICROSECONDS.toNanos(Long.parseLong(costMicros.toString())) : 0;
+    }
+
+    @Override
+    public boolean login() throws LoginException {
+        NameCallback nameCallback = new NameCallback("Username");
+        PasswordCallback passwordCallback = new PasswordCallback("Password", false);
+        Callback[] callbacks = new Callback[] {nameCallback, passwordCallback};
+        try {
+            this.callbackHandler.handle(callbacks);
+        } catch(UnsupportedCallbackException | IOException e) {
+            throw new LoginException("Callback handling failed: " + e.getMessage());
+        }
+
+        simulateCost(costNanos);
+        String username = nameCallback.getName();
+        char[] password = passwordCallback.getPassword();
+        passwordCallback.clearPassword();
+        if (verify(username, password)) {
+            principal = new NamePrincipal(username);
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean commit() throws LoginException {
+        if (principal != null) {
+            subject.getPrincipals().add(principal);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean abort() throws LoginException {
+        principal = null;
+        return true;
+    }
+
+    @Override
+    public boolean logout() throws LoginException {
+        if (principal != null) {
+            subject.getPrincipals().remove(principal);
+            principal = null;
+        }
+        return true;
+    }
+
+    private static void simulateCost(final long costNanos) {
+        if (costNanos > 0) {
+            final long deadline = System.nanoTime() + costNanos;
+            long remaining;
+            while ((remaining = deadline - System.nanoTime()) > 0) {
+                LockSupport.parkNanos(remaining);
+            }
+        }
+    }
+}
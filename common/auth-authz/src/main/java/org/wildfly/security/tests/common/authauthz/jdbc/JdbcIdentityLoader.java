@@ -0,0 +1,316 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.jdbc;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.ParallelBatchLoader;
+import org.wildfly.security.tests.common.authauthz.identity.ParallelBatchLoader.BatchWriter;
+
+/**
+ * Utility to create the tables for a {@code JdbcSecurityRealm} and load them with identities.
+ *
+ * The identities are consumed from the {@code Stream} in batches which are inserted using JDBC batching,
+ * each batch is committed in its own transaction and the batches are spread by a {@link ParallelBatchLoader}
+ * across a number of connections each inserting from its own thread. This allows tables of millions of
+ * identities to be loaded without the whole population being held in memory.
+ *
+ * The users table always contains {@code username} and {@code password} columns, optionally it can
+ * also contain a {@code roles} column with the same value for all identities. Passwords are stored in the clear
+ * unless a {@link PasswordEncoder} is set in which case the encoded hash is stored along with {@code salt} and
+ * {@code iteration_count} columns. The groups and attributes
+ * of the identities can optionally be loaded into their own tables keyed by {@code username}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class JdbcIdentityLoader {
+
+    public static final String DEFAULT_USERS_TABLE = "jdbc_realm_users";
+
+    private final ConnectionFactory connectionFactory;
+    private final String usersTable;
+    private final String roles;
+    private final String rolesTable;
+    private final String attributesTable;
+    private final int batchSize;
+    private final int connections;
+    private final PasswordEncoder passwordEncoder;
+
+    private JdbcIdentityLoader(final Builder builder) {
+        connectionFactory = builder.connectionFactory;
+        usersTable = builder.usersTable;
+        roles = builder.roles;
+        rolesTable = builder.rolesTable;
+        attributesTable = builder.attributesTable;
+        batchSize = builder.batchSize;
+        connections = builder.connections;
+        passwordEncoder = builder.passwordEncoder;
+    }
+
+    /**
+     * Drop and re-create the configured tables.
+     */
+    public void createTables() throws SQLException {
+        try (Connection connection = connectionFactory.getConnection();
+                Statement statement = connection.createStatement()) {
+            statement.executeUpdate(String.format("DROP TABLE IF EXISTS %s", usersTable));
+            statement.executeUpdate(String.format(
+                    "CREATE TABLE %s (username VARCHAR(50), %s%s, PRIMARY KEY(username))",
+                    usersTable,
+                    passwordEncoder != null
+                            ? "password VARCHAR(200), salt VARCHAR(100), iteration_count INT"
+                            : "password VARCHAR(50)",
+                    roles != null ? ", roles VARCHAR(50)" : ""));
+            if (rolesTable != null) {
+                statement.executeUpdate(String.format("DROP TABLE IF EXISTS %s", rolesTable));
+                statement.executeUpdate(String.format(
+                        "CREATE TABLE %s (username VARCHAR(50), role_name VARCHAR(50), PRIMARY KEY(username, role_name))",
+                        rolesTable));
+            }
+            if (attributesTable != null) {
+                statement.executeUpdate(String.format("DROP TABLE IF EXISTS %s", attributesTable));
+                statement.executeUpdate(String.format(
+                        "CREATE TABLE %s (username VARCHAR(50), attribute_name VARCHAR(50), attribute_value VARCHAR(100))",
+                        attributesTable));
+                statement.executeUpdate(String.format("CREATE INDEX %s_username ON %s (username)",
+                        attributesTable, attributesTable));
+            }
+        }
+    }
+
+    /**
+     * Load all of the identities from the {@code Stream} into the tables.
+     *
+     * @param identities the identities to load.
+     * @return the number of identities loaded.
+     */
+    public long load(final Stream<IdentityDefinition> identities) throws SQLException {
+        final long start = System.nanoTime();
+        final long count = new ParallelBatchLoader<>(SQLException.class, batchSize, connections)
+                .load(identities, BatchInserter::new);
+
+        final long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.printf("JdbcIdentityLoader - Loaded %d identities in %d ms (%.0f identities/s) using %d connections\n",
+                count, elapsedMillis, count * 1000d / elapsedMillis, connections);
+
+        return count;
+    }
+
+    /**
+     * Inserts the batches of a single thread using its own connection, each batch is committed in its own transaction.
+     */
+    private final class BatchInserter implements BatchWriter<SQLException> {
+
+        private final Connection connection;
+        private final PreparedStatement users;
+        private final PreparedStatement roleNames;
+        private final PreparedStatement attributes;
+
+        BatchInserter() throws SQLException {
+            connection = connectionFactory.getConnection();
+            try {
+                connection.setAutoCommit(false);
+                users = connection.prepareStatement(String.format(
+                        "INSERT INTO %s (username, password%s%s) VALUES (?, ?%s%s)", usersTable,
+                        passwordEncoder != null ? ", salt, iteration_count" : "",
+                        roles != null ? ", roles" : "",
+                        passwordEncoder != null ? ", ?, ?" : "",
+                        roles != null ? ", ?" : ""));
+                roleNames = rolesTable != null ? connection.prepareStatement(
+                        String.format("INSERT INTO %s (username, role_name) VALUES (?, ?)", rolesTable)) : null;
+                attributes = attributesTable != null ? connection.prepareStatement(
+                        String.format("INSERT INTO %s (username, attribute_name, attribute_value) VALUES (?, ?, ?)",
+                                attributesTable)) : null;
+            } catch (SQLException e) {
+                connection.close();
+                throw e;
+            }
+        }
+
+        @Override
+        public void write(final List<IdentityDefinition> batch) throws SQLException {
+            for (IdentityDefinition identity : batch) {
+                int column = 1;
+                users.setString(column++, identity.username());
+                if (passwordEncoder != null) {
+                    EncodedPassword encoded = passwordEncoder.encode(identity.password());
+                    users.setString(column++, encoded.hash());
+                    users.setString(column++, encoded.salt());
+                    users.setInt(column++, encoded.iterationCount());
+                } else {
+                    users.setString(column++, identity.password());
+                }
+                if (roles != null) {
+                    users.setString(column, roles);
+                }
+                users.addBatch();
+
+                if (roleNames != null) {
+                    for (String group : identity.groups()) {
+                        roleNames.setString(1, identity.username());
+                        roleNames.setString(2, group);
+                        roleNames.addBatch();
+                    }
+                }
+                if (attributes != null) {
+                    for (Map.Entry<String, List<String>> attribute : identity.attributes().entrySet()) {
+                        for (String value : attribute.getValue()) {
+                            attributes.setString(1, identity.username());
+                            attributes.setString(2, attribute.getKey());
+                            attributes.setString(3, value);
+                            attributes.addBatch();
+                        }
+                    }
+                }
+            }
+            users.executeBatch();
+            if (roleNames != null) {
+                roleNames.executeBatch();
+            }
+            if (attributes != null) {
+                attributes.executeBatch();
+            }
+            connection.commit();
+        }
+
+        @Override
+        public void close() throws SQLException {
+            // Closing the connection also closes the statements prepared from it.
+            connection.close();
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Source of the connections used to create and load the tables, e.g. {@code DataSource::getConnection}.
+     */
+    @FunctionalInterface
+    public interface ConnectionFactory {
+
+        Connection getConnection() throws SQLException;
+    }
+
+    /**
+     * Encoder of the clear text passwords of the identities to the values to store in the users table.
+     */
+    @FunctionalInterface
+    public interface PasswordEncoder {
+
+        EncodedPassword encode(String password);
+    }
+
+    /**
+     * An encoded password, the values are stored as is so must already be encoded as the realm expects, e.g. base64.
+     *
+     * @param hash the encoded password hash.
+     * @param salt the encoded salt or {@code null} if the algorithm is not salted.
+     * @param iterationCount the iteration count or {@code 0} if the algorithm is not iterated.
+     */
+    public record EncodedPassword(String hash, String salt, int iterationCount) {}
+
+    public static class Builder {
+
+        private ConnectionFactory connectionFactory;
+        private String usersTable = DEFAULT_USERS_TABLE;
+        private String roles;
+        private String rolesTable;
+        private String attributesTable;
+        private int batchSize = 1000;
+        private int connections = 1;
+        private PasswordEncoder passwordEncoder;
+
+        Builder() {
+        }
+
+        public Builder setConnectionFactory(final ConnectionFactory connectionFactory) {
+            this.connectionFactory = connectionFactory;
+
+            return this;
+        }
+
+        public Builder setUsersTable(final String usersTable) {
+            this.usersTable = usersTable;
+
+            return this;
+        }
+
+        /**
+         * Set the value of the {@code roles} column of the users table, if not set the column is not created.
+         */
+        public Builder setRoles(final String roles) {
+            this.roles = roles;
+
+            return this;
+        }
+
+        /**
+         * Set the name of the table to load the groups of each identity into, if not set groups are not loaded.
+         */
+        public Builder setRolesTable(final String rolesTable) {
+            this.rolesTable = rolesTable;
+
+            return this;
+        }
+
+        /**
+         * Set the name of the table to load the attributes of each identity into, if not set attributes are not loaded.
+         */
+        public Builder setAttributesTable(final String attributesTable) {
+            this.attributesTable = attributesTable;
+
+            return this;
+        }
+
+        public Builder setBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+
+            return this;
+        }
+
+        /**
+         * Set the number of connections to load the identities across concurrently.
+         */
+        public Builder setConnections(final int connections) {
+            this.connections = connections;
+
+            return this;
+        }
+
+        /**
+         * Set the {@code PasswordEncoder} to store hashed passwords, if not set passwords are stored in the clear.
+         */
+        public Builder setPasswordEncoder(final PasswordEncoder passwordEncoder) {
+            this.passwordEncoder = passwordEncoder;
+
+            return this;
+        }
+
+        public JdbcIdentityLoader build() {
+            if (connectionFactory == null) {
+                throw new IllegalStateException("A connection factory must be set.");
+            }
+            if (usersTable == null) {
+                throw new IllegalStateException("A users table must be set.");
+            }
+            if (batchSize < 1 || connections < 1) {
+                throw new IllegalStateException("The batch size and number of connections must be at least 1.");
+            }
+
+            return new JdbcIdentityLoader(this);
+        }
+    }
+}
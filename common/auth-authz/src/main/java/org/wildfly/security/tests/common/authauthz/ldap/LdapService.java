@@ -10,24 +10,42 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import org.apache.directory.api.ldap.model.entry.DefaultEntry;
+import org.apache.directory.api.ldap.model.entry.Entry;
 import org.apache.directory.api.ldap.model.exception.LdapException;
 import org.apache.directory.api.ldap.model.ldif.LdifEntry;
 import org.apache.directory.api.ldap.model.ldif.LdifReader;
+import org.apache.directory.api.ldap.model.name.Dn;
+import org.apache.directory.api.ldap.model.name.Rdn;
 import org.apache.directory.api.ldap.model.schema.SchemaManager;
 import org.apache.directory.server.core.api.CoreSession;
 import org.apache.directory.server.core.api.DirectoryService;
+import org.apache.directory.server.core.api.entry.ClonedServerEntry;
+import org.apache.directory.server.core.api.interceptor.context.AddOperationContext;
 import org.apache.directory.server.core.api.partition.Partition;
+import org.apache.directory.server.core.api.partition.PartitionTxn;
+import org.apache.directory.server.core.factory.AvlPartitionFactory;
 import org.apache.directory.server.core.factory.DefaultDirectoryServiceFactory;
 import org.apache.directory.server.core.factory.DirectoryServiceFactory;
 import org.apache.directory.server.core.factory.PartitionFactory;
 import org.apache.directory.server.ldap.LdapServer;
 import org.apache.directory.server.protocol.shared.transport.TcpTransport;
 import org.apache.directory.server.protocol.shared.transport.Transport;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
 
 /**
  * Wrapper around ApacheDS.
@@ -36,6 +54,11 @@ import org.apache.directory.server.protocol.shared.transport.Transport;
  */
 public class LdapService implements Closeable {
 
+    private static final int BULK_IMPORT_BATCH_SIZE = 10_000;
+    private static final int BULK_IMPORT_PROGRESS_INTERVAL = 100_000;
+    private static final DateTimeFormatter GENERALIZED_TIME = DateTimeFormatter.ofPattern("yyyyMMddHHmmss.SSS'Z'")
+            .withZone(ZoneOffset.UTC);
+
     private final DirectoryService directoryService;
     private final Collection<LdapServer> servers;
 
@@ -63,6 +86,7 @@ public class LdapService implements Closeable {
     public static class Builder {
 
         private boolean started = false;
+        private boolean inMemory = false;
         private File workingDir = null;
         private DirectoryServiceFactory directoryServiceFactory;
         private DirectoryService directoryService;
@@ -87,6 +111,26 @@ public class LdapService implements Closeable {
             return this;
         }
 
+        /**
+         * Set if the partitions should be held in memory instead of being persisted to the working dir.
+         *
+         * In memory partitions are considerably faster to populate so should be used for large directories
+         * where the contents do not need to survive the directory service being shut down.
+         *
+         * @param inMemory - {@code true} to use in memory partitions.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setInMemory(final boolean inMemory) {
+            assertNotStarted();
+            if (directoryService != null) {
+                throw new IllegalStateException("Directory service already created.");
+            }
+
+            this.inMemory = inMemory;
+
+            return this;
+        }
+
         /**
          * Create the core directory service.
          *
@@ -101,6 +145,11 @@ public class LdapService implements Closeable {
             initWorkingDir();
 
             directoryServiceFactory = new DefaultDirectoryServiceFactory();
+            if (inMemory) {
+                // Reuse the DirectoryService already configured by the default factory.
+                directoryServiceFactory = new DefaultDirectoryServiceFactory(directoryServiceFactory.getDirectoryService(),
+                        new AvlPartitionFactory());
+            }
             directoryServiceFactory.init(name);
 
             DirectoryService directoryService = directoryServiceFactory.getDirectoryService();
@@ -175,6 +224,90 @@ public class LdapService implements Closeable {
             return this.importLdif(LdapService.class.getResourceAsStream(ldifName));
         }
 
+        /**
+         * Import an entry for each of the identities directly into the partition containing the parent DN.
+         *
+         * Unlike {@link #importLdif(InputStream)} the entries are not passed through the interceptor chain of
+         * the directory service, instead the entries are generated as the stream is consumed including the
+         * operational attributes the interceptors would have added and written straight to the partition in
+         * batches, the partition indexes are maintained as the entries are written. This allows directories
+         * containing millions of entries to be created in minutes.
+         *
+         * Each identity is added as an {@code inetOrgPerson} entry using {@code uid} as the RDN.
+         *
+         * @param parentDn - The DN of the existing entry to add the identities under.
+         * @param identities - The identities to add.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder importIdentities(final String parentDn, final Stream<IdentityDefinition> identities) throws Exception {
+            return importIdentities(parentDn, identities, Collections.emptyMap());
+        }
+
+        /**
+         * Import an entry for each of the identities directly into the partition containing the parent DN.
+         *
+         * @param parentDn - The DN of the existing entry to add the identities under.
+         * @param identities - The identities to add.
+         * @param commonAttributes - Additional attributes to add to every entry.
+         * @return This Builder for subsequent changes.
+         * @see #importIdentities(String, Stream)
+         */
+        public Builder importIdentities(final String parentDn, final Stream<IdentityDefinition> identities,
+                final Map<String, String> commonAttributes) throws Exception {
+            assertNotStarted();
+            if (directoryService == null) {
+                throw new IllegalStateException("The Directory service has not been created.");
+            }
+            SchemaManager schemaManager = directoryService.getSchemaManager();
+            CoreSession adminSession = directoryService.getAdminSession();
+            Dn parent = new Dn(schemaManager, parentDn);
+            Partition partition = directoryService.getPartitionNexus().getPartition(parent);
+            String creatorsName = adminSession.getAuthenticatedPrincipal().getDn().getName();
+
+            final long start = System.nanoTime();
+            long count = 0;
+            Iterator<IdentityDefinition> iterator = identities.iterator();
+            while (iterator.hasNext()) {
+                String createTimestamp = GENERALIZED_TIME.format(Instant.now());
+                try (PartitionTxn transaction = partition.beginWriteTransaction()) {
+                    for (int i = 0; i < BULK_IMPORT_BATCH_SIZE && iterator.hasNext(); i++) {
+                        IdentityDefinition identity = iterator.next();
+                        Entry entry = new DefaultEntry(schemaManager, parent.add(new Rdn(schemaManager, "uid", identity.username())));
+                        entry.add("objectClass", "top", "person", "organizationalPerson", "inetOrgPerson");
+                        entry.add("uid", identity.username());
+                        entry.add("cn", identity.username());
+                        entry.add("sn", identity.username());
+                        entry.add("userPassword", identity.password().getBytes(StandardCharsets.UTF_8));
+                        for (Map.Entry<String, String> commonAttribute : commonAttributes.entrySet()) {
+                            entry.add(commonAttribute.getKey(), commonAttribute.getValue());
+                        }
+                        // Operational attributes normally added by the interceptors.
+                        entry.add("entryUUID", UUID.nameUUIDFromBytes(entry.getDn().getNormName().getBytes(StandardCharsets.UTF_8)).toString());
+                        entry.add("entryCSN", directoryService.getCSN().toString());
+                        entry.add("creatorsName", creatorsName);
+                        entry.add("createTimestamp", createTimestamp);
+
+                        AddOperationContext addContext = new AddOperationContext(adminSession, new ClonedServerEntry(entry));
+                        addContext.setPartition(partition);
+                        addContext.setTransaction(transaction);
+                        partition.add(addContext);
+                        count++;
+                    }
+                    transaction.commit();
+                }
+                if (count % BULK_IMPORT_PROGRESS_INTERVAL == 0) {
+                    System.out.printf("LdapService - Imported %d entries\n", count);
+                }
+            }
+            partition.sync();
+
+            final long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+            System.out.printf("LdapService - Imported %d entries in %d ms (%.0f entries/s)\n", count, elapsedMillis,
+                    count * 1000d / elapsedMillis);
+
+            return this;
+        }
+
         /**
          * Adds a TCP server to the directory service. SSL/TLS is not enabled.
          *
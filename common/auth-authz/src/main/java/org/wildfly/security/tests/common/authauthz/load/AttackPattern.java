@@ -0,0 +1,30 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.load;
+
+/**
+ * The patterns of attack traffic which can be generated by the {@link AttackSimulator}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public enum AttackPattern {
+
+    /**
+     * Many usernames each tried with the same password, e.g. a commonly used password sprayed across
+     * a list of known usernames.
+     */
+    PASSWORD_SPRAY,
+    /**
+     * A single username tried with many different passwords.
+     */
+    BRUTE_FORCE,
+    /**
+     * Attempts distributed across many usernames with a delay between each attempt so no single username
+     * sees many failures in a short period of time.
+     */
+    LOW_AND_SLOW;
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.load;
+
+import java.io.PrintStream;
+import java.util.Collections;
+import java.util.Map;
+
+import org.wildfly.security.tests.common.authauthz.metrics.LatencyHistogram;
+
+/**
+ * The result of an {@link AttackSimulator} run, the {@link LoadReport} of the legitimate users on their own and
+ * under attack along with the accuracy of the lockouts for each {@link AttackPattern}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class AttackReport {
+
+    private final LoadReport baseline;
+    private final LoadReport underAttack;
+    private final Map<AttackPattern, LockoutResult> lockoutResults;
+
+    AttackReport(final LoadReport baseline, final LoadReport underAttack, final Map<AttackPattern, LockoutResult> lockoutResults) {
+        this.baseline = baseline;
+        this.underAttack = underAttack;
+        this.lockoutResults = lockoutResults;
+    }
+
+    public LoadReport getBaseline() {
+        return baseline;
+    }
+
+    /**
+     * Get the report of the attack phase, the first {@link LoadStatistics} are for the legitimate users followed by
+     * the statistics for each {@link AttackPattern}.
+     */
+    public LoadReport getUnderAttack() {
+        return underAttack;
+    }
+
+    public Map<AttackPattern, LockoutResult> getLockoutResults() {
+        return Collections.unmodifiableMap(lockoutResults);
+    }
+
+    public LoadStatistics getLegitimateBaseline() {
+        return baseline.getStatistics().get(0);
+    }
+
+    public LoadStatistics getLegitimateUnderAttack() {
+        return underAttack.getStatistics().get(0);
+    }
+
+    /**
+     * Get the number of identities where the outcome of the lockout verification was not the expected outcome.
+     */
+    public int getTotalMismatched() {
+        return lockoutResults.values().stream().mapToInt(LockoutResult::mismatched).sum();
+    }
+
+    /**
+     * Print the reports followed by a comparison of the legitimate users and the lockout accuracy.
+     *
+     * @param out the {@code PrintStream} to print the report to.
+     */
+    public void print(final PrintStream out) {
+        baseline.print(out);
+        underAttack.print(out);
+
+        final LoadStatistics before = getLegitimateBaseline();
+        final LoadStatistics during = getLegitimateUnderAttack();
+        out.printf("Legitimate users - success rate %.2f%% -> %.2f%%, ops/s %.1f -> %.1f, p50 %.3f ms -> %.3f ms, p99 %.3f ms -> %.3f ms%n",
+                successRate(before), successRate(during),
+                before.getThroughput(baseline.getElapsedNanos()), during.getThroughput(underAttack.getElapsedNanos()),
+                toMillis(before.getLatency(), 50), toMillis(during.getLatency(), 50),
+                toMillis(before.getLatency(), 99), toMillis(during.getLatency(), 99));
+        lockoutResults.forEach((pattern, result) -> out.printf(
+                "Lockout accuracy - %-14s %d targets, %d expected locked out, %d mismatched, %.2f%% accurate%n",
+                pattern, result.targets(), result.expectedLocked(), result.mismatched(), result.accuracy()));
+    }
+
+    /**
+     * Get the percentage of authentications which completed successfully.
+     */
+    public static double successRate(final LoadStatistics statistics) {
+        final long total = statistics.getCompleted() + statistics.getErrors();
+
+        return total == 0 ? 0 : statistics.getCompleted() * 100d / total;
+    }
+
+    private static double toMillis(final LatencyHistogram latency, final double percentile) {
+        return latency.getValueAtPercentile(percentile) / 1_000_000d;
+    }
+
+    /**
+     * The outcome of the lockout verification for the identities targeted by a single {@link AttackPattern}.
+     *
+     * @param targets the number of identities targeted.
+     * @param expectedLocked the number of identities which received enough failed attempts to be locked out.
+     * @param mismatched the number of identities where the lockout state was not as expected.
+     */
+    public record LockoutResult(int targets, int expectedLocked, int mismatched) {
+
+        public double accuracy() {
+            return targets == 0 ? 100 : (targets - mismatched) * 100d / targets;
+        }
+    }
+}
@@ -0,0 +1,406 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.load;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * A generator of attack traffic mixed with legitimate authentication, used to verify that brute force protection
+ * stops the attacks without degrading the experience of legitimate users.
+ *
+ * The identities are partitioned so the legitimate users are never the target of an attack, the remaining
+ * identities are shared between the enabled {@link AttackPattern}s. The simulation runs in three phases:
+ *
+ * <ol>
+ *   <li>Baseline - the legitimate users authenticate on their own.</li>
+ *   <li>Attack - the legitimate users authenticate whilst the attackers run concurrently.</li>
+ *   <li>Lockout verification - each attacked identity authenticates with its correct password, identities which
+ *       received at least the maximum number of failed attempts are expected to be locked out and all other
+ *       identities are expected to authenticate successfully.</li>
+ * </ol>
+ *
+ * The transport is provided as a {@link AuthenticationAttempt}, a new instance is obtained for each thread so
+ * any client state such as connections or cookies is not shared between users.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class AttackSimulator {
+
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final Supplier<AuthenticationAttempt> authenticationAttempts;
+    private final String description;
+    private final List<Identity> identities;
+    private final int legitimateUsers;
+    private final int attackers;
+    private final Set<AttackPattern> patterns;
+    private final Duration duration;
+    private final Duration lowAndSlowDelay;
+    private final int maxFailedAttempts;
+    private final AtomicInteger reportedErrors = new AtomicInteger();
+
+    AttackSimulator(final Builder builder) {
+        this.authenticationAttempts = builder.authenticationAttempts;
+        this.description = builder.description;
+        this.identities = builder.identities;
+        this.legitimateUsers = builder.legitimateUsers;
+        this.attackers = builder.attackers;
+        this.patterns = builder.patterns;
+        this.duration = builder.duration;
+        this.lowAndSlowDelay = builder.lowAndSlowDelay;
+        this.maxFailedAttempts = builder.maxFailedAttempts;
+    }
+
+    /**
+     * Run all phases of the simulation, blocking until they have completed.
+     *
+     * @return the {@code AttackReport} of the simulation.
+     * @throws InterruptedException if interrupted waiting for the users or attackers to complete.
+     */
+    public AttackReport run() throws InterruptedException {
+        final List<Identity> legitimate = identities.subList(0, legitimateUsers);
+        final Map<AttackPattern, List<Identity>> targets = assignTargets();
+        final Map<String, AtomicInteger> failures = new ConcurrentHashMap<>();
+
+        System.out.printf("AttackSimulator - Starting %d legitimate users for %s as a baseline\n", legitimateUsers, duration);
+        final LoadStatistics baseline = new LoadStatistics("legitimate-baseline");
+        final long baselineElapsed = runPhase(legitimate, baseline, Map.of(), Map.of(), failures);
+
+        System.out.printf("AttackSimulator - Starting %d legitimate users and %d attackers for each of %s for %s\n",
+                legitimateUsers, attackers, patterns, duration);
+        final LoadStatistics underAttack = new LoadStatistics("legitimate-under-attack");
+        final Map<AttackPattern, LoadStatistics> attackStatistics = new EnumMap<>(AttackPattern.class);
+        patterns.forEach(p -> attackStatistics.put(p, new LoadStatistics(p.name())));
+        final long attackElapsed = runPhase(legitimate, underAttack, targets, attackStatistics, failures);
+
+        final Map<AttackPattern, AttackReport.LockoutResult> lockoutResults = new EnumMap<>(AttackPattern.class);
+        final AuthenticationAttempt verification = authenticationAttempts.get();
+        targets.forEach((pattern, patternTargets) -> {
+            int expectedLocked = 0;
+            int mismatched = 0;
+            for (Identity target : patternTargets) {
+                AtomicInteger targetFailures = failures.get(target.username());
+                boolean expectLocked = targetFailures != null && targetFailures.get() >= maxFailedAttempts;
+                if (expectLocked) {
+                    expectedLocked++;
+                }
+                try {
+                    verification.attempt(target.username(), target.password(), !expectLocked);
+                } catch (Exception | AssertionError e) {
+                    mismatched++;
+                    reportError("lockout verification", target, e);
+                }
+            }
+            lockoutResults.put(pattern, new AttackReport.LockoutResult(patternTargets.size(), expectedLocked, mismatched));
+        });
+
+        List<LoadStatistics> attackPhase = new ArrayList<>();
+        attackPhase.add(underAttack);
+        attackPhase.addAll(attackStatistics.values());
+
+        return new AttackReport(
+                new LoadReport(String.format("%s baseline, %d legitimate users", description, legitimateUsers),
+                        baselineElapsed, List.of(baseline)),
+                new LoadReport(String.format("%s under attack, %d legitimate users, %d attackers per pattern",
+                        description, legitimateUsers, attackers), attackElapsed, attackPhase),
+                lockoutResults);
+    }
+
+    /**
+     * The legitimate users are reserved first, {@link AttackPattern#BRUTE_FORCE} only needs a single identity and the
+     * remaining identities are split evenly between the other patterns.
+     */
+    private Map<AttackPattern, List<Identity>> assignTargets() {
+        final Map<AttackPattern, List<Identity>> targets = new EnumMap<>(AttackPattern.class);
+        int next = legitimateUsers;
+        if (patterns.contains(AttackPattern.BRUTE_FORCE)) {
+            targets.put(AttackPattern.BRUTE_FORCE, identities.subList(next, ++next));
+        }
+
+        final List<AttackPattern> distributed = patterns.stream().filter(p -> p != AttackPattern.BRUTE_FORCE).toList();
+        final int perPattern = distributed.isEmpty() ? 0 : (identities.size() - next) / distributed.size();
+        for (AttackPattern current : distributed) {
+            targets.put(current, identities.subList(next, next + perPattern));
+            next += perPattern;
+        }
+
+        return targets;
+    }
+
+    private long runPhase(final List<Identity> legitimate, final LoadStatistics legitimateStatistics,
+            final Map<AttackPattern, List<Identity>> targets, final Map<AttackPattern, LoadStatistics> attackStatistics,
+            final Map<String, AtomicInteger> failures) throws InterruptedException {
+        final int attackerThreads = targets.size() * attackers;
+        final ExecutorService executorService = Executors.newFixedThreadPool(legitimate.size() + attackerThreads);
+        try {
+            final long start = System.nanoTime();
+            final long end = start + duration.toNanos();
+
+            List<Future<?>> futures = new ArrayList<>(legitimate.size() + attackerThreads);
+            for (Identity current : legitimate) {
+                futures.add(executorService.submit(() -> runLegitimateUser(current, legitimateStatistics, end)));
+            }
+            targets.forEach((pattern, patternTargets) -> {
+                for (int i = 0; i < attackers; i++) {
+                    final int attacker = i;
+                    futures.add(executorService.submit(() -> runAttacker(pattern, attacker, patternTargets,
+                            attackStatistics.get(pattern), failures, end)));
+                }
+            });
+
+            for (Future<?> current : futures) {
+                try {
+                    current.get();
+                } catch (ExecutionException e) {
+                    throw new IllegalStateException("Simulated user failed unexpectedly", e.getCause());
+                }
+            }
+
+            return System.nanoTime() - start;
+        } finally {
+            executorService.shutdownNow();
+        }
+    }
+
+    private void runLegitimateUser(final Identity identity, final LoadStatistics statistics, final long end) {
+        final AuthenticationAttempt authenticationAttempt = authenticationAttempts.get();
+        long start;
+        while ((start = System.nanoTime()) < end) {
+            try {
+                authenticationAttempt.attempt(identity.username(), identity.password(), true);
+                statistics.recordCompleted(start);
+            } catch (Exception | AssertionError e) {
+                statistics.recordError();
+                reportError("legitimate user", identity, e);
+            }
+        }
+    }
+
+    /**
+     * Run a single attacker, where a pattern has more than one attacker the targets are divided between them
+     * except for {@link AttackPattern#BRUTE_FORCE} where all attackers target the same identity.
+     */
+    private void runAttacker(final AttackPattern pattern, final int attacker, final List<Identity> targets,
+            final LoadStatistics statistics, final Map<String, AtomicInteger> failures, final long end) {
+        final AuthenticationAttempt authenticationAttempt = authenticationAttempts.get();
+        final List<Identity> attackerTargets = new ArrayList<>();
+        for (int i = pattern == AttackPattern.BRUTE_FORCE ? 0 : attacker; i < targets.size();
+                i += pattern == AttackPattern.BRUTE_FORCE ? 1 : attackers) {
+            attackerTargets.add(targets.get(i));
+        }
+        if (attackerTargets.isEmpty()) {
+            return;
+        }
+
+        int round = 0;
+        long start;
+        while (System.nanoTime() < end) {
+            for (int i = 0; i < attackerTargets.size() && (start = System.nanoTime()) < end; i++) {
+                final Identity target = attackerTargets.get(i);
+                final String password = switch (pattern) {
+                    // One password per round sprayed across every target.
+                    case PASSWORD_SPRAY -> String.format("Spray%d!", round);
+                    default -> String.format("guess-%d-%d-%d", attacker, round, i);
+                };
+                try {
+                    authenticationAttempt.attempt(target.username(), password, false);
+                    statistics.recordCompleted(start);
+                    failures.computeIfAbsent(target.username(), k -> new AtomicInteger()).incrementAndGet();
+                } catch (Exception | AssertionError e) {
+                    statistics.recordError();
+                    reportError(pattern.name(), target, e);
+                }
+
+                if (pattern == AttackPattern.LOW_AND_SLOW) {
+                    final long remaining = end - System.nanoTime();
+                    if (remaining > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(Math.min(remaining, lowAndSlowDelay.toNanos()));
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                    }
+                }
+            }
+            round++;
+        }
+    }
+
+    private void reportError(final String source, final Identity identity, final Throwable e) {
+        if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+            System.out.printf("AttackSimulator - %s error for '%s': %s\n", source, identity.username(), e);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * A single authentication attempt over the transport under test.
+     */
+    @FunctionalInterface
+    public interface AuthenticationAttempt {
+
+        /**
+         * Attempt to authenticate, if the outcome is not the expected outcome an {@code Exception} or
+         * {@code AssertionError} is thrown.
+         *
+         * @param username the username to authenticate as.
+         * @param password the password to authenticate with.
+         * @param expectSuccess {@code true} if the authentication is expected to succeed.
+         */
+        void attempt(String username, String password, boolean expectSuccess) throws Exception;
+    }
+
+    record Identity(String username, String password) {}
+
+    public static class Builder {
+
+        private Supplier<AuthenticationAttempt> authenticationAttempts;
+        private String description = "Attack";
+        private final List<Identity> identities = new ArrayList<>();
+        private int legitimateUsers = 10;
+        private int attackers = 2;
+        private Set<AttackPattern> patterns = EnumSet.allOf(AttackPattern.class);
+        private Duration duration = Duration.ofSeconds(20);
+        private Duration lowAndSlowDelay = Duration.ofSeconds(1);
+        private int maxFailedAttempts;
+
+        Builder() {
+        }
+
+        /**
+         * Set the {@code Supplier} of the {@code AuthenticationAttempt} for each simulated user.
+         *
+         * @param authenticationAttempts the {@code Supplier} called once for each thread.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setAuthenticationAttempts(final Supplier<AuthenticationAttempt> authenticationAttempts) {
+            this.authenticationAttempts = authenticationAttempts;
+
+            return this;
+        }
+
+        public Builder setDescription(final String description) {
+            this.description = description;
+
+            return this;
+        }
+
+        /**
+         * Add an identity, the first identities added are used as the legitimate users and the remainder are
+         * the targets of the attacks.
+         *
+         * @param username the username of the identity.
+         * @param password the password of the identity.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder addIdentity(final String username, final String password) {
+            identities.add(new Identity(username, password));
+
+            return this;
+        }
+
+        public Builder setLegitimateUsers(final int legitimateUsers) {
+            this.legitimateUsers = legitimateUsers;
+
+            return this;
+        }
+
+        /**
+         * Set the number of attackers for each enabled pattern.
+         *
+         * @param attackers the number of attackers for each pattern.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setAttackers(final int attackers) {
+            this.attackers = attackers;
+
+            return this;
+        }
+
+        public Builder setPatterns(final Set<AttackPattern> patterns) {
+            this.patterns = patterns.isEmpty() ? EnumSet.noneOf(AttackPattern.class) : EnumSet.copyOf(patterns);
+
+            return this;
+        }
+
+        /**
+         * Set the duration of both the baseline phase and the attack phase.
+         *
+         * @param duration the duration of each phase.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setDuration(final Duration duration) {
+            this.duration = duration;
+
+            return this;
+        }
+
+        /**
+         * Set the delay between each attempt of a {@link AttackPattern#LOW_AND_SLOW} attacker.
+         *
+         * @param lowAndSlowDelay the delay between attempts.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setLowAndSlowDelay(final Duration lowAndSlowDelay) {
+            this.lowAndSlowDelay = lowAndSlowDelay;
+
+            return this;
+        }
+
+        /**
+         * Set the maximum number of failed attempts the brute force protection under test allows before
+         * locking out an identity, this is required as it must match the configuration under test.
+         *
+         * @param maxFailedAttempts the maximum number of failed attempts.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setMaxFailedAttempts(final int maxFailedAttempts) {
+            this.maxFailedAttempts = maxFailedAttempts;
+
+            return this;
+        }
+
+        public AttackSimulator build() {
+            if (authenticationAttempts == null) {
+                throw new IllegalStateException("A supplier of authentication attempts is required.");
+            }
+            if (maxFailedAttempts < 1) {
+                throw new IllegalStateException("The maximum failed attempts of the brute force protection is required.");
+            }
+            if (patterns.isEmpty()) {
+                throw new IllegalStateException("At least one attack pattern is required.");
+            }
+            if (legitimateUsers < 1 || attackers < 1) {
+                throw new IllegalStateException("At least one legitimate user and one attacker are required.");
+            }
+            if (identities.size() < legitimateUsers + patterns.size()) {
+                throw new IllegalStateException(String.format(
+                        "At least %d identities are required for %d legitimate users and %d attack patterns.",
+                        legitimateUsers + patterns.size(), legitimateUsers, patterns.size()));
+            }
+
+            return new AttackSimulator(this);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.load;
+
+import java.io.PrintStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+import org.wildfly.security.tests.common.authauthz.metrics.LatencyHistogram;
+
+/**
+ * The result of a load run, the {@link LoadStatistics} for each category of operation and the time they were
+ * recorded over.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class LoadReport {
+
+    private static final String HEADER_FORMAT = "%-28s %10s %8s %12s %10s %10s %10s %10s %10s%n";
+    private static final String ROW_FORMAT = "%-28s %10d %8d %12.1f %10.3f %10.3f %10.3f %10.3f %10.3f%n";
+
+    private final String description;
+    private final long elapsedNanos;
+    private final List<LoadStatistics> statistics;
+
+    public LoadReport(final String description, final long elapsedNanos, final Collection<LoadStatistics> statistics) {
+        this.description = description;
+        this.elapsedNanos = elapsedNanos;
+        this.statistics = List.copyOf(statistics);
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public long getElapsedNanos() {
+        return elapsedNanos;
+    }
+
+    public List<LoadStatistics> getStatistics() {
+        return Collections.unmodifiableList(statistics);
+    }
+
+    public long getTotalErrors() {
+        return statistics.stream().mapToLong(LoadStatistics::getErrors).sum();
+    }
+
+    public long getTotalCompleted() {
+        return statistics.stream().mapToLong(LoadStatistics::getCompleted).sum();
+    }
+
+    /**
+     * Print the report as a table, latencies are reported in milliseconds.
+     *
+     * @param out the {@code PrintStream} to print the report to.
+     */
+    public void print(final PrintStream out) {
+        out.printf("Load Report - %s (%.1f seconds)%n", description, elapsedNanos / 1_000_000_000d);
+        out.printf(HEADER_FORMAT, "Name", "Completed", "Errors", "Ops/s", "Mean ms", "p50 ms", "p90 ms", "p99 ms", "Max ms");
+        for (LoadStatistics current : statistics) {
+            LatencyHistogram latency = current.getLatency();
+            out.printf(ROW_FORMAT, current.getName(), current.getCompleted(), current.getErrors(),
+                    current.getThroughput(elapsedNanos), toMillis(latency.getMean()),
+                    toMillis(latency.getValueAtPercentile(50)), toMillis(latency.getValueAtPercentile(90)),
+                    toMillis(latency.getValueAtPercentile(99)), toMillis(latency.getMaxValue()));
+        }
+    }
+
+    private static double toMillis(final double nanos) {
+        return nanos / 1_000_000d;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.load;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.wildfly.security.tests.common.authauthz.metrics.LatencyHistogram;
+
+/**
+ * The statistics captured for a single category of operation, e.g. a single authentication mechanism,
+ * during a load run.
+ *
+ * An operation either completes with the expected outcome, which could be an expected authentication
+ * failure, or it is counted as an error.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class LoadStatistics {
+
+    private final String name;
+    private final LatencyHistogram latency = new LatencyHistogram();
+    private final AtomicLong errors = new AtomicLong();
+
+    public LoadStatistics(final String name) {
+        this.name = name;
+    }
+
+    /**
+     * Record an operation that completed with the expected outcome.
+     *
+     * @param startNanos the start time of the operation as obtained from {@link System#nanoTime()}.
+     */
+    public void recordCompleted(final long startNanos) {
+        latency.recordSince(startNanos);
+    }
+
+    /**
+     * Record an operation that failed or completed with an unexpected outcome.
+     */
+    public void recordError() {
+        errors.incrementAndGet();
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    public long getCompleted() {
+        return latency.getTotalCount();
+    }
+
+    public long getErrors() {
+        return errors.get();
+    }
+
+    /**
+     * Get the throughput of completed operations.
+     *
+     * @param elapsedNanos the time in nanoseconds the operations were recorded over.
+     * @return the throughput in operations per second.
+     */
+    public double getThroughput(final long elapsedNanos) {
+        return elapsedNanos <= 0 ? 0 : getCompleted() / (elapsedNanos / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Reset the statistics, used to discard any operations recorded during a warm up.
+     */
+    public void reset() {
+        latency.reset();
+        errors.set(0);
+    }
+
+}
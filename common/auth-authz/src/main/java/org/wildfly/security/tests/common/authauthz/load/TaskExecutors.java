@@ -0,0 +1,64 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.load;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Utility for obtaining an {@code ExecutorService} which starts a new thread for each task submitted.
+ *
+ * The project is compiled for Java 17 so virtual threads can not be referenced directly, where the JVM
+ * running the tests supports virtual threads they are used otherwise a cached pool of platform threads
+ * is used instead.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class TaskExecutors {
+
+    private static final MethodHandle NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR = findVirtualThreadPerTaskExecutor();
+
+    private TaskExecutors() {
+    }
+
+    /**
+     * Create a new {@code ExecutorService} which runs each task on its own thread.
+     *
+     * @return a new {@code ExecutorService} using virtual threads where available.
+     */
+    public static ExecutorService newThreadPerTaskExecutor() {
+        if (NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null) {
+            try {
+                return (ExecutorService) NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR.invokeExact();
+            } catch (Throwable e) {
+                throw new IllegalStateException("Unable to create virtual thread executor", e);
+            }
+        }
+
+        return Executors.newCachedThreadPool();
+    }
+
+    /**
+     * Identify if {@link #newThreadPerTaskExecutor()} will use virtual threads.
+     *
+     * @return {@code true} if virtual threads are available.
+     */
+    public static boolean isVirtualThreadsAvailable() {
+        return NEW_VIRTUAL_THREAD_PER_TASK_EXECUTOR != null;
+    }
+
+    private static MethodHandle findVirtualThreadPerTaskExecutor() {
+        try {
+            return MethodHandles.publicLookup().findStatic(Executors.class, "newVirtualThreadPerTaskExecutor",
+                    MethodType.methodType(ExecutorService.class));
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            return null;
+        }
+    }
+}
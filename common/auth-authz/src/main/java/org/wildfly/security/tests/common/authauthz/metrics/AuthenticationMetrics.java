@@ -0,0 +1,161 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.metrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.wildfly.security.tests.common.authauthz.TransportType;
+
+/**
+ * Registry of the {@link LatencyHistogram} instances recorded for each phase of authentication.
+ *
+ * The suites begin recording when a realm is registered and end recording when the realm is
+ * unregistered, at the end of recording the percentiles for each mechanism and phase are
+ * written to a CSV file for the realm so the functional test runs also provide a latency baseline.
+ *
+ * Once the histogram for a mechanism has been created recording does not allocate.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class AuthenticationMetrics {
+
+    private static final String OUTPUT_DIRECTORY = "AuthenticationMetrics.Directory";
+    private static final String FILE_NAME_PATTERN = "authentication-latency-%s.csv";
+    private static final String HEADER = "realm,transport,mechanism,phase,count,min_us,mean_us,p50_us,p90_us,p99_us,p999_us,max_us";
+    private static final int PHASE_COUNT = AuthenticationPhase.values().length;
+
+    private static final AuthenticationMetrics INSTANCE = new AuthenticationMetrics();
+
+    private final Path outputDirectory;
+    private volatile RealmMetrics current;
+
+    private AuthenticationMetrics() {
+        outputDirectory = Paths.get(System.getProperty(OUTPUT_DIRECTORY, "metrics"));
+    }
+
+    public static AuthenticationMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Begin recording metrics for the specified realm, any metrics recorded for a previous realm which
+     * have not been ended are discarded.
+     *
+     * @param realmType the type of the realm under test.
+     */
+    public void begin(final String realmType) {
+        current = new RealmMetrics(realmType);
+    }
+
+    /**
+     * Record the latency of a single authentication phase from the specified start time until now.
+     *
+     * If no realm is currently being recorded this method does nothing.
+     *
+     * @param mechanism the name of the authentication mechanism.
+     * @param phase the phase of authentication.
+     * @param startNanos the start time of the phase as obtained from {@link System#nanoTime()}.
+     */
+    public void record(final String mechanism, final AuthenticationPhase phase, final long startNanos) {
+        final long latency = System.nanoTime() - startNanos;
+        final RealmMetrics realmMetrics = current;
+        if (realmMetrics != null) {
+            realmMetrics.histogram(mechanism, phase).record(latency);
+        }
+    }
+
+    /**
+     * End recording for the current realm and write the recorded percentiles to the output directory.
+     *
+     * @return the {@code Path} of the file written or {@code null} if nothing was recorded.
+     */
+    public Path end() {
+        final RealmMetrics realmMetrics = current;
+        current = null;
+        if (realmMetrics == null || realmMetrics.isEmpty()) {
+            return null;
+        }
+
+        final Path outputFile = outputDirectory.resolve(String.format(FILE_NAME_PATTERN, realmMetrics.realmType));
+        try {
+            Files.createDirectories(outputDirectory);
+            try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(outputFile, StandardCharsets.UTF_8))) {
+                realmMetrics.write(out);
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Unable to write authentication metrics", e);
+        }
+
+        System.out.printf("AuthenticationMetrics - Written '%s'\n", outputFile.toAbsolutePath());
+        return outputFile;
+    }
+
+    private static final class RealmMetrics {
+
+        private final String realmType;
+        private final Map<TransportType, Map<String, LatencyHistogram[]>> histograms = new EnumMap<>(TransportType.class);
+
+        RealmMetrics(final String realmType) {
+            this.realmType = realmType;
+            for (TransportType transportType : TransportType.values()) {
+                histograms.put(transportType, new ConcurrentHashMap<>());
+            }
+        }
+
+        LatencyHistogram histogram(final String mechanism, final AuthenticationPhase phase) {
+            final LatencyHistogram[] mechanismHistograms = histograms.get(phase.getTransportType())
+                    .computeIfAbsent(mechanism, RealmMetrics::createHistograms);
+
+            return mechanismHistograms[phase.ordinal()];
+        }
+
+        boolean isEmpty() {
+            return histograms.values().stream().allMatch(Map::isEmpty);
+        }
+
+        void write(final PrintWriter out) {
+            out.println(HEADER);
+            for (Map.Entry<TransportType, Map<String, LatencyHistogram[]>> transportEntry : histograms.entrySet()) {
+                // Sort by mechanism so the output is stable between runs.
+                for (Map.Entry<String, LatencyHistogram[]> mechanismEntry : new TreeMap<>(transportEntry.getValue()).entrySet()) {
+                    for (AuthenticationPhase phase : AuthenticationPhase.values()) {
+                        final LatencyHistogram histogram = mechanismEntry.getValue()[phase.ordinal()];
+                        if (histogram.getTotalCount() > 0) {
+                            out.printf("%s,%s,%s,%s,%d,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f,%.3f%n", realmType,
+                                    transportEntry.getKey(), mechanismEntry.getKey(), phase, histogram.getTotalCount(),
+                                    toMicros(histogram.getMinValue()), toMicros(histogram.getMean()),
+                                    toMicros(histogram.getValueAtPercentile(50)), toMicros(histogram.getValueAtPercentile(90)),
+                                    toMicros(histogram.getValueAtPercentile(99)), toMicros(histogram.getValueAtPercentile(99.9)),
+                                    toMicros(histogram.getMaxValue()));
+                        }
+                    }
+                }
+            }
+        }
+
+        private static LatencyHistogram[] createHistograms(final String mechanism) {
+            final LatencyHistogram[] mechanismHistograms = new LatencyHistogram[PHASE_COUNT];
+            for (int i = 0; i < PHASE_COUNT; i++) {
+                mechanismHistograms[i] = new LatencyHistogram();
+            }
+
+            return mechanismHistograms;
+        }
+
+        private static double toMicros(final double nanos) {
+            return nanos / 1_000d;
+        }
+    }
+}
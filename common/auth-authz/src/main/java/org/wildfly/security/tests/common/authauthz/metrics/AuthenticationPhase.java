@@ -0,0 +1,47 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.metrics;
+
+import org.wildfly.security.tests.common.authauthz.TransportType;
+
+/**
+ * The phases of an authentication which have their latency recorded by {@link AuthenticationMetrics}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public enum AuthenticationPhase {
+
+    /**
+     * Request to an unsecured resource, no authentication is expected.
+     */
+    INSECURE_REQUEST(TransportType.HTTP),
+    /**
+     * The first request to a secured resource, the mechanism is expected to challenge.
+     */
+    FIRST_CHALLENGE(TransportType.HTTP),
+    /**
+     * The request responding to the challenge, this is where the identity is verified.
+     */
+    CHALLENGE_RESPONSE(TransportType.HTTP),
+    /**
+     * A subsequent request to the secured resource using the already authenticated state.
+     */
+    AUTHENTICATED_REQUEST(TransportType.HTTP),
+    /**
+     * Establishing a connection including the full SASL authentication handshake.
+     */
+    HANDSHAKE(TransportType.SASL);
+
+    private final TransportType transportType;
+
+    AuthenticationPhase(final TransportType transportType) {
+        this.transportType = transportType;
+    }
+
+    public TransportType getTransportType() {
+        return transportType;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A concurrent histogram of latencies recorded in nanoseconds.
+ *
+ * Values are recorded into log-linear buckets in the same style as an HDR histogram, values below
+ * {@code 128} are recorded exactly and above that each power of two range is split into {@code 64}
+ * buckets giving a worst case precision of just over 1.5%.
+ *
+ * Recording a value does not allocate and does not take any locks so this histogram can be shared by
+ * many threads recording at the same time.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BUCKET_BITS = 7;
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT >> 1;
+    private static final int BUCKET_COUNT = indexFor(Long.MAX_VALUE) + 1;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKET_COUNT);
+    private final AtomicLong totalCount = new AtomicLong();
+    private final AtomicLong totalValue = new AtomicLong();
+    private final AtomicLong minValue = new AtomicLong(Long.MAX_VALUE);
+    private final AtomicLong maxValue = new AtomicLong();
+
+    /**
+     * Record a single latency.
+     *
+     * @param nanos the latency in nanoseconds, negative values are recorded as {@code 0}.
+     */
+    public void record(final long nanos) {
+        final long value = Math.max(0, nanos);
+        counts.incrementAndGet(indexFor(value));
+        totalCount.incrementAndGet();
+        totalValue.addAndGet(value);
+        minValue.accumulateAndGet(value, Math::min);
+        maxValue.accumulateAndGet(value, Math::max);
+    }
+
+    /**
+     * Record the latency from the specified start time, as obtained from {@link System#nanoTime()}, until now.
+     *
+     * @param startNanos the start time in nanoseconds.
+     * @return the latency recorded.
+     */
+    public long recordSince(final long startNanos) {
+        final long latency = System.nanoTime() - startNanos;
+        record(latency);
+
+        return latency;
+    }
+
+    /**
+     * Add all of the values recorded in another histogram to this histogram.
+     *
+     * @param other the histogram to add to this histogram.
+     */
+    public void add(final LatencyHistogram other) {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            long count = other.counts.get(i);
+            if (count > 0) {
+                counts.addAndGet(i, count);
+            }
+        }
+        totalCount.addAndGet(other.totalCount.get());
+        totalValue.addAndGet(other.totalValue.get());
+        minValue.accumulateAndGet(other.minValue.get(), Math::min);
+        maxValue.accumulateAndGet(other.maxValue.get(), Math::max);
+    }
+
+    /**
+     * Clear all values recorded so far.
+     *
+     * Values recorded concurrently with a reset may or may not be retained.
+     */
+    public void reset() {
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            counts.set(i, 0);
+        }
+        totalCount.set(0);
+        totalValue.set(0);
+        minValue.set(Long.MAX_VALUE);
+        maxValue.set(0);
+    }
+
+    public long getTotalCount() {
+        return totalCount.get();
+    }
+
+    public long getMinValue() {
+        return getTotalCount() == 0 ? 0 : minValue.get();
+    }
+
+    public long getMaxValue() {
+        return maxValue.get();
+    }
+
+    public double getMean() {
+        final long count = getTotalCount();
+        return count == 0 ? 0 : (double) totalValue.get() / count;
+    }
+
+    /**
+     * Get the value at the specified percentile.
+     *
+     * The value returned is the highest value that would have been recorded in the same bucket, capped at the
+     * maximum value actually recorded.
+     *
+     * @param percentile the percentile between {@code 0} and {@code 100}.
+     * @return the value at the specified percentile in nanoseconds.
+     */
+    public long getValueAtPercentile(final double percentile) {
+        final long count = getTotalCount();
+        if (count == 0) {
+            return 0;
+        }
+
+        final double requested = Math.min(Math.max(percentile, 0), 100);
+        final long target = Math.max(1, (long) Math.ceil((requested / 100) * count));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++) {
+            cumulative += counts.get(i);
+            if (cumulative >= target) {
+                return Math.min(highestValueFor(i), getMaxValue());
+            }
+        }
+
+        return getMaxValue();
+    }
+
+    private static int indexFor(final long value) {
+        if (value < SUB_BUCKET_COUNT) {
+            return (int) value;
+        }
+        final int magnitude = 63 - Long.numberOfLeadingZeros(value) - (SUB_BUCKET_BITS - 1);
+        final int subBucket = (int) (value >>> magnitude);
+
+        return magnitude * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+
+    private static long highestValueFor(final int index) {
+        if (index < SUB_BUCKET_COUNT) {
+            return index;
+        }
+        final int magnitude = index / SUB_BUCKET_HALF_COUNT - 1;
+        final long subBucket = index - (long) magnitude * SUB_BUCKET_HALF_COUNT;
+        final long highest = ((subBucket + 1) << magnitude) - 1;
+
+        return highest < 0 ? Long.MAX_VALUE : highest;
+    }
+
+}
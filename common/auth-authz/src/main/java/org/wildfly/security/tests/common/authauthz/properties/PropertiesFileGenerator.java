@@ -0,0 +1,153 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.properties;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+
+/**
+ * Utility to write the users and groups properties files used by the {@code LegacyPropertiesSecurityRealm}.
+ *
+ * The identities are consumed from the {@code Stream} and written as they are read so files of many millions of
+ * identities can be created without the whole population, or the file contents, being held in memory.
+ *
+ * The passwords are either written in the clear or as the hex encoded digest of {@code username:realm:password},
+ * the format written by the WildFly {@code add-user} utility.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class PropertiesFileGenerator {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final HexFormat HEX = HexFormat.of();
+
+    private final boolean plainText;
+    private final String realmName;
+
+    private PropertiesFileGenerator(final Builder builder) {
+        plainText = builder.plainText;
+        realmName = builder.realmName;
+    }
+
+    /**
+     * Write all of the identities from the {@code Stream} to the users and optionally the groups file, any existing
+     * files are replaced.
+     *
+     * @param identities the identities to write.
+     * @param usersFile the users properties file to write.
+     * @param groupsFile the groups properties file to write or {@code null} if groups are not required.
+     * @return the number of identities written.
+     * @throws IOException if the files can not be written.
+     */
+    public long write(final Stream<IdentityDefinition> identities, final Path usersFile, final Path groupsFile)
+            throws IOException {
+        final long start = System.nanoTime();
+        final MessageDigest messageDigest = plainText ? null : createDigest();
+        long count = 0;
+        try (Writer users = newWriter(usersFile);
+                Writer groups = groupsFile != null ? newWriter(groupsFile) : null) {
+            users.write("#$REALM_NAME=");
+            users.write(realmName);
+            users.write("$\n");
+
+            Iterator<IdentityDefinition> iterator = identities.iterator();
+            while (iterator.hasNext()) {
+                IdentityDefinition identity = iterator.next();
+                users.write(identity.username());
+                users.write('=');
+                users.write(plainText ? identity.password() : digest(messageDigest, identity));
+                users.write('\n');
+
+                if (groups != null && !identity.groups().isEmpty()) {
+                    groups.write(identity.username());
+                    groups.write('=');
+                    groups.write(String.join(",", identity.groups()));
+                    groups.write('\n');
+                }
+                count++;
+            }
+        }
+
+        final long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.printf("PropertiesFileGenerator - Wrote %d identities in %d ms (%.0f identities/s), users file %d bytes\n",
+                count, elapsedMillis, count * 1000d / elapsedMillis, Files.size(usersFile));
+
+        return count;
+    }
+
+    private String digest(final MessageDigest messageDigest, final IdentityDefinition identity) {
+        messageDigest.update(identity.username().getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) ':');
+        messageDigest.update(realmName.getBytes(StandardCharsets.UTF_8));
+        messageDigest.update((byte) ':');
+        messageDigest.update(identity.password().getBytes(StandardCharsets.UTF_8));
+
+        return HEX.formatHex(messageDigest.digest());
+    }
+
+    private static Writer newWriter(final Path file) throws IOException {
+        return new BufferedWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    private static MessageDigest createDigest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 is required to write digested passwords", e);
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private boolean plainText = true;
+        private String realmName = "ManagementRealm";
+
+        Builder() {
+        }
+
+        /**
+         * Set if the passwords should be written in the clear, otherwise the pre-digested form is written.
+         */
+        public Builder setPlainText(final boolean plainText) {
+            this.plainText = plainText;
+
+            return this;
+        }
+
+        /**
+         * Set the realm name written to the users file and included in the password digests.
+         */
+        public Builder setRealmName(final String realmName) {
+            this.realmName = realmName;
+
+            return this;
+        }
+
+        public PropertiesFileGenerator build() {
+            if (realmName == null || realmName.isEmpty()) {
+                throw new IllegalStateException("A realm name must be set.");
+            }
+
+            return new PropertiesFileGenerator(this);
+        }
+    }
+}
@@ -0,0 +1,390 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.proxy;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.wildfly.security.tests.common.authauthz.load.TaskExecutors;
+
+/**
+ * An in-vm TCP proxy which can be placed between a realm and its backing server, e.g. the ApacheDS listener or a
+ * database TCP server, to inject faults into the connections.
+ *
+ * The faults can be changed at any time while the proxy is running and apply to the connections already established:
+ *
+ * <ul>
+ *   <li>{@link #setLatency(Duration)} - delays each chunk of data forwarded in either direction.</li>
+ *   <li>{@link #setBandwidth(long)} - limits the bytes per second forwarded in each direction of each connection.</li>
+ *   <li>{@link #setStalled(boolean)} - holds all data until the stall is cleared, the connections remain open.</li>
+ *   <li>{@link #setRefuseConnections(boolean)} - resets new connections as soon as they are accepted.</li>
+ *   <li>{@link #resetConnections()} - resets all of the connections currently open.</li>
+ * </ul>
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class TcpProxy implements Closeable {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final ServerSocket serverSocket;
+    private final InetSocketAddress target;
+    private final int connectTimeoutMillis;
+    private final ExecutorService executorService = TaskExecutors.newThreadPerTaskExecutor();
+    private final Set<Socket> sockets = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock stallLock = new ReentrantLock();
+    private final Condition stallCleared = stallLock.newCondition();
+    private final AtomicLong acceptedConnections = new AtomicLong();
+    private final AtomicLong resetConnections = new AtomicLong();
+    private final AtomicLong bytesForwarded = new AtomicLong();
+
+    private volatile long latencyNanos;
+    private volatile long bandwidth;
+    private volatile boolean stalled;
+    private volatile boolean refuseConnections;
+    private volatile boolean closed;
+
+    private TcpProxy(final ServerSocket serverSocket, final InetSocketAddress target, final int connectTimeoutMillis) {
+        this.serverSocket = serverSocket;
+        this.target = target;
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    /**
+     * Get the port the proxy is listening on, where the port was not specified this is the port allocated.
+     *
+     * @return the port the proxy is listening on.
+     */
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    /**
+     * Set the latency added to each chunk of data forwarded in either direction.
+     *
+     * @param latency the latency to add, {@link Duration#ZERO} to forward the data immediately.
+     */
+    public void setLatency(final Duration latency) {
+        this.latencyNanos = latency.toNanos();
+    }
+
+    /**
+     * Set the maximum bytes per second forwarded in each direction of each connection.
+     *
+     * @param bytesPerSecond the maximum bytes per second, {@code 0} for no limit.
+     */
+    public void setBandwidth(final long bytesPerSecond) {
+        if (bytesPerSecond < 0) {
+            throw new IllegalArgumentException("The bandwidth can not be negative.");
+        }
+        this.bandwidth = bytesPerSecond;
+    }
+
+    /**
+     * Set if the proxy is stalled, whilst stalled new connections are still accepted but no data is forwarded.
+     *
+     * @param stalled {@code true} to stall all connections, {@code false} to release the data held.
+     */
+    public void setStalled(final boolean stalled) {
+        stallLock.lock();
+        try {
+            this.stalled = stalled;
+            if (!stalled) {
+                stallCleared.signalAll();
+            }
+        } finally {
+            stallLock.unlock();
+        }
+    }
+
+    /**
+     * Set if new connections should be reset as soon as they are accepted, simulating a server which is unavailable.
+     *
+     * @param refuseConnections {@code true} to reset new connections.
+     */
+    public void setRefuseConnections(final boolean refuseConnections) {
+        this.refuseConnections = refuseConnections;
+    }
+
+    /**
+     * Reset all of the connections currently open through the proxy.
+     *
+     * @return the number of connections reset.
+     */
+    public int resetConnections() {
+        int count = 0;
+        for (Socket current : sockets) {
+            if (reset(current)) {
+                count++;
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Clear all of the faults, connections already reset are not re-established.
+     */
+    public void clearFaults() {
+        setLatency(Duration.ZERO);
+        setBandwidth(0);
+        setRefuseConnections(false);
+        setStalled(false);
+    }
+
+    /**
+     * Get the number of client connections accepted by the proxy, including those refused.
+     */
+    public long getAcceptedConnections() {
+        return acceptedConnections.get();
+    }
+
+    /**
+     * Get the number of sockets reset by the proxy.
+     */
+    public long getResetConnections() {
+        return resetConnections.get();
+    }
+
+    /**
+     * Get the number of bytes forwarded in both directions.
+     */
+    public long getBytesForwarded() {
+        return bytesForwarded.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        setStalled(false);
+        try {
+            serverSocket.close();
+        } finally {
+            for (Socket current : sockets) {
+                closeQuietly(current);
+            }
+            executorService.shutdownNow();
+        }
+    }
+
+    private void acceptConnections() {
+        while (!closed) {
+            final Socket client;
+            try {
+                client = serverSocket.accept();
+            } catch (IOException e) {
+                if (!closed) {
+                    System.out.printf("TcpProxy - Unable to accept connection: %s\n", e);
+                }
+                return;
+            }
+            acceptedConnections.incrementAndGet();
+            if (refuseConnections) {
+                reset(client);
+                continue;
+            }
+
+            executorService.submit(() -> connect(client));
+        }
+    }
+
+    private void connect(final Socket client) {
+        final Socket server = new Socket();
+        sockets.add(client);
+        sockets.add(server);
+        try {
+            server.connect(target, connectTimeoutMillis);
+            client.setTcpNoDelay(true);
+            server.setTcpNoDelay(true);
+        } catch (IOException e) {
+            // The backing server is unavailable so the client sees the connection reset.
+            reset(client);
+            closeQuietly(server);
+            return;
+        }
+
+        executorService.submit(() -> forward(client, server));
+        forward(server, client);
+    }
+
+    private void forward(final Socket from, final Socket to) {
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        try {
+            final InputStream in = from.getInputStream();
+            final OutputStream out = to.getOutputStream();
+            int read;
+            while ((read = in.read(buffer)) > 0) {
+                awaitStallCleared();
+                delay(read);
+                out.write(buffer, 0, read);
+                out.flush();
+                bytesForwarded.addAndGet(read);
+            }
+            // Orderly close from one side, close the other side the same way.
+            to.shutdownOutput();
+        } catch (IOException e) {
+            // One side was closed or reset, reset the other side so the failure is visible to it.
+            reset(to);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            reset(to);
+        } finally {
+            if (from.isClosed() || to.isClosed() || (from.isOutputShutdown() && to.isOutputShutdown())) {
+                closeQuietly(from);
+                closeQuietly(to);
+            }
+        }
+    }
+
+    private void awaitStallCleared() throws InterruptedException {
+        if (stalled) {
+            stallLock.lock();
+            try {
+                while (stalled && !closed) {
+                    stallCleared.await();
+                }
+            } finally {
+                stallLock.unlock();
+            }
+        }
+    }
+
+    private void delay(final int bytes) throws InterruptedException {
+        long delayNanos = latencyNanos;
+        final long bytesPerSecond = bandwidth;
+        if (bytesPerSecond > 0) {
+            delayNanos += TimeUnit.SECONDS.toNanos(bytes) / bytesPerSecond;
+        }
+        if (delayNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(delayNanos);
+        }
+    }
+
+    private boolean reset(final Socket socket) {
+        if (socket.isClosed()) {
+            sockets.remove(socket);
+            return false;
+        }
+        try {
+            // A linger time of 0 sends a RST instead of a FIN.
+            socket.setSoLinger(true, 0);
+        } catch (SocketException ignored) {
+        }
+        closeQuietly(socket);
+        resetConnections.incrementAndGet();
+
+        return true;
+    }
+
+    private void closeQuietly(final Socket socket) {
+        sockets.remove(socket);
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private String bindAddress = "localhost";
+        private int port = 0;
+        private String targetHost = "localhost";
+        private int targetPort = -1;
+        private Duration connectTimeout = Duration.ofSeconds(5);
+
+        Builder() {
+        }
+
+        /**
+         * Set the address for the proxy to listen on.
+         *
+         * @param bindAddress the address to listen on, defaults to {@code localhost}.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setBindAddress(final String bindAddress) {
+            this.bindAddress = bindAddress;
+
+            return this;
+        }
+
+        /**
+         * Set the port for the proxy to listen on.
+         *
+         * @param port the port to listen on, {@code 0} to allocate a free port.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setPort(final int port) {
+            this.port = port;
+
+            return this;
+        }
+
+        /**
+         * Set the server to forward the connections to.
+         *
+         * @param targetHost the host name of the server.
+         * @param targetPort the port of the server.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setTarget(final String targetHost, final int targetPort) {
+            this.targetHost = targetHost;
+            this.targetPort = targetPort;
+
+            return this;
+        }
+
+        /**
+         * Set the time to wait for each connection to the server to be established, a server which does not accept
+         * the connection in time is treated as unavailable and the client connection is reset.
+         *
+         * @param connectTimeout the time to wait for each connection, defaults to 5 seconds.
+         * @return This Builder for subsequent changes.
+         */
+        public Builder setConnectTimeout(final Duration connectTimeout) {
+            this.connectTimeout = connectTimeout;
+
+            return this;
+        }
+
+        public TcpProxy start() throws IOException {
+            if (targetPort < 1) {
+                throw new IllegalStateException("A target port is required.");
+            }
+            if (connectTimeout == null || connectTimeout.isNegative() || connectTimeout.isZero()) {
+                throw new IllegalStateException("A positive connect timeout is required.");
+            }
+
+            ServerSocket serverSocket = new ServerSocket(port, 50, InetAddress.getByName(bindAddress));
+            TcpProxy tcpProxy = new TcpProxy(serverSocket, new InetSocketAddress(targetHost, targetPort),
+                    (int) Math.min(Integer.MAX_VALUE, connectTimeout.toMillis()));
+            Thread acceptor = new Thread(tcpProxy::acceptConnections,
+                    String.format("TcpProxy-%d-%d", serverSocket.getLocalPort(), targetPort));
+            acceptor.setDaemon(true);
+            acceptor.start();
+
+            return tcpProxy;
+        }
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.realm;
+
+import static org.wildfly.security.password.interfaces.ClearPassword.ALGORITHM_CLEAR;
+
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.Principal;
+import java.security.Provider;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.InvalidKeySpecException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.wildfly.common.Assert;
+import org.wildfly.security.auth.SupportLevel;
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.RealmIdentity;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.authz.AuthorizationIdentity;
+import org.wildfly.security.authz.MapAttributes;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.credential.PasswordCredential;
+import org.wildfly.security.evidence.Evidence;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.password.Password;
+import org.wildfly.security.password.PasswordFactory;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+
+/**
+ * A reference custom {@code SecurityRealm} for read only identities which is safe for concurrent use without locking.
+ *
+ * Every identity is loaded when the realm is built into an immutable open addressed index, each entry holds the
+ * {@code RealmIdentity} for the identity with its {@code Password} and {@code AuthorizationIdentity} already created.
+ * A lookup hashes the name, using the hash cached by the {@code String}, and probes the index so no objects are
+ * allocated to find an identity and the same {@code PasswordFactory} is used for every verification.
+ *
+ * The {@code PasswordCredential} held by each entry is never returned directly, {@code getCredential} returns a clone
+ * so a caller destroying the credential it obtained can not affect subsequent authentications.
+ *
+ * The realm can be created using the {@link Builder} or deployed to WildFly as a {@code custom-realm}, in which case
+ * the identities are loaded by {@link #initialize(Map)} using the {@code configuration} of the realm.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class IndexedSecurityRealm implements SecurityRealm {
+
+    /**
+     * The {@code configuration} key for the number of identities to generate, defaults to {@value #DEFAULT_POPULATION}.
+     */
+    public static final String POPULATION = "population";
+    /**
+     * The {@code configuration} key for the name of the attribute to hold the groups of each identity, defaults to
+     * {@code groups}, an empty value means groups are not loaded.
+     */
+    public static final String GROUPS_ATTRIBUTE = "groups-attribute";
+    /**
+     * The {@code configuration} key for a comma separated list of groups every identity is a member of in addition to
+     * its generated groups, e.g. the {@code admin} group the integration testsuite's deployments require.
+     */
+    public static final String GROUPS = "groups";
+
+    private static final long DEFAULT_POPULATION = 99;
+    private static final String DEFAULT_GROUPS_ATTRIBUTE = "groups";
+
+    private PasswordFactory passwordFactory;
+    private String[] names;
+    private IndexedRealmIdentity[] identities;
+    private int mask;
+    private int size;
+
+    /**
+     * Construct a new realm with no identities, as WildFly does for a {@code custom-realm}, the identities are loaded
+     * by a subsequent call to {@link #initialize(Map)}.
+     */
+    public IndexedSecurityRealm() {
+        names = new String[2];
+        identities = new IndexedRealmIdentity[2];
+        mask = 1;
+    }
+
+    private IndexedSecurityRealm(final Builder builder) {
+        load(builder.passwordFactory, builder.identities, builder.groupsAttribute, List.of());
+    }
+
+    /**
+     * Initialize the realm using the {@code configuration} of a WildFly {@code custom-realm}.
+     *
+     * The identities are generated by an {@link IdentityGenerator} starting at index {@code 1}, the same as the
+     * integration testsuite's {@code TestCustomSecurityRealm}, using the {@value #POPULATION},
+     * {@value #GROUPS_ATTRIBUTE} and {@value #GROUPS} options. The {@code PasswordFactory} is obtained from the
+     * registered providers.
+     *
+     * @param configuration the configuration of the realm.
+     */
+    public void initialize(final Map<String, String> configuration) {
+        final long population = configuration.containsKey(POPULATION)
+                ? Long.parseLong(configuration.get(POPULATION)) : DEFAULT_POPULATION;
+        final String groupsAttribute = configuration.getOrDefault(GROUPS_ATTRIBUTE, DEFAULT_GROUPS_ATTRIBUTE);
+        final String groups = configuration.getOrDefault(GROUPS, "");
+
+        final IdentityGenerator identityGenerator = IdentityGenerator.builder()
+                .setFirstIndex(1)
+                .setCount(population)
+                .build();
+        try {
+            load(PasswordFactory.getInstance(ALGORITHM_CLEAR), identityGenerator.stream(),
+                    groupsAttribute.isEmpty() ? null : groupsAttribute,
+                    groups.isEmpty() ? List.of() : List.of(groups.split(",")));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private void load(final PasswordFactory passwordFactory, final Stream<IdentityDefinition> definitions,
+            final String groupsAttribute, final List<String> commonGroups) {
+        this.passwordFactory = passwordFactory;
+
+        final List<IndexedRealmIdentity> loaded = new ArrayList<>();
+        Iterator<IdentityDefinition> iterator = definitions.iterator();
+        while (iterator.hasNext()) {
+            loaded.add(createIdentity(iterator.next(), groupsAttribute, commonGroups));
+        }
+
+        // Keep the load factor at or below 0.5 so probe sequences remain short, including for missing identities.
+        int capacity = Integer.highestOneBit(Math.max(2, loaded.size() * 2 - 1)) << 1;
+        final String[] names = new String[capacity];
+        final IndexedRealmIdentity[] identities = new IndexedRealmIdentity[capacity];
+        final int mask = capacity - 1;
+        for (IndexedRealmIdentity current : loaded) {
+            final String name = current.principal.getName();
+            int slot = hash(name) & mask;
+            while (names[slot] != null) {
+                if (names[slot].equals(name)) {
+                    throw new IllegalStateException(String.format("Duplicate identity '%s'", name));
+                }
+                slot = (slot + 1) & mask;
+            }
+            names[slot] = name;
+            identities[slot] = current;
+        }
+        this.names = names;
+        this.identities = identities;
+        this.mask = mask;
+        size = loaded.size();
+    }
+
+    private IndexedRealmIdentity createIdentity(final IdentityDefinition identity, final String groupsAttribute,
+            final List<String> commonGroups) {
+        final Password password;
+        try {
+            password = passwordFactory.generatePassword(new ClearPasswordSpec(identity.password().toCharArray()));
+        } catch (InvalidKeySpecException e) {
+            throw new IllegalStateException(e);
+        }
+
+        AuthorizationIdentity authorizationIdentity = AuthorizationIdentity.EMPTY;
+        if (groupsAttribute != null && !(identity.groups().isEmpty() && commonGroups.isEmpty())) {
+            MapAttributes attributes = new MapAttributes();
+            attributes.addAll(groupsAttribute, commonGroups);
+            attributes.addAll(groupsAttribute, identity.groups());
+            authorizationIdentity = AuthorizationIdentity.basicIdentity(attributes.asReadOnly());
+        }
+
+        return new IndexedRealmIdentity(new NamePrincipal(identity.username()), password, authorizationIdentity);
+    }
+
+    /**
+     * Get the number of identities held by the realm.
+     */
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public RealmIdentity getRealmIdentity(final Principal principal) throws RealmUnavailableException {
+        final NamePrincipal namePrincipal = NamePrincipal.from(principal);
+        if (namePrincipal == null) {
+            return RealmIdentity.NON_EXISTENT;
+        }
+
+        final String name = namePrincipal.getName();
+        int slot = hash(name) & mask;
+        String current;
+        while ((current = names[slot]) != null) {
+            if (current.equals(name)) {
+                return identities[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        return RealmIdentity.NON_EXISTENT;
+    }
+
+    @Override
+    public SupportLevel getCredentialAcquireSupport(final Class<? extends Credential> credentialType,
+            final String algorithmName, final AlgorithmParameterSpec parameterSpec) throws RealmUnavailableException {
+        Assert.checkNotNullParam("credentialType", credentialType);
+        return credentialType.isAssignableFrom(PasswordCredential.class)
+                && (algorithmName == null || algorithmName.equals(ALGORITHM_CLEAR))
+                && parameterSpec == null
+                ? SupportLevel.SUPPORTED : SupportLevel.UNSUPPORTED;
+    }
+
+    @Override
+    public SupportLevel getEvidenceVerifySupport(final Class<? extends Evidence> evidenceType,
+            final String algorithmName) throws RealmUnavailableException {
+        Assert.checkNotNullParam("evidenceType", evidenceType);
+        return PasswordGuessEvidence.class.isAssignableFrom(evidenceType) ? SupportLevel.SUPPORTED : SupportLevel.UNSUPPORTED;
+    }
+
+    private static int hash(final String name) {
+        final int h = name.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * The immutable identity returned for every lookup of the same name, {@code dispose} has nothing to release.
+     */
+    private final class IndexedRealmIdentity implements RealmIdentity {
+
+        private final NamePrincipal principal;
+        private final Password password;
+        private final PasswordCredential credential;
+        private final AuthorizationIdentity authorizationIdentity;
+
+        IndexedRealmIdentity(final NamePrincipal principal, final Password password,
+                final AuthorizationIdentity authorizationIdentity) {
+            this.principal = principal;
+            this.password = password;
+            this.credential = new PasswordCredential(password);
+            this.authorizationIdentity = authorizationIdentity;
+        }
+
+        @Override
+        public Principal getRealmIdentityPrincipal() {
+            return principal;
+        }
+
+        @Override
+        public SupportLevel getCredentialAcquireSupport(final Class<? extends Credential> credentialType,
+                final String algorithmName, final AlgorithmParameterSpec parameterSpec) throws RealmUnavailableException {
+            return IndexedSecurityRealm.this.getCredentialAcquireSupport(credentialType, algorithmName, parameterSpec);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(final Class<C> credentialType) throws RealmUnavailableException {
+            return getCredential(credentialType, null, null);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(final Class<C> credentialType, final String algorithmName)
+                throws RealmUnavailableException {
+            return getCredential(credentialType, algorithmName, null);
+        }
+
+        @Override
+        public <C extends Credential> C getCredential(final Class<C> credentialType, final String algorithmName,
+                final AlgorithmParameterSpec parameterSpec) throws RealmUnavailableException {
+            return credential.clone().castAs(credentialType, algorithmName, parameterSpec);
+        }
+
+        @Override
+        public SupportLevel getEvidenceVerifySupport(final Class<? extends Evidence> evidenceType,
+                final String algorithmName) throws RealmUnavailableException {
+            return IndexedSecurityRealm.this.getEvidenceVerifySupport(evidenceType, algorithmName);
+        }
+
+        @Override
+        public boolean verifyEvidence(final Evidence evidence) throws RealmUnavailableException {
+            if (!(evidence instanceof PasswordGuessEvidence)) {
+                return false;
+            }
+
+            try {
+                return passwordFactory.verify(password, ((PasswordGuessEvidence) evidence).getGuess());
+            } catch (InvalidKeyException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public boolean exists() throws RealmUnavailableException {
+            return true;
+        }
+
+        @Override
+        public AuthorizationIdentity getAuthorizationIdentity() throws RealmUnavailableException {
+            return authorizationIdentity;
+        }
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public static class Builder {
+
+        private Supplier<Provider[]> providers;
+        private Stream<IdentityDefinition> identities;
+        private String groupsAttribute = "groups";
+        private PasswordFactory passwordFactory;
+
+        Builder() {
+        }
+
+        public Builder setProviders(final Supplier<Provider[]> providers) {
+            this.providers = providers;
+
+            return this;
+        }
+
+        /**
+         * Set the identities to load into the realm, the stream is consumed by {@link #build()}.
+         */
+        public Builder setIdentities(final Stream<IdentityDefinition> identities) {
+            this.identities = identities;
+
+            return this;
+        }
+
+        /**
+         * Set the name of the attribute to hold the groups of each identity, if {@code null} groups are not loaded.
+         */
+        public Builder setGroupsAttribute(final String groupsAttribute) {
+            this.groupsAttribute = groupsAttribute;
+
+            return this;
+        }
+
+        public IndexedSecurityRealm build() {
+            if (providers == null || identities == null) {
+                throw new IllegalStateException("The providers and identities must be set.");
+            }
+
+            try {
+                passwordFactory = PasswordFactory.getInstance(ALGORITHM_CLEAR, providers);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+
+            return new IndexedSecurityRealm(this);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.common.authauthz.realm;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.auth.server.ModifiableRealmIdentity;
+import org.wildfly.security.auth.server.ModifiableSecurityRealm;
+import org.wildfly.security.auth.server.RealmUnavailableException;
+import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.authz.MapAttributes;
+import org.wildfly.security.credential.Credential;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.ParallelBatchLoader;
+
+/**
+ * Utility to provision identities into a {@code ModifiableSecurityRealm}, e.g. a {@code FileSystemSecurityRealm}.
+ *
+ * The identities are consumed from the {@code Stream} in batches which a {@link ParallelBatchLoader} spreads across a
+ * number of threads, each identity is created through the realm's own {@code getRealmIdentityForUpdate} so the realm
+ * lays out its storage exactly as it would for identities added at runtime.
+ *
+ * Where the realm performs I/O for each identity, as the filesystem realm does, provisioning from several threads
+ * allows populations of millions of identities to be created in a reasonable time without the whole population being
+ * held in memory.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public final class ModifiableRealmIdentityLoader {
+
+    private final ModifiableSecurityRealm securityRealm;
+    private final CredentialFactory credentialFactory;
+    private final String groupsAttribute;
+    private final boolean loadAttributes;
+    private final int batchSize;
+    private final int threads;
+
+    private ModifiableRealmIdentityLoader(final Builder builder) {
+        securityRealm = builder.securityRealm;
+        credentialFactory = builder.credentialFactory;
+        groupsAttribute = builder.groupsAttribute;
+        loadAttributes = builder.loadAttributes;
+        batchSize = builder.batchSize;
+        threads = builder.threads;
+    }
+
+    /**
+     * Create all of the identities from the {@code Stream} in the realm.
+     *
+     * @param identities the identities to create.
+     * @return the number of identities created.
+     * @throws RealmUnavailableException if the realm fails to create an identity.
+     */
+    public long load(final Stream<IdentityDefinition> identities) throws RealmUnavailableException {
+        final long start = System.nanoTime();
+        final long count = new ParallelBatchLoader<>(RealmUnavailableException.class, batchSize, threads)
+                .load(identities, () -> this::create);
+
+        final long elapsedMillis = Math.max(1, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        System.out.printf("ModifiableRealmIdentityLoader - Created %d identities in %d ms (%.0f identities/s) using %d threads\n",
+                count, elapsedMillis, count * 1000d / elapsedMillis, threads);
+
+        return count;
+    }
+
+    private void create(final List<IdentityDefinition> batch) throws RealmUnavailableException {
+        for (IdentityDefinition identity : batch) {
+            ModifiableRealmIdentity realmIdentity =
+                    securityRealm.getRealmIdentityForUpdate(new NamePrincipal(identity.username()));
+            try {
+                realmIdentity.create();
+                realmIdentity.setCredentials(credentialFactory.createCredentials(identity));
+                Attributes attributes = toAttributes(identity);
+                if (attributes != null) {
+                    realmIdentity.setAttributes(attributes);
+                }
+            } finally {
+                realmIdentity.dispose();
+            }
+        }
+    }
+
+    private Attributes toAttributes(final IdentityDefinition identity) {
+        final boolean loadGroups = groupsAttribute != null && !identity.groups().isEmpty();
+        if (!loadGroups && (!loadAttributes || identity.attributes().isEmpty())) {
+            return null;
+        }
+
+        MapAttributes attributes = new MapAttributes();
+        if (loadGroups) {
+            attributes.addAll(groupsAttribute, identity.groups());
+        }
+        if (loadAttributes) {
+            for (Map.Entry<String, List<String>> attribute : identity.attributes().entrySet()) {
+                attributes.addAll(attribute.getKey(), attribute.getValue());
+            }
+        }
+
+        return attributes;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Factory for the credentials to store for each identity, e.g. a {@code PasswordCredential} of the password
+     * generated using the algorithm to be tested.
+     */
+    @FunctionalInterface
+    public interface CredentialFactory {
+
+        Collection<? extends Credential> createCredentials(IdentityDefinition identity);
+    }
+
+    public static class Builder {
+
+        private ModifiableSecurityRealm securityRealm;
+        private CredentialFactory credentialFactory;
+        private String groupsAttribute;
+        private boolean loadAttributes;
+        private int batchSize = 1000;
+        private int threads = 1;
+
+        Builder() {
+        }
+
+        public Builder setSecurityRealm(final ModifiableSecurityRealm securityRealm) {
+            this.securityRealm = securityRealm;
+
+            return this;
+        }
+
+        public Builder setCredentialFactory(final CredentialFactory credentialFactory) {
+            this.credentialFactory = credentialFactory;
+
+            return this;
+        }
+
+        /**
+         * Set the name of the attribute to store the groups of each identity in, if not set groups are not stored.
+         */
+        public Builder setGroupsAttribute(final String groupsAttribute) {
+            this.groupsAttribute = groupsAttribute;
+
+            return this;
+        }
+
+        /**
+         * Set if the attributes of each identity should be stored.
+         */
+        public Builder setLoadAttributes(final boolean loadAttributes) {
+            this.loadAttributes = loadAttributes;
+
+            return this;
+        }
+
+        public Builder setBatchSize(final int batchSize) {
+            this.batchSize = batchSize;
+
+            return this;
+        }
+
+        /**
+         * Set the number of threads to create the identities across concurrently.
+         */
+        public Builder setThreads(final int threads) {
+            this.threads = threads;
+
+            return this;
+        }
+
+        public ModifiableRealmIdentityLoader build() {
+            if (securityRealm == null) {
+                throw new IllegalStateException("A security realm must be set.");
+            }
+            if (credentialFactory == null) {
+                throw new IllegalStateException("A credential factory must be set.");
+            }
+            if (batchSize < 1 || threads < 1) {
+                throw new IllegalStateException("The batch size and number of threads must be at least 1.");
+            }
+
+            return new ModifiableRealmIdentityLoader(this);
+        }
+    }
+}
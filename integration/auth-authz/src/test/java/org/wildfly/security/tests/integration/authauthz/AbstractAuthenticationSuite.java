@@ -7,9 +7,7 @@ package org.wildfly.security.tests.integration.authauthz;
 
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
@@ -18,6 +16,9 @@ import org.junit.platform.suite.api.SelectClasses;
 import org.junit.platform.suite.api.Suite;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+import org.wildfly.security.tests.common.authauthz.metrics.AuthenticationMetrics;
 import org.wildfly.security.tests.integration.authauthz.runners.BruteForceAuthnProtectionHttpSuiteRunner;
 import org.wildfly.security.tests.integration.authauthz.runners.BruteForceAuthnProtectionSaslSuiteRunner;
 import org.wildfly.security.tests.integration.authauthz.runners.StandardHttpSuiteRunner;
@@ -36,8 +37,13 @@ public abstract class AbstractAuthenticationSuite {
     protected static final Path SERVER_CONFIG_DIR = Paths.get(System.getProperty("jboss.home")).toAbsolutePath()
             .resolve("standalone").resolve("configuration");
 
-    private static final String USERNAME_PATTERN = "user%d";
-    private static final String PASSWORD_PATTERN = "password%d";
+    // Register a lot of identities so each test can use it's own without
+    // state being contaminated from other tests.
+    private static final IdentityGenerator IDENTITY_GENERATOR = IdentityGenerator.builder()
+            .setFirstIndex(1)
+            .setCount(249)
+            .applySystemProperties()
+            .build();
     private static int NEXT_USER = 1;
 
     private static volatile SecurityRealmRegistrar securityRealmRegistrar;
@@ -53,6 +59,11 @@ public abstract class AbstractAuthenticationSuite {
         AbstractAuthenticationSuite.securityRealmRegistrar = securityRealmRegistrar;
         AbstractAuthenticationSuite.supportedHttpAuthenticationMechanisms = supportedHttpAuthenticationMechanisms;
         AbstractAuthenticationSuite.supportedSaslAuthenticationMechanisms = supportedSaslAuthenticationMechanisms;
+        if (securityRealmRegistrar != null) {
+            AuthenticationMetrics.getInstance().begin(securityRealmRegistrar.getRealmType());
+        } else {
+            AuthenticationMetrics.getInstance().end();
+        }
     }
 
     public static String realmType() {
@@ -73,28 +84,21 @@ public abstract class AbstractAuthenticationSuite {
                 : supportedSaslAuthenticationMechanisms.get();
     }
 
-    static Stream<IdentityDefinition> obtainTestIdentities() {
-        // Register a lot of identities so each test can use it's own without
-        // state being contaminated from other tests.
-        List<IdentityDefinition> identities = new ArrayList<>(250);
-        for (int i = 1 ; i < 250 ; i++) {
-            identities.add(new IdentityDefinition(String.format(USERNAME_PATTERN , i),
-                    String.format(PASSWORD_PATTERN, i)));
-        }
+    public static IdentityGenerator identityGenerator() {
+        return IDENTITY_GENERATOR;
+    }
 
+    static Stream<IdentityDefinition> obtainTestIdentities() {
         NEXT_USER = 1;
-        return identities.stream();
+        return IDENTITY_GENERATOR.stream();
     }
 
-    public record IdentityDefinition(String username, String password) {}
-
     public static IdentityDefinition nextIdentity() {
         int id = NEXT_USER++;
-        if (id > 250) {
+        if (id >= IDENTITY_GENERATOR.getFirstIndex() + IDENTITY_GENERATOR.getCount()) {
             throw new IllegalStateException("Exceeded available identities.");
         }
 
-        return new IdentityDefinition(String.format(USERNAME_PATTERN , id),
-                    String.format(PASSWORD_PATTERN, id));
+        return IDENTITY_GENERATOR.identity(id);
     }
 }
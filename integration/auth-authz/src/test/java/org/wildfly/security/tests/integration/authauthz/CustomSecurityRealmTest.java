@@ -27,6 +27,8 @@ import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.extras.creaper.core.online.operations.admin.Administration;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
 
 /**
  * Variant of the {@code AbstractAuthenticationSuite} to test the custom security realm.
@@ -93,9 +95,16 @@ public class CustomSecurityRealmTest extends AbstractAuthenticationSuite {
 
     // shared with custom modifiable realm tests
     public static void createAndDeployCustomRealmModuleJar(OnlineManagementClient managementClient, String moduleName) throws IOException {
+        createAndDeployCustomRealmModuleJar(managementClient, moduleName, TestCustomSecurityRealm.class);
+    }
+
+    // shared with indexed custom realm tests
+    public static void createAndDeployCustomRealmModuleJar(OnlineManagementClient managementClient, String moduleName,
+            Class<?> realmClass) throws IOException {
         JavaArchive customRealmModuleContent = ShrinkWrap.create(JavaArchive.class, moduleName + ".jar")
                 .addAsResource(new StringAsset("Dependencies: org.wildfly.security"), "META-INF/MANIFEST.MF")
-                .addClass(TestCustomSecurityRealm.class);
+                .addClass(realmClass)
+                .addClasses(IdentityGenerator.class, IdentityDefinition.class);
         File customRealmModuleJar = new File(moduleName + ".jar");
         customRealmModuleContent.as(ZipExporter.class).exportTo(customRealmModuleJar, true);
 
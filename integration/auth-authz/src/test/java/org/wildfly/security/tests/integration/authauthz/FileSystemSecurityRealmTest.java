@@ -16,6 +16,7 @@ import org.wildfly.extras.creaper.core.online.CliException;
 import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
 
 /**
  * Variant of the {@code AbstractAuthenticationSuite} to test the filesystem security realm.
@@ -0,0 +1,75 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.integration.authauthz;
+
+import java.io.IOException;
+import java.util.concurrent.TimeoutException;
+
+import org.junit.platform.suite.api.AfterSuite;
+import org.junit.platform.suite.api.BeforeSuite;
+import org.wildfly.extras.creaper.core.online.CliException;
+import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
+import org.wildfly.extras.creaper.core.online.operations.admin.Administration;
+import org.wildfly.security.tests.common.authauthz.realm.IndexedSecurityRealm;
+
+/**
+ * Variant of the {@code AbstractAuthenticationSuite} to test the {@link IndexedSecurityRealm} deployed as a custom
+ * security realm.
+ */
+public class IndexedCustomSecurityRealmTest extends AbstractAuthenticationSuite {
+
+    private static final String REALM_NAME = "test-indexed-custom-realm";
+    // The resource type is custom-realm, the suite is reported separately from the CustomSecurityRealmTest.
+    private static final String REALM_TYPE = "indexed-custom-realm";
+    private static final String MODULE_NAME = "testIndexedCustomRealmModule";
+
+    private volatile static boolean realmRegistered = false;
+
+    @BeforeSuite
+    public static void beginRealm() {
+        register(SecurityRealmRegistrar.create(() -> REALM_TYPE, () -> REALM_NAME,
+                        IndexedCustomSecurityRealmTest::registerSecurityRealm, IndexedCustomSecurityRealmTest::removeSecurityRealm),
+                CustomSecurityRealmTest::realmHttpMechanisms,
+                CustomSecurityRealmTest::realmSaslMechanisms);
+    }
+
+    @AfterSuite
+    public static void endRealm() throws IOException {
+        register(null, null, null);
+    }
+
+    static void registerSecurityRealm(OnlineManagementClient managementClient) throws IOException {
+        CustomSecurityRealmTest.createAndDeployCustomRealmModuleJar(managementClient, MODULE_NAME,
+                IndexedSecurityRealm.class);
+
+        try {
+            // Every identity of the suite is loaded and is a member of the admin group the deployments require.
+            managementClient.execute(String.format(
+                    "/subsystem=elytron/custom-realm=%s:add(module=%s, class-name=%s, configuration={%s=%d, %s=admin})",
+                    REALM_NAME, MODULE_NAME, IndexedSecurityRealm.class.getName(),
+                    IndexedSecurityRealm.POPULATION, identityGenerator().getCount(),
+                    IndexedSecurityRealm.GROUPS)).assertSuccess();
+            realmRegistered = true;
+        } catch (CliException e) {
+            throw new IOException("Unable to register security realm configuration.", e);
+        }
+    }
+
+    static void removeSecurityRealm(OnlineManagementClient managementClient) throws IOException {
+        try {
+            if (realmRegistered) {
+                managementClient.execute(String.format("/subsystem=elytron/custom-realm=%s:remove",
+                        REALM_NAME)).assertSuccess();
+
+                CustomSecurityRealmTest.undeployCustomRealmModuleJar(MODULE_NAME);
+                new Administration(managementClient).reloadIfRequired();
+                realmRegistered = false;
+            }
+        } catch (CliException | InterruptedException | TimeoutException e) {
+            throw new IOException("Unable to remove security realm configuration.", e);
+        }
+    }
+}
@@ -28,6 +28,8 @@ import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.extras.creaper.core.online.operations.admin.Administration;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
 
 /**
  * Variant of the {@code AbstractAuthenticationSuite} to test the JAAS security realm.
@@ -56,7 +58,8 @@ public class JaasSecurityRealmTest extends AbstractAuthenticationSuite {
         JavaArchive jaasModuleContent = ShrinkWrap.create(JavaArchive.class, "testJaas.jar")
                 .addAsResource(new StringAsset("Dependencies: org.wildfly.security"), "META-INF/MANIFEST.MF")
                 .addClass(TestJaasLoginModule.class)
-                .addClass(TestJaasCallbackHandler.class);
+                .addClass(TestJaasCallbackHandler.class)
+                .addClasses(IdentityGenerator.class, IdentityDefinition.class);
         File jaasModuleJar = new File("testJaas.jar");
         jaasModuleContent.as(ZipExporter.class).exportTo(jaasModuleJar, true);
 
@@ -8,13 +8,11 @@ package org.wildfly.security.tests.integration.authauthz;
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.DriverManager;
-import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.EnumSet;
 import java.util.Set;
 import java.util.concurrent.TimeoutException;
-import java.util.stream.Collectors;
 import org.h2.tools.Server;
 
 import org.junit.platform.suite.api.AfterSuite;
@@ -24,6 +22,7 @@ import org.wildfly.extras.creaper.core.online.OnlineManagementClient;
 import org.wildfly.extras.creaper.core.online.operations.admin.Administration;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.jdbc.JdbcIdentityLoader;
 
 /**
  * Variant of the {@code AbstractAuthenticationSuite} to test the JDBC security realm.
@@ -71,20 +70,13 @@ public class JdbcSecurityRealmTest extends AbstractAuthenticationSuite {
             throw new IOException("Unable to register security realm configuration.", e);
         }
 
-        try (Connection connection = getDBConnection()) {
-            try (Statement statement = connection.createStatement()) {
-                statement.execute("DROP TABLE IF EXISTS jdbc_realm_users");
-                statement.execute("CREATE TABLE jdbc_realm_users (username VARCHAR(50), password VARCHAR(50), roles VARCHAR(50), PRIMARY KEY(username))");
-            }
-
-            try (PreparedStatement statement = connection.prepareStatement("INSERT INTO jdbc_realm_users (username, password, roles) VALUES (?, ?, ?)")) {
-                for (IdentityDefinition identity : obtainTestIdentities().collect(Collectors.toList())) {
-                    statement.setString(1, identity.username());
-                    statement.setString(2, identity.password());
-                    statement.setString(3, "admin");
-                    statement.executeUpdate();
-                }
-            }
+        try {
+            JdbcIdentityLoader loader = JdbcIdentityLoader.builder()
+                    .setConnectionFactory(JdbcSecurityRealmTest::getDBConnection)
+                    .setRoles("admin")
+                    .build();
+            loader.createTables();
+            loader.load(obtainTestIdentities());
         } catch (SQLException ex) {
             throw new IllegalStateException("Unable create table with users in H2 DB", ex);
         }
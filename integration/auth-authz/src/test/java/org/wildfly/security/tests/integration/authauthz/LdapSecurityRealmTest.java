@@ -5,12 +5,11 @@
 
 package org.wildfly.security.tests.integration.authauthz;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Base64;
 import java.util.EnumSet;
+import java.util.Map;
 import java.util.Set;
 
 import org.junit.platform.suite.api.AfterSuite;
@@ -104,24 +103,13 @@ public class LdapSecurityRealmTest extends AbstractAuthenticationSuite {
     }
 
     private static void createLdap() throws Exception {
-        // TODO This method was also copied as-us from the unit test, can we move to common?
-        StringBuilder identitiesString = new StringBuilder();
-        obtainTestIdentities().forEach(identity -> {
-            identitiesString.append(String.format("dn: uid=%s,dc=security,dc=wildfly,dc=org\n", identity.username()));
-            identitiesString.append("objectClass: top\nobjectClass: inetOrgPerson\nobjectClass: person\nobjectClass: organizationalPerson\n");
-            identitiesString.append(String.format("cn: %s\n", identity.username()));
-            identitiesString.append(String.format("sn: %s\n", identity.username()));
-            identitiesString.append(String.format("uid: %s\n", identity.username()));
-            identitiesString.append("employeeType: admin\n");
-            identitiesString.append(String.format("userPassword:: %s\n\n", Base64.getEncoder().encodeToString(identity.password().getBytes())));
-        });
-
         ldapService = LdapService.builder()
                 .setWorkingDir(LDAP_DIR.toFile())
+                .setInMemory(true)
                 .createDirectoryService(LdapSecurityRealmTest.class.getSimpleName())
                 .addPartition("Elytron", "dc=security,dc=wildfly,dc=org", 5, "uid")
                 .importLdif("ldap-security-realm-test.ldif")
-                .importLdif(new ByteArrayInputStream(identitiesString.toString().getBytes()))
+                .importIdentities("dc=security,dc=wildfly,dc=org", obtainTestIdentities(), Map.of("employeeType", "admin"))
                 .addTcpServer("Default TCP", "localhost", LDAP_PORT)
                 .start();
     }
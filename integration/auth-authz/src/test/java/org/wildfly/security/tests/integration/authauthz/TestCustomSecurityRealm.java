@@ -13,13 +13,8 @@ import java.security.NoSuchAlgorithmException;
 import java.security.Principal;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidKeySpecException;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
 import java.util.Set;
-import java.util.stream.Stream;
 import org.wildfly.common.Assert;
 
 import org.wildfly.security.auth.SupportLevel;
@@ -39,19 +34,19 @@ import org.wildfly.security.password.PasswordFactory;
 import org.wildfly.security.password.spec.ClearPasswordSpec;
 import org.wildfly.security.password.spec.DigestPasswordAlgorithmSpec;
 import org.wildfly.security.password.spec.PasswordSpec;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
 
 /**
- * A custom modifiable security realm {@link ModifiableSecurityRealm} backed by a {@link Map}.
+ * A custom modifiable security realm {@link ModifiableSecurityRealm} backed by an {@link IdentityGenerator}.
  */
 public class TestCustomSecurityRealm implements ModifiableSecurityRealm {
 
-    private final Map<String, char[]> identities = new HashMap<>();
-
-    public TestCustomSecurityRealm() {
-        obtainTestIdentities().forEach(identity -> {
-            this.identities.put(identity.username(), identity.password().toCharArray());
-        });
-    }
+    // Identities are generated on demand so the realm holds no state for each identity.
+    private final IdentityGenerator identities = IdentityGenerator.builder()
+            .setFirstIndex(1)
+            .setCount(99)
+            .build();
 
     @Override
     public ModifiableRealmIdentityIterator getRealmIdentityIterator() throws RealmUnavailableException {
@@ -77,8 +72,9 @@ public class TestCustomSecurityRealm implements ModifiableSecurityRealm {
     @Override
     public RealmIdentity getRealmIdentity(final Principal principal) throws RealmUnavailableException {
         NamePrincipal namePrincipal = NamePrincipal.from(principal);
+        IdentityDefinition identity = namePrincipal == null ? null : identities.lookup(namePrincipal.getName());
 
-        if (namePrincipal == null || !identities.containsKey(namePrincipal.getName())) {
+        if (identity == null) {
             return RealmIdentity.NON_EXISTENT;
         }
 
@@ -108,12 +104,9 @@ public class TestCustomSecurityRealm implements ModifiableSecurityRealm {
 
             @Override
             public <C extends Credential> C getCredential(final Class<C> credentialType, final String algorithmName, final AlgorithmParameterSpec parameterSpec) throws RealmUnavailableException {
-                if (!identities.containsKey(namePrincipal.getName())) {
-                    return null;
-                }
                 try {
                     final PasswordFactory passwordFactory = PasswordFactory.getInstance(ALGORITHM_CLEAR);
-                    final PasswordSpec passwordSpec = new ClearPasswordSpec(identities.get(namePrincipal.getName()));
+                    final PasswordSpec passwordSpec = new ClearPasswordSpec(identity.password().toCharArray());
                     return credentialType.cast(new PasswordCredential(passwordFactory.generatePassword(passwordSpec)));
                 } catch (InvalidKeySpecException | NoSuchAlgorithmException e) {
                     throw new IllegalStateException(e);
@@ -129,7 +122,7 @@ public class TestCustomSecurityRealm implements ModifiableSecurityRealm {
 
             @Override
             public boolean verifyEvidence(Evidence evidence) throws RealmUnavailableException {
-                if (!identities.containsKey(namePrincipal.getName()) || !(evidence instanceof PasswordGuessEvidence)) {
+                if (!(evidence instanceof PasswordGuessEvidence)) {
                     return false;
                 }
 
@@ -137,7 +130,7 @@ public class TestCustomSecurityRealm implements ModifiableSecurityRealm {
 
                 try {
                     final PasswordFactory passwordFactory = PasswordFactory.getInstance(ALGORITHM_CLEAR);
-                    final PasswordSpec passwordSpec = new ClearPasswordSpec(identities.get(namePrincipal.getName()));
+                    final PasswordSpec passwordSpec = new ClearPasswordSpec(identity.password().toCharArray());
                     final Password actualPassword = passwordFactory.generatePassword(passwordSpec);
                     return passwordFactory.verify(actualPassword, guess);
                 } catch (InvalidKeySpecException | InvalidKeyException | IllegalStateException | NoSuchAlgorithmException e) {
@@ -157,17 +150,4 @@ public class TestCustomSecurityRealm implements ModifiableSecurityRealm {
             }
         };
     }
-
-    // TODO move this to common module together with methods in AbstractAuthenticationSuite classes
-    static Stream<TestCustomSecurityRealm.IdentityDefinition> obtainTestIdentities() {
-        List<TestCustomSecurityRealm.IdentityDefinition> identities = new ArrayList<>(100);
-        for (int i = 1 ; i < 100 ; i++) {
-            identities.add(new TestCustomSecurityRealm.IdentityDefinition(String.format("user%d", i),
-                    String.format("password%d", i)));
-        }
-
-        return identities.stream();
-    }
-
-    record IdentityDefinition(String username, String password) {}
 }
@@ -6,12 +6,8 @@ package org.wildfly.security.tests.integration.authauthz;
 
 import java.io.IOException;
 import java.security.Principal;
-import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.stream.Stream;
 
 import javax.security.auth.Subject;
 import javax.security.auth.callback.Callback;
@@ -22,14 +18,19 @@ import javax.security.auth.callback.UnsupportedCallbackException;
 import javax.security.auth.login.LoginException;
 import javax.security.auth.spi.LoginModule;
 import org.wildfly.security.auth.principal.NamePrincipal;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
 
 /**
- * A JAAS {@link LoginModule} backed by a {@link Map}.
- * Users are initialized from {@link AbstractAuthenticationSuite#obtainTestIdentities}.
+ * A JAAS {@link LoginModule} backed by an {@link IdentityGenerator}.
  */
 public class TestJaasLoginModule implements LoginModule {
 
-    private final Map<String, char[]> identities = new HashMap<>();
+    // Identities are generated on demand so the module holds no state for each identity.
+    private final IdentityGenerator identities = IdentityGenerator.builder()
+            .setFirstIndex(1)
+            .setCount(99)
+            .build();
     private Subject subject;
     private CallbackHandler callbackHandler;
 
@@ -37,9 +38,6 @@ public class TestJaasLoginModule implements LoginModule {
     public void initialize(Subject subject, CallbackHandler callbackHandler, Map<String, ?> sharedState, Map<String, ?> options) {
         this.subject = subject;
         this.callbackHandler = callbackHandler;
-        obtainTestIdentities().forEach(identity -> {
-            this.identities.put(identity.username(), identity.password().toCharArray());
-        });
     }
 
     @Override
@@ -55,9 +53,9 @@ public class TestJaasLoginModule implements LoginModule {
 
         String username = nameCallback.getName();
         char[] password = passwordCallback.getPassword();
-        char[] passwordInModule = this.identities.get(username);
+        IdentityDefinition identity = this.identities.lookup(username);
 
-        boolean success = password != null && username != null && Arrays.equals(passwordInModule, password);
+        boolean success = password != null && identity != null && Arrays.equals(identity.password().toCharArray(), password);
         if (success) {
             this.subject.getPrincipals().add(new NamePrincipal(username));
             this.subject.getPrincipals().add(new groups("admin"));
@@ -81,19 +79,6 @@ public class TestJaasLoginModule implements LoginModule {
         return true;
     }
 
-    // TODO move this to common module together with methods in AbstractAuthenticationSuite classes
-    static Stream<TestJaasLoginModule.IdentityDefinition> obtainTestIdentities() {
-        List<TestJaasLoginModule.IdentityDefinition> identities = new ArrayList<>(100);
-        for (int i = 1 ; i < 100 ; i++) {
-            identities.add(new TestJaasLoginModule.IdentityDefinition(String.format("user%d", i),
-                    String.format("password%d", i)));
-        }
-
-        return identities.stream();
-    }
-
-    record IdentityDefinition(String username, String password) {}
-
     // Elytron is case sensitive and the default mapper is from "groups" (to roles)
     private static class groups implements Principal {
 
@@ -38,6 +38,8 @@ import org.wildfly.security.auth.client.AuthenticationContext;
 import org.wildfly.security.auth.client.MatchRule;
 import org.wildfly.security.sasl.SaslMechanismSelector;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.metrics.AuthenticationMetrics;
+import org.wildfly.security.tests.common.authauthz.metrics.AuthenticationPhase;
 import org.wildfly.security.tests.integration.authauthz.AbstractAuthenticationSuite;
 import org.wildfly.security.tests.integration.authauthz.SecurityRealmRegistrar;
 import org.wildfly.security.tests.integration.authauthz.deployment.SecuredEjb;
@@ -80,9 +82,13 @@ abstract class AbstractSaslSuiteRunner {
         };
 
         try {
+            // The connection is only established on the first invocation so the handshake recorded
+            // here also includes a single EJB invocation.
+            final long start = System.nanoTime();
             String principalString = authContext.runCallable(callable);
             if (expectSuccess) {
                 assertEquals(principalString, userName);
+                AuthenticationMetrics.getInstance().record(mechanism, AuthenticationPhase.HANDSHAKE, start);
             } else {
                 fail(String.format("EJBCLIENT000409 exception for mechanism '%s' should be thrown.", mechanism));
             }
@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.jboss.as.arquillian.api.ServerSetup;
@@ -27,8 +28,8 @@ import org.wildfly.security.tests.common.authauthz.TestFamily;
 import org.wildfly.security.tests.common.authauthz.TestFilter;
 import org.wildfly.security.tests.common.authauthz.TransportType;
 import org.wildfly.security.tests.common.authauthz.http.HttpTestClient;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
 import org.wildfly.security.tests.integration.authauthz.AbstractAuthenticationSuite;
-import org.wildfly.security.tests.integration.authauthz.AbstractAuthenticationSuite.IdentityDefinition;
 
 /**
  * Runner for brute force attack protection HTTP mechanism testing.
@@ -36,6 +37,15 @@ import org.wildfly.security.tests.integration.authauthz.AbstractAuthenticationSu
 @ServerSetup(BruteForceAuthnProtectionHttpSuiteRunner.ConfigurationServerSetupTask.class)
 public class BruteForceAuthnProtectionHttpSuiteRunner extends AbstractHttpSuiteRunner {
 
+    /*
+     * The server only accepts whole minutes for the brute force timeouts so both are set to the minimum of one minute,
+     * the tests wait for the configured value plus a margin for the server's cleanup task to run.
+     */
+    private static final int LOCKOUT_INTERVAL_MINUTES = 1;
+    private static final int SESSION_TIMEOUT_MINUTES = 1;
+    private static final long EXPIRY_MARGIN_MS = 1000;
+
+
     HttpTestClient testClient = HttpTestClient.builder()
                 .withToUri(AbstractHttpSuiteRunner::toURI)
                 .build();
@@ -113,14 +123,14 @@ public class BruteForceAuthnProtectionHttpSuiteRunner extends AbstractHttpSuiteR
         IdentityDefinition identityOne = nextIdentity();
         testClient.testHttpBadPassword(mechanism, identityOne.username(), "passwordX");
         testClient.testHttpBadPassword(mechanism, identityOne.username(), "passwordX");
-        Thread.sleep(61000);
+        Thread.sleep(TimeUnit.MINUTES.toMillis(LOCKOUT_INTERVAL_MINUTES) + EXPIRY_MARGIN_MS);
         testClient.testHttpSuccess(mechanism, identityOne.username(), identityOne.password());
     }
 
     public void testHttpBruteForceSessionTimeout(final HttpAuthenticationMechanism mechanism) throws Exception {
         IdentityDefinition identityOne = nextIdentity();
         testClient.testHttpBadPassword(mechanism, identityOne.username(), "passwordX");
-        Thread.sleep(121000);
+        Thread.sleep(TimeUnit.MINUTES.toMillis(SESSION_TIMEOUT_MINUTES) + EXPIRY_MARGIN_MS);
         testClient.testHttpBadPassword(mechanism, identityOne.username(), "passwordX");
         testClient.testHttpSuccess(mechanism, identityOne.username(), identityOne.password());
     }
@@ -154,8 +164,10 @@ public class BruteForceAuthnProtectionHttpSuiteRunner extends AbstractHttpSuiteR
             Map<String, String> properties = new HashMap<>();
             for (String realmName : delegateRealmNames()) {
                 properties.put(String.format("wildfly.elytron.realm.%s.brute-force.max-failed-attempts", realmName), "2");
-                properties.put(String.format("wildfly.elytron.realm.%s.brute-force.lockout-interval", realmName), "1");
-                properties.put(String.format("wildfly.elytron.realm.%s.brute-force.session-timeout", realmName), "2");
+                properties.put(String.format("wildfly.elytron.realm.%s.brute-force.lockout-interval", realmName),
+                        Integer.toString(LOCKOUT_INTERVAL_MINUTES));
+                properties.put(String.format("wildfly.elytron.realm.%s.brute-force.session-timeout", realmName),
+                        Integer.toString(SESSION_TIMEOUT_MINUTES));
             }
             return properties;
         }
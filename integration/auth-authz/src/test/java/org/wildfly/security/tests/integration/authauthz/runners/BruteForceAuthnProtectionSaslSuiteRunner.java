@@ -13,6 +13,7 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 import org.jboss.as.arquillian.api.ServerSetup;
 import org.junit.jupiter.api.DynamicTest;
@@ -25,12 +26,21 @@ import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.TestFamily;
 import org.wildfly.security.tests.common.authauthz.TestFilter;
 import org.wildfly.security.tests.common.authauthz.TransportType;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
 import org.wildfly.security.tests.integration.authauthz.AbstractAuthenticationSuite;
-import org.wildfly.security.tests.integration.authauthz.AbstractAuthenticationSuite.IdentityDefinition;
 
 @ServerSetup(BruteForceAuthnProtectionSaslSuiteRunner.ConfigurationServerSetupTask.class)
 public class BruteForceAuthnProtectionSaslSuiteRunner extends AbstractSaslSuiteRunner {
 
+    /*
+     * The server only accepts whole minutes for the brute force timeouts so both are set to the minimum of one minute,
+     * the tests wait for the configured value plus a margin for the server's cleanup task to run.
+     */
+    private static final int LOCKOUT_INTERVAL_MINUTES = 1;
+    private static final int SESSION_TIMEOUT_MINUTES = 1;
+    private static final long EXPIRY_MARGIN_MS = 1000;
+
+
     static String[] delegateRealmNames() {
         return AbstractAuthenticationSuite.getSecurityRealmRegistrar().getDelegateRealmNames();
     }
@@ -113,7 +123,7 @@ public class BruteForceAuthnProtectionSaslSuiteRunner extends AbstractSaslSuiteR
         IdentityDefinition identityOne = nextIdentity();
         performSaslTest(mechanism.getMechanismName(), identityOne.username(), "passwordX", false);
         performSaslTest(mechanism.getMechanismName(), identityOne.username(), "passwordX", false);
-        Thread.sleep(61000);
+        Thread.sleep(TimeUnit.MINUTES.toMillis(LOCKOUT_INTERVAL_MINUTES) + EXPIRY_MARGIN_MS);
         performSaslTest(mechanism.getMechanismName(), identityOne.username(), identityOne.password(), true);
     }
 
@@ -122,7 +132,7 @@ public class BruteForceAuthnProtectionSaslSuiteRunner extends AbstractSaslSuiteR
 
         IdentityDefinition identityOne = nextIdentity();
         performSaslTest(mechanism.getMechanismName(), identityOne.username(), "passwordX", false);
-        Thread.sleep(121000);
+        Thread.sleep(TimeUnit.MINUTES.toMillis(SESSION_TIMEOUT_MINUTES) + EXPIRY_MARGIN_MS);
         performSaslTest(mechanism.getMechanismName(), identityOne.username(), "passwordX", false);
         performSaslTest(mechanism.getMechanismName(), identityOne.username(), identityOne.password(), true);
     }
@@ -158,8 +168,10 @@ public class BruteForceAuthnProtectionSaslSuiteRunner extends AbstractSaslSuiteR
             Map<String, String> properties = new HashMap<>();
             for (String realmName : delegateRealmNames()) {
                 properties.put(String.format("wildfly.elytron.realm.%s.brute-force.max-failed-attempts", realmName), "2");
-                properties.put(String.format("wildfly.elytron.realm.%s.brute-force.lockout-interval", realmName), "1");
-                properties.put(String.format("wildfly.elytron.realm.%s.brute-force.session-timeout", realmName), "2");
+                properties.put(String.format("wildfly.elytron.realm.%s.brute-force.lockout-interval", realmName),
+                        Integer.toString(LOCKOUT_INTERVAL_MINUTES));
+                properties.put(String.format("wildfly.elytron.realm.%s.brute-force.session-timeout", realmName),
+                        Integer.toString(SESSION_TIMEOUT_MINUTES));
             }
             return properties;
         }
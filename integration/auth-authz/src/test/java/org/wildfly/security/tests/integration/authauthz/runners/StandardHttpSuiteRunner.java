@@ -19,8 +19,8 @@ import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.TestFamily;
 import org.wildfly.security.tests.common.authauthz.TestFilter;
 import org.wildfly.security.tests.common.authauthz.http.HttpTestClient;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
 import org.wildfly.security.tests.integration.authauthz.AbstractAuthenticationSuite;
-import org.wildfly.security.tests.integration.authauthz.AbstractAuthenticationSuite.IdentityDefinition;
 
 /**
  * Runner for standard HTTP mechanism testing.
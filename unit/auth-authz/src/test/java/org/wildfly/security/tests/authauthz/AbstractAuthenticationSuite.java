@@ -8,10 +8,10 @@ package org.wildfly.security.tests.authauthz;
 import java.io.IOException;
 import java.security.Provider;
 import java.security.Security;
-import java.util.ArrayList;
 import java.util.Collections;
-import java.util.List;
+import java.util.Deque;
 import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.Executors;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.function.Supplier;
@@ -27,13 +27,26 @@ import org.wildfly.security.auth.permission.LoginPermission;
 import org.wildfly.security.auth.realm.BruteForceRealmWrapper;
 import org.wildfly.security.auth.server.SecurityDomain;
 import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.ClearPasswordSpec;
+import org.wildfly.security.password.spec.EncryptablePasswordSpec;
+import org.wildfly.security.password.spec.IteratedPasswordAlgorithmSpec;
+import org.wildfly.security.password.spec.PasswordSpec;
 import org.wildfly.security.permission.PermissionVerifier;
+import org.wildfly.security.tests.authauthz.runners.AttackHttpSuiteRunner;
+import org.wildfly.security.tests.authauthz.runners.AttackSaslSuiteRunner;
 import org.wildfly.security.tests.authauthz.runners.BruteForceAuthnProtectionHttpSuiteRunner;
 import org.wildfly.security.tests.authauthz.runners.BruteForceAuthnProtectionSaslSuiteRunner;
+import org.wildfly.security.tests.authauthz.runners.BruteForceStressSuiteRunner;
+import org.wildfly.security.tests.authauthz.runners.LoadHttpSuiteRunner;
+import org.wildfly.security.tests.authauthz.runners.SaslConnectionStormSuiteRunner;
 import org.wildfly.security.tests.authauthz.runners.StandardHttpSuiteRunner;
 import org.wildfly.security.tests.authauthz.runners.StandardSaslSuiteRunner;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityGenerator;
+import org.wildfly.security.tests.common.authauthz.metrics.AuthenticationMetrics;
 
 /**
  * Base definition of the {@code Suite} of tests that will be used to run the authentication tests
@@ -46,7 +59,12 @@ import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
         StandardHttpSuiteRunner.class,
         StandardSaslSuiteRunner.class,
         BruteForceAuthnProtectionHttpSuiteRunner.class,
-        BruteForceAuthnProtectionSaslSuiteRunner.class
+        BruteForceAuthnProtectionSaslSuiteRunner.class,
+        BruteForceStressSuiteRunner.class,
+        AttackHttpSuiteRunner.class,
+        AttackSaslSuiteRunner.class,
+        LoadHttpSuiteRunner.class,
+        SaslConnectionStormSuiteRunner.class
 })
 public abstract class AbstractAuthenticationSuite {
 
@@ -55,6 +73,20 @@ public abstract class AbstractAuthenticationSuite {
      */
 
     private static final String REALM_NAME = "TestRealm";
+    // The lockout threshold of the brute force protection, the same as the default of BruteForceRealmWrapper, used by
+    // createSecurityDomain() and the attack runners so the runners can stay below or reach it.
+    public static final int BRUTE_FORCE_MAX_FAILED_ATTEMPTS = 10;
+    // The number of failure sessions the brute force protection tracks, the same as the default of
+    // BruteForceRealmWrapper, set by createSecurityDomain() so the stress runner knows how many sessions are retained.
+    public static final int BRUTE_FORCE_MAX_CACHED_SESSIONS = 25_000;
+
+    // Register a lot of identities so each test can use it's own without
+    // state being contaminated from other tests.
+    private static final IdentityGenerator IDENTITY_GENERATOR = IdentityGenerator.builder()
+            .setFirstIndex(0)
+            .setCount(100)
+            .applySystemProperties()
+            .build();
 
     // Test State
     // TODO - This will become the providers needed for testing.
@@ -68,6 +100,8 @@ public abstract class AbstractAuthenticationSuite {
     private static volatile Supplier<Set<SaslAuthenticationMechanism>> supportedSaslAuthenticationMechanisms;
     // Executor
     private static volatile ScheduledExecutorService executorService;
+    // Resources shared by the runners for the lifetime of the realm, closed in reverse order of registration.
+    private static final Deque<AutoCloseable> suiteResources = new ConcurrentLinkedDeque<>();
 
     /*
      * New Registration Methods
@@ -82,15 +116,55 @@ public abstract class AbstractAuthenticationSuite {
         if (realmType != null) {
             // Only need one thread as just used to trigger timeouts.
             executorService = Executors.newScheduledThreadPool(1);
-        } else if (executorService != null) {
+            AuthenticationMetrics.getInstance().begin(realmType);
+        } else {
             try {
-                executorService.shutdown();
+                closeSuiteResources();
             } finally {
-                executorService = null;
+                AuthenticationMetrics.getInstance().end();
+                if (executorService != null) {
+                    try {
+                        executorService.shutdown();
+                    } finally {
+                        executorService = null;
+                    }
+                }
             }
         }
     }
 
+    /**
+     * Register a resource to be shared by the runners until the current realm is unregistered.
+     *
+     * This allows expensive resources such as servers to be started once for all of the runners
+     * of a suite rather than once for each runner.
+     *
+     * @param resource the resource to close when the realm is unregistered.
+     */
+    public static void registerSuiteResource(final AutoCloseable resource) {
+        suiteResources.push(resource);
+    }
+
+    private static void closeSuiteResources() {
+        IllegalStateException failure = null;
+        AutoCloseable resource;
+        while ((resource = suiteResources.poll()) != null) {
+            try {
+                resource.close();
+            } catch (Exception e) {
+                if (failure == null) {
+                    failure = new IllegalStateException("Unable to close suite resource", e);
+                } else {
+                    failure.addSuppressed(e);
+                }
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
     public static String realmType() {
         return realmType;
     }
@@ -119,6 +193,8 @@ public abstract class AbstractAuthenticationSuite {
         return BruteForceRealmWrapper.create()
             .wrapping(original)
             .withExecutor(executorService)
+            .setMaxFailedAttempts(BRUTE_FORCE_MAX_FAILED_ATTEMPTS)
+            .setMaxCachedSessions(BRUTE_FORCE_MAX_CACHED_SESSIONS)
             .wrap(SecurityRealm.class);
     }
 
@@ -132,6 +208,42 @@ public abstract class AbstractAuthenticationSuite {
                 : supportedSaslAuthenticationMechanisms.get();
     }
 
+    /**
+     * Remove the HTTP mechanisms which need the clear password if the realm stores its passwords using a hashed
+     * algorithm configured on the {@code IdentityGenerator}.
+     *
+     * @param mechanisms the mechanisms the realm supports with clear passwords, this {@code Set} is modified.
+     * @return the mechanisms supported with the configured password algorithm.
+     */
+    static Set<HttpAuthenticationMechanism> passwordAlgorithmHttpMechanisms(
+            final Set<HttpAuthenticationMechanism> mechanisms) {
+        if (!clearPasswordAlgorithm()) {
+            mechanisms.remove(HttpAuthenticationMechanism.DIGEST_MD5);
+        }
+
+        return mechanisms;
+    }
+
+    /**
+     * Remove the SASL mechanisms which need the clear password if the realm stores its passwords using a hashed
+     * algorithm configured on the {@code IdentityGenerator}.
+     *
+     * @param mechanisms the mechanisms the realm supports with clear passwords, this {@code Set} is modified.
+     * @return the mechanisms supported with the configured password algorithm.
+     */
+    static Set<SaslAuthenticationMechanism> passwordAlgorithmSaslMechanisms(
+            final Set<SaslAuthenticationMechanism> mechanisms) {
+        if (!clearPasswordAlgorithm()) {
+            mechanisms.removeIf(m -> m.getMechanismName().startsWith("DIGEST-"));
+        }
+
+        return mechanisms;
+    }
+
+    private static boolean clearPasswordAlgorithm() {
+        return ClearPassword.ALGORITHM_CLEAR.equals(IDENTITY_GENERATOR.getPasswordAlgorithm());
+    }
+
     @BeforeSuite
     static void registerProvider() {
         final WildFlyElytronProvider provider = new WildFlyElytronProvider();
@@ -149,17 +261,25 @@ public abstract class AbstractAuthenticationSuite {
         }
     }
 
-    static Stream<IdentityDefinition> obtainTestIdentities() {
-        // Register a lot of identities so each test can use it's own without
-        // state being contaminated from other tests.
-        List<IdentityDefinition> identities = new ArrayList<>(100);
-        for (int i = 0 ; i < 100 ; i++) {
-            identities.add(new IdentityDefinition(String.format("user%d", i),
-                    String.format("password%d", i)));
-        }
+    public static IdentityGenerator identityGenerator() {
+        return IDENTITY_GENERATOR;
+    }
 
-        return identities.stream();
+    public static Stream<IdentityDefinition> obtainTestIdentities() {
+        return IDENTITY_GENERATOR.stream();
     }
 
-    record IdentityDefinition(String username, String password) {}
+    /**
+     * Create the {@code PasswordSpec} to store the specified clear text password using the
+     * algorithm configured on the {@link IdentityGenerator}.
+     */
+    static PasswordSpec toPasswordSpec(final String password) {
+        if (ClearPassword.ALGORITHM_CLEAR.equals(IDENTITY_GENERATOR.getPasswordAlgorithm())) {
+            return new ClearPasswordSpec(password.toCharArray());
+        }
+
+        final int iterationCount = IDENTITY_GENERATOR.getIterationCount();
+        return new EncryptablePasswordSpec(password.toCharArray(),
+                iterationCount > 0 ? new IteratedPasswordAlgorithmSpec(iterationCount) : null);
+    }
 }
@@ -27,8 +27,6 @@ import org.wildfly.security.auth.server.SecurityRealm;
 import org.wildfly.security.credential.PasswordCredential;
 import org.wildfly.security.password.Password;
 import org.wildfly.security.password.PasswordFactory;
-import org.wildfly.security.password.interfaces.ClearPassword;
-import org.wildfly.security.password.spec.ClearPasswordSpec;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
 
@@ -45,7 +43,7 @@ public class FileSystemSecurityRealmTest extends AbstractAuthenticationSuite {
     @BeforeSuite
     public static void setup() throws Exception {
         // Create and local resources needed for the SecurityRealm
-        passwordFactory = PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR, TEST_PROVIDERS);
+        passwordFactory = PasswordFactory.getInstance(identityGenerator().getPasswordAlgorithm(), TEST_PROVIDERS);
          // Begin any server processes needed by the realm, either in-vm or test containers.
         //  N/A
         // Register a factory for instantiating a security realm instance.
@@ -90,26 +88,26 @@ public class FileSystemSecurityRealmTest extends AbstractAuthenticationSuite {
 
     static Password toPassword(final String password) {
         try {
-            return passwordFactory.generatePassword(new ClearPasswordSpec(password.toCharArray()));
+            return passwordFactory.generatePassword(toPasswordSpec(password));
         } catch (InvalidKeySpecException e) {
             throw new IllegalStateException(e);
         }
     }
 
     static Set<SaslAuthenticationMechanism> realmSaslMechanisms() {
-        return EnumSet.of(SaslAuthenticationMechanism.PLAIN,
+        return passwordAlgorithmSaslMechanisms(EnumSet.of(SaslAuthenticationMechanism.PLAIN,
                 SaslAuthenticationMechanism.DIGEST_MD5,
                 SaslAuthenticationMechanism.DIGEST_SHA_256,
                 SaslAuthenticationMechanism.DIGEST_SHA_384,
                 SaslAuthenticationMechanism.DIGEST_SHA,
                 SaslAuthenticationMechanism.DIGEST_SHA_512_256,
-                SaslAuthenticationMechanism.DIGEST_SHA_512);
+                SaslAuthenticationMechanism.DIGEST_SHA_512));
     }
 
     static Set<HttpAuthenticationMechanism> realmHttpMechanisms() {
-        return EnumSet.of(HttpAuthenticationMechanism.BASIC,
+        return passwordAlgorithmHttpMechanisms(EnumSet.of(HttpAuthenticationMechanism.BASIC,
                 HttpAuthenticationMechanism.DIGEST_MD5,
                 HttpAuthenticationMechanism.FORM,
-                HttpAuthenticationMechanism.PROGRAMMATIC);
+                HttpAuthenticationMechanism.PROGRAMMATIC));
     }
 }
@@ -5,10 +5,10 @@
 
 package org.wildfly.security.tests.authauthz;
 
-import java.sql.Connection;
-import java.sql.PreparedStatement;
+import java.security.NoSuchAlgorithmException;
+import java.security.spec.InvalidKeySpecException;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.util.Base64;
 import java.util.EnumSet;
 import java.util.Set;
 
@@ -18,9 +18,15 @@ import org.junit.platform.suite.api.BeforeSuite;
 import org.wildfly.security.auth.realm.jdbc.JdbcSecurityRealm;
 import org.wildfly.security.auth.realm.jdbc.mapper.PasswordKeyMapper;
 import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.password.Password;
+import org.wildfly.security.password.PasswordFactory;
 import org.wildfly.security.password.interfaces.ClearPassword;
+import org.wildfly.security.password.spec.HashPasswordSpec;
+import org.wildfly.security.password.spec.IteratedSaltedHashPasswordSpec;
+import org.wildfly.security.password.spec.SaltedHashPasswordSpec;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.jdbc.JdbcIdentityLoader;
 
 /**
  * A {@code Suite} instance for testing against a {@code SecurityRealm} backed by a database.
@@ -28,6 +34,9 @@ import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
 public class JdbcSecurityRealmTest extends AbstractAuthenticationSuite {
 
     private static JDBCDataSource dataSource;
+    private static PasswordFactory passwordFactory;
+    // An example of how passwords are encoded, used to select the columns to map.
+    private static JdbcIdentityLoader.EncodedPassword encodedExample;
 
     @BeforeSuite
     public static void setup() throws Exception {
@@ -37,7 +46,7 @@ public class JdbcSecurityRealmTest extends AbstractAuthenticationSuite {
         //  N/A
         // Register a factory for instantiating a security realm instance.
         //  - In integration testing this last step may be register a utility to define the realm in mgmt.
-        register("Map", JdbcSecurityRealmTest::createSecurityRealm,
+        register("JDBC", JdbcSecurityRealmTest::createSecurityRealm,
                 JdbcSecurityRealmTest::realmHttpMechanisms,
                 JdbcSecurityRealmTest::realmSaslMechanisms);
     }
@@ -52,61 +61,85 @@ public class JdbcSecurityRealmTest extends AbstractAuthenticationSuite {
     }
 
     static SecurityRealm createSecurityRealm() {
-        PasswordKeyMapper passwordKeyMapper = PasswordKeyMapper.builder()
-                .setDefaultAlgorithm(ClearPassword.ALGORITHM_CLEAR)
-                .setHashColumn(1)
-                .build();
+        PasswordKeyMapper.Builder passwordKeyMapper = PasswordKeyMapper.builder()
+                .setDefaultAlgorithm(identityGenerator().getPasswordAlgorithm())
+                .setHashColumn(1);
+        if (encodedExample != null) {
+            if (encodedExample.salt() != null) {
+                passwordKeyMapper.setSaltColumn(2);
+            }
+            if (encodedExample.iterationCount() > 0) {
+                passwordKeyMapper.setIterationCountColumn(3);
+            }
+        }
         JdbcSecurityRealm realm = JdbcSecurityRealm.builder()
-                .principalQuery("SELECT password FROM jdbc_realm_users WHERE username = ?")
-                .withMapper(passwordKeyMapper)
+                .principalQuery(encodedExample != null
+                        ? "SELECT password, salt, iteration_count FROM jdbc_realm_users WHERE username = ?"
+                        : "SELECT password FROM jdbc_realm_users WHERE username = ?")
+                .withMapper(passwordKeyMapper.build())
                 .from(dataSource)
                 .build();
         return realm;
     }
 
-    private static void createDataSource() throws SQLException {
+    private static void createDataSource() throws SQLException, NoSuchAlgorithmException {
         dataSource = new JDBCDataSource();
         dataSource.setDatabase("mem:jdbc-security-realm-test");
         dataSource.setUser("sa");
-        createUsersTable();
-        insertUsers();
-    }
-
-    private static void createUsersTable() throws SQLException {
-        try (Connection connection = dataSource.getConnection();
-                Statement statement = connection.createStatement()) {
 
-            statement.executeUpdate("DROP TABLE IF EXISTS jdbc_realm_users");
-            statement.executeUpdate("CREATE TABLE jdbc_realm_users (username VARCHAR(50), password VARCHAR(50), PRIMARY KEY(username))");
+        JdbcIdentityLoader.Builder loaderBuilder = JdbcIdentityLoader.builder()
+                .setConnectionFactory(dataSource::getConnection);
+        if (ClearPassword.ALGORITHM_CLEAR.equals(identityGenerator().getPasswordAlgorithm())) {
+            passwordFactory = null;
+            encodedExample = null;
+        } else {
+            passwordFactory = PasswordFactory.getInstance(identityGenerator().getPasswordAlgorithm(), TEST_PROVIDERS);
+            encodedExample = encodePassword("example");
+            loaderBuilder.setPasswordEncoder(JdbcSecurityRealmTest::encodePassword);
         }
+        JdbcIdentityLoader loader = loaderBuilder.build();
+        loader.createTables();
+        loader.load(obtainTestIdentities());
     }
 
-    private static void insertUsers() throws SQLException {
-        try (Connection connection = dataSource.getConnection();
-                PreparedStatement statement = connection.prepareStatement("INSERT INTO jdbc_realm_users (username, password) VALUES (?, ?)")) {
-
-            for (IdentityDefinition identity : obtainTestIdentities().toList()) {
-                statement.setString(1, identity.username());
-                statement.setString(2, identity.password());
-                statement.executeUpdate();
+    /**
+     * Hash the password using the algorithm configured on the {@code IdentityGenerator} and encode the
+     * resulting hash and salt using base64 as expected by the {@code PasswordKeyMapper}.
+     */
+    private static JdbcIdentityLoader.EncodedPassword encodePassword(final String password) {
+        final Base64.Encoder encoder = Base64.getEncoder();
+        try {
+            Password hashed = passwordFactory.generatePassword(toPasswordSpec(password));
+            if (passwordFactory.convertibleToKeySpec(hashed, IteratedSaltedHashPasswordSpec.class)) {
+                IteratedSaltedHashPasswordSpec spec = passwordFactory.getKeySpec(hashed, IteratedSaltedHashPasswordSpec.class);
+                return new JdbcIdentityLoader.EncodedPassword(encoder.encodeToString(spec.getHash()),
+                        encoder.encodeToString(spec.getSalt()), spec.getIterationCount());
+            } else if (passwordFactory.convertibleToKeySpec(hashed, SaltedHashPasswordSpec.class)) {
+                SaltedHashPasswordSpec spec = passwordFactory.getKeySpec(hashed, SaltedHashPasswordSpec.class);
+                return new JdbcIdentityLoader.EncodedPassword(encoder.encodeToString(spec.getHash()),
+                        encoder.encodeToString(spec.getSalt()), 0);
             }
+            HashPasswordSpec spec = passwordFactory.getKeySpec(hashed, HashPasswordSpec.class);
+            return new JdbcIdentityLoader.EncodedPassword(encoder.encodeToString(spec.getDigest()), null, 0);
+        } catch (InvalidKeySpecException e) {
+            throw new IllegalStateException(e);
         }
     }
 
     static Set<SaslAuthenticationMechanism> realmSaslMechanisms() {
-        return EnumSet.of(SaslAuthenticationMechanism.PLAIN,
+        return passwordAlgorithmSaslMechanisms(EnumSet.of(SaslAuthenticationMechanism.PLAIN,
                 SaslAuthenticationMechanism.DIGEST_MD5,
                 SaslAuthenticationMechanism.DIGEST_SHA_256,
                 SaslAuthenticationMechanism.DIGEST_SHA_384,
                 SaslAuthenticationMechanism.DIGEST_SHA,
                 SaslAuthenticationMechanism.DIGEST_SHA_512_256,
-                SaslAuthenticationMechanism.DIGEST_SHA_512);
+                SaslAuthenticationMechanism.DIGEST_SHA_512));
     }
 
     static Set<HttpAuthenticationMechanism> realmHttpMechanisms() {
-        return EnumSet.of(HttpAuthenticationMechanism.BASIC,
+        return passwordAlgorithmHttpMechanisms(EnumSet.of(HttpAuthenticationMechanism.BASIC,
                 HttpAuthenticationMechanism.DIGEST_MD5,
                 HttpAuthenticationMechanism.FORM,
-                HttpAuthenticationMechanism.PROGRAMMATIC);
+                HttpAuthenticationMechanism.PROGRAMMATIC));
     }
 }
@@ -5,11 +5,9 @@
 
 package org.wildfly.security.tests.authauthz;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Base64;
 import java.util.EnumSet;
 import java.util.Set;
 
@@ -20,6 +18,7 @@ import org.wildfly.security.auth.realm.ldap.LdapSecurityRealmBuilder;
 import org.wildfly.security.auth.realm.ldap.SimpleDirContextFactoryBuilder;
 import org.wildfly.security.auth.server.SecurityRealm;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.PortAllocator;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.ldap.LdapService;
 
@@ -30,7 +29,8 @@ public class LdapSecurityRealmTest extends AbstractAuthenticationSuite {
 
     static final String SERVER_DN = "uid=server,dc=security,dc=wildfly,dc=org";
     static final String SERVER_CREDENTIAL = "serverPassword";
-    static final int LDAP_PORT = 11390;
+    // Allocated for each suite so the suites can be run concurrently in separate forks.
+    private static int ldapPort;
 
     private static final Path LDAP_DIR = Paths.get("tests-files").toAbsolutePath()
             .resolve(LdapSecurityRealmTest.class.getSimpleName()).resolve("ldap");
@@ -62,7 +62,7 @@ public class LdapSecurityRealmTest extends AbstractAuthenticationSuite {
     static SecurityRealm createSecurityRealm() {
         LdapSecurityRealmBuilder builder = LdapSecurityRealmBuilder.builder()
                 .setDirContextSupplier(() -> SimpleDirContextFactoryBuilder.builder()
-                    .setProviderUrl(String.format("ldap://localhost:%d/", LDAP_PORT))
+                    .setProviderUrl(String.format("ldap://localhost:%d/", ldapPort))
                     .setSecurityPrincipal(SERVER_DN)
                     .setSecurityCredential(SERVER_CREDENTIAL)
                     .build().obtainDirContext(DirContextFactory.ReferralMode.IGNORE))
@@ -75,23 +75,15 @@ public class LdapSecurityRealmTest extends AbstractAuthenticationSuite {
     }
 
     private static void createLdap() throws Exception {
-        StringBuilder identitiesString = new StringBuilder();
-        obtainTestIdentities().forEach(identity -> {
-            identitiesString.append(String.format("dn: uid=%s,dc=security,dc=wildfly,dc=org\n", identity.username()));
-            identitiesString.append("objectClass: top\nobjectClass: inetOrgPerson\nobjectClass: person\nobjectClass: organizationalPerson\n");
-            identitiesString.append(String.format("cn: %s\n", identity.username()));
-            identitiesString.append(String.format("sn: %s\n", identity.username()));
-            identitiesString.append(String.format("uid: %s\n", identity.username()));
-            identitiesString.append(String.format("userPassword:: %s\n\n", Base64.getEncoder().encodeToString(identity.password().getBytes())));
-        });
-
+        ldapPort = PortAllocator.obtainPort("ldap.port", "localhost");
         ldapService = LdapService.builder()
                 .setWorkingDir(LDAP_DIR.toFile())
+                .setInMemory(true)
                 .createDirectoryService(LdapSecurityRealmTest.class.getSimpleName())
                 .addPartition("Elytron", "dc=security,dc=wildfly,dc=org", 5, "uid")
                 .importLdif("ldap-security-realm-test.ldif")
-                .importLdif(new ByteArrayInputStream(identitiesString.toString().getBytes()))
-                .addTcpServer("Default TCP", "localhost", LDAP_PORT)
+                .importIdentities("dc=security,dc=wildfly,dc=org", obtainTestIdentities())
+                .addTcpServer("Default TCP", "localhost", ldapPort)
                 .start();
     }
 
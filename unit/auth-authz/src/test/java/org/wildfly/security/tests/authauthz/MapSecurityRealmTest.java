@@ -18,14 +18,14 @@ import org.wildfly.security.auth.realm.SimpleMapBackedSecurityRealm;
 import org.wildfly.security.auth.realm.SimpleRealmEntry;
 import org.wildfly.security.auth.server.SecurityRealm;
 import org.wildfly.security.authz.Attributes;
+import org.wildfly.security.authz.MapAttributes;
 import org.wildfly.security.credential.Credential;
 import org.wildfly.security.credential.PasswordCredential;
 import org.wildfly.security.password.Password;
 import org.wildfly.security.password.PasswordFactory;
-import org.wildfly.security.password.interfaces.ClearPassword;
-import org.wildfly.security.password.spec.ClearPasswordSpec;
 import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
 
 
 /**
@@ -41,7 +41,7 @@ public class MapSecurityRealmTest extends AbstractAuthenticationSuite {
     public static void setup() throws Exception {
         // Create and local resources needed for the SecurityRealm
         registerProvider();
-        passwordFactory = PasswordFactory.getInstance(ClearPassword.ALGORITHM_CLEAR, TEST_PROVIDERS);
+        passwordFactory = PasswordFactory.getInstance(identityGenerator().getPasswordAlgorithm(), TEST_PROVIDERS);
         // Begin any server processes needed by the realm, either in-vm or test containers.
         //  N/A
         // Register a factory for instantiating a security realm instance.
@@ -69,7 +69,7 @@ public class MapSecurityRealmTest extends AbstractAuthenticationSuite {
                             List<Credential> credentials =
                                     Collections.singletonList(new PasswordCredential(toPassword(i.password())));
 
-                            return new SimpleRealmEntry(credentials, Attributes.EMPTY);
+                            return new SimpleRealmEntry(credentials, toAttributes(i));
                         }
         )));
 
@@ -78,26 +78,39 @@ public class MapSecurityRealmTest extends AbstractAuthenticationSuite {
 
     static Password toPassword(final String password) {
         try {
-            return passwordFactory.generatePassword(new ClearPasswordSpec(password.toCharArray()));
+            return passwordFactory.generatePassword(toPasswordSpec(password));
         } catch (InvalidKeySpecException e) {
             throw new IllegalStateException(e);
         }
     }
 
+    static Attributes toAttributes(final IdentityDefinition identity) {
+        if (identity.groups().isEmpty() && identity.attributes().isEmpty()) {
+            return Attributes.EMPTY;
+        }
+
+        MapAttributes attributes = new MapAttributes(identity.attributes());
+        if (!identity.groups().isEmpty()) {
+            attributes.addAll("groups", identity.groups());
+        }
+
+        return attributes;
+    }
+
     static Set<SaslAuthenticationMechanism> realmSaslMechanisms() {
-        return EnumSet.of(SaslAuthenticationMechanism.PLAIN,
+        return passwordAlgorithmSaslMechanisms(EnumSet.of(SaslAuthenticationMechanism.PLAIN,
                 SaslAuthenticationMechanism.DIGEST_MD5,
                 SaslAuthenticationMechanism.DIGEST_SHA_256,
                 SaslAuthenticationMechanism.DIGEST_SHA_384,
                 SaslAuthenticationMechanism.DIGEST_SHA,
                 SaslAuthenticationMechanism.DIGEST_SHA_512_256,
-                SaslAuthenticationMechanism.DIGEST_SHA_512);
+                SaslAuthenticationMechanism.DIGEST_SHA_512));
     }
 
     static Set<HttpAuthenticationMechanism> realmHttpMechanisms() {
-        return EnumSet.of(HttpAuthenticationMechanism.BASIC,
+        return passwordAlgorithmHttpMechanisms(EnumSet.of(HttpAuthenticationMechanism.BASIC,
                 HttpAuthenticationMechanism.DIGEST_MD5,
                 HttpAuthenticationMechanism.FORM,
-                HttpAuthenticationMechanism.PROGRAMMATIC);
+                HttpAuthenticationMechanism.PROGRAMMATIC));
     }
 }
@@ -4,11 +4,10 @@
  */
 package org.wildfly.security.tests.authauthz;
 
-import static org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite.obtainTestIdentities;
+import static org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite.identityGenerator;
 
 import java.io.IOException;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.Map;
 
 import javax.security.auth.Subject;
@@ -20,13 +19,13 @@ import javax.security.auth.callback.UnsupportedCallbackException;
 import javax.security.auth.login.LoginException;
 import javax.security.auth.spi.LoginModule;
 
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+
 /**
- * A JAAS {@link LoginModule} backed by a {@link Map}.
- * Users are initialized from {@link AbstractAuthenticationSuite#obtainTestIdentities}.
+ * A JAAS {@link LoginModule} backed by the identities of {@link AbstractAuthenticationSuite#identityGenerator}.
  */
 public class TestJaasLoginModule implements LoginModule {
 
-    private final Map<String, char[]> identities = new HashMap<>();
     private Subject subject;
     private CallbackHandler callbackHandler;
 
@@ -34,9 +33,6 @@ public class TestJaasLoginModule implements LoginModule {
     public void initialize(Subject subject, CallbackHandler callbackHandler, Map<String, ?> sharedState, Map<String, ?> options) {
         this.subject = subject;
         this.callbackHandler = callbackHandler;
-        obtainTestIdentities().forEach(identity -> {
-            this.identities.put(identity.username(), identity.password().toCharArray());
-        });
     }
 
     @Override
@@ -52,9 +48,9 @@ public class TestJaasLoginModule implements LoginModule {
 
         String username = nameCallback.getName();
         char[] password = passwordCallback.getPassword();
-        char[] passwordInModule = this.identities.get(username);
+        IdentityDefinition identity = identityGenerator().lookup(username);
 
-        return password != null && username != null && Arrays.equals(passwordInModule, password);
+        return password != null && identity != null && Arrays.equals(identity.password().toCharArray(), password);
     }
 
     @Override
@@ -0,0 +1,102 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.authauthz;
+
+import java.util.function.Supplier;
+
+import org.wildfly.common.function.ExceptionRunnable;
+import org.wildfly.security.auth.server.SecurityRealm;
+
+/**
+ * The {@code SecurityRealm} types tested by the realm suites in this module.
+ *
+ * Each value wraps the lifecycle methods of the corresponding suite so the same realm factories used
+ * by the functional tests can be driven outside of JUnit, e.g. by benchmarks.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public enum TestSecurityRealm {
+
+    MAP("Map", MapSecurityRealmTest::setup, MapSecurityRealmTest::createSecurityRealm, MapSecurityRealmTest::endRealm),
+    PROPERTIES("Properties", PropertiesSecurityRealmTest::beginRealm, PropertiesSecurityRealmTest::createSecurityRealm,
+            PropertiesSecurityRealmTest::endRealm),
+    FILESYSTEM("FileSystem", FileSystemSecurityRealmTest::setup, FileSystemSecurityRealmTest::createSecurityRealm,
+            FileSystemSecurityRealmTest::endRealm),
+    JDBC("JDBC", JdbcSecurityRealmTest::setup, JdbcSecurityRealmTest::createSecurityRealm, JdbcSecurityRealmTest::endRealm),
+    LDAP("LDAP", LdapSecurityRealmTest::setup, LdapSecurityRealmTest::createSecurityRealm, LdapSecurityRealmTest::endRealm),
+    JAAS("JAAS", JaasSecurityRealmTest::setup, JaasSecurityRealmTest::createSecurityRealm, JaasSecurityRealmTest::endRealm);
+
+    private final String realmType;
+    private final ExceptionRunnable<Exception> beginRealm;
+    private final Supplier<SecurityRealm> realmFactory;
+    private final ExceptionRunnable<Exception> endRealm;
+
+    TestSecurityRealm(final String realmType, final ExceptionRunnable<Exception> beginRealm,
+            final Supplier<SecurityRealm> realmFactory, final ExceptionRunnable<Exception> endRealm) {
+        this.realmType = realmType;
+        this.beginRealm = beginRealm;
+        this.realmFactory = realmFactory;
+        this.endRealm = endRealm;
+    }
+
+    /**
+     * Get the realm type name as registered by the corresponding suite.
+     *
+     * @return the realm type name.
+     */
+    public String getRealmType() {
+        return realmType;
+    }
+
+    /**
+     * Register the Elytron provider and create any local resources or in-vm servers needed by the realm.
+     *
+     * @throws Exception if the realm resources can not be created.
+     */
+    public void begin() throws Exception {
+        AbstractAuthenticationSuite.registerProvider();
+        beginRealm.run();
+    }
+
+    /**
+     * Create a new instance of the {@code SecurityRealm}, {@link #begin()} must have been called first.
+     *
+     * @return a new instance of the {@code SecurityRealm}.
+     */
+    public SecurityRealm createSecurityRealm() {
+        return realmFactory.get();
+    }
+
+    /**
+     * Stop any servers and clean up any resources created by {@link #begin()}.
+     *
+     * @throws Exception if the realm resources can not be cleaned up.
+     */
+    public void end() throws Exception {
+        try {
+            endRealm.run();
+        } finally {
+            AbstractAuthenticationSuite.endSuite();
+        }
+    }
+
+    /**
+     * Find the {@code TestSecurityRealm} with the specified realm type name.
+     *
+     * @param realmType the realm type name.
+     * @return the matching {@code TestSecurityRealm}.
+     * @throws IllegalArgumentException if the realm type is not known.
+     */
+    public static TestSecurityRealm forRealmType(final String realmType) {
+        for (TestSecurityRealm current : values()) {
+            if (current.realmType.equalsIgnoreCase(realmType)) {
+                return current;
+            }
+        }
+
+        throw new IllegalArgumentException(String.format("Unknown realm type '%s'", realmType));
+    }
+}
@@ -9,8 +9,10 @@ import static org.wildfly.security.auth.server.SecurityDomain.unregisterClassLoa
 import static org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite.initialised;
 import static org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite.supportedHttpAuthenticationMechanisms;
 
+import java.net.InetSocketAddress;
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -28,6 +30,8 @@ import io.undertow.servlet.api.WebResourceCollection;
 import jakarta.servlet.ServletException;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.function.Executable;
 import org.wildfly.elytron.web.undertow.server.servlet.AuthenticationManager;
 import org.wildfly.security.auth.server.HttpAuthenticationFactory;
 import org.wildfly.security.auth.server.MechanismConfiguration;
@@ -49,21 +53,28 @@ import org.wildfly.security.tests.common.authauthz.deployment.HelloWorldServlet;
 /**
  * Base class for the Http Suite Runners.
  *
- * This class is responsible for setting up the HTTP server under test.
+ * This class is responsible for setting up the HTTP server under test, the server is started once
+ * for each suite and each runner deploys the applications configured with its own {@code SecurityDomain}.
  *
  * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
  */
 abstract class AbstractHttpSuiteRunner {
 
     private static final String HTTP_HOSTNAME = System.getProperty("http.hostname", "localhost");
-    private static final int HTTP_PORT = Integer.getInteger("http.port", 8080);
+    // 0 binds to a free port so the suites can be run concurrently in separate forks.
+    private static final int HTTP_PORT = Integer.getInteger("http.port", 0);
 
     private static final String DEPLOYMENT_NAME_TEMPLATE = "%sDeployment.war";
     private static final String CONTEXT_ROOT_PATH_TEMPLATE = "/hello%s";
     private static final String SECURED_PATH = "/secured";
     private static final String UNSECURED_PATH = "/unsecured";
 
-    private Undertow undertowServer;
+    // The server is shared by all of the HTTP runners of a suite, each runner deploys and removes its own applications.
+    private static Undertow undertowServer;
+    private static volatile PathHandler pathHandler;
+    private static volatile int boundHttpPort;
+
+    private final List<DeploymentManager> deploymentManagers = new ArrayList<>();
 
     /*
      * Public Utility Methods
@@ -78,12 +89,13 @@ abstract class AbstractHttpSuiteRunner {
     }
 
     public static URI toURI(final HttpAuthenticationMechanism mechanism, final boolean secured) throws URISyntaxException {
-        return new URI("http", null, HTTP_HOSTNAME, HTTP_PORT,
+        return new URI("http", null, HTTP_HOSTNAME, boundHttpPort,
          toContextRoot(mechanism) + (secured ? SECURED_PATH : UNSECURED_PATH), null, null);
     }
 
     /**
-     * Set up the server process to be used by the tests.
+     * Deploy the applications used by the tests to the server for the suite, the server is started
+     * the first time it is needed and reused by all of the HTTP runners of the suite.
      */
     @BeforeEach
     public void startServer() {
@@ -93,10 +105,7 @@ abstract class AbstractHttpSuiteRunner {
             return;
         }
 
-        Undertow.Builder undertowBuilder = Undertow.builder();
-        undertowBuilder.addHttpListener(HTTP_PORT, HTTP_HOSTNAME);
-
-        PathHandler path = Handlers.path();
+        PathHandler path = suitePathHandler();
 
         // Common Instances
         // Security Domain
@@ -112,6 +121,7 @@ abstract class AbstractHttpSuiteRunner {
                 .forEach(di -> {
                     DeploymentManager deployManager = Servlets.defaultContainer().addDeployment(di);
                     deployManager.deploy();
+                    deploymentManagers.add(deployManager);
 
                     try {
                         path.addPrefixPath(di.getContextPath(), deployManager.start());
@@ -119,25 +129,86 @@ abstract class AbstractHttpSuiteRunner {
                         throw new IllegalStateException(e);
                     }
                 });
-
-        undertowBuilder.setHandler(path);
-        undertowServer = undertowBuilder.build();
-        undertowServer.start();
     }
 
     /**
-     * Stop the server process previously started for testing.
+     * Remove the applications deployed for this runner, the server itself remains running until the
+     * end of the suite.
      */
     @AfterEach
     public void stopServer() {
         System.out.println("AbstractHttpSuiteRunner->stopServer()");
-        if (undertowServer != null) {
-            undertowServer.stop();
-            undertowServer = null;
+        for (DeploymentManager deployManager : deploymentManagers) {
+            DeploymentInfo deploymentInfo = deployManager.getDeployment().getDeploymentInfo();
+            if (pathHandler != null) {
+                pathHandler.removePrefixPath(deploymentInfo.getContextPath());
+            }
+            try {
+                deployManager.stop();
+            } catch (ServletException e) {
+                throw new IllegalStateException(e);
+            }
+            deployManager.undeploy();
+            Servlets.defaultContainer().removeDeployment(deploymentInfo);
         }
+        deploymentManagers.clear();
         unregisterClassLoader(AbstractHttpSuiteRunner.class.getClassLoader());
     }
 
+    /**
+     * Reset any state held by the runner between tests, e.g. the brute force protection
+     * sessions tracked by the {@code SecurityRealm}.
+     *
+     * As the server and {@code SecurityDomain} are shared by all of the tests of a runner this is
+     * called before each test created using {@link #isolatedTest(String, Executable)}.
+     */
+    protected void resetState() {
+    }
+
+    /**
+     * Create a {@code DynamicTest} which calls {@link #resetState()} before executing.
+     *
+     * @param displayName the display name of the test.
+     * @param executable the test to execute.
+     * @return a {@code DynamicTest} which resets the state of the runner before executing.
+     */
+    protected DynamicTest isolatedTest(final String displayName, final Executable executable) {
+        return DynamicTest.dynamicTest(displayName, () -> {
+            resetState();
+            executable.execute();
+        });
+    }
+
+    private static synchronized PathHandler suitePathHandler() {
+        if (undertowServer == null) {
+            System.out.println("AbstractHttpSuiteRunner - Starting suite server");
+            pathHandler = Handlers.path();
+            undertowServer = Undertow.builder()
+                    .addHttpListener(HTTP_PORT, HTTP_HOSTNAME)
+                    .setHandler(pathHandler)
+                    .build();
+            undertowServer.start();
+            boundHttpPort = ((InetSocketAddress) undertowServer.getListenerInfo().get(0).getAddress()).getPort();
+            System.out.printf("AbstractHttpSuiteRunner - Listening on port %d\n", boundHttpPort);
+            AbstractAuthenticationSuite.registerSuiteResource(AbstractHttpSuiteRunner::stopSuiteServer);
+        }
+
+        return pathHandler;
+    }
+
+    private static synchronized void stopSuiteServer() {
+        System.out.println("AbstractHttpSuiteRunner - Stopping suite server");
+        if (undertowServer != null) {
+            try {
+                undertowServer.stop();
+            } finally {
+                undertowServer = null;
+                pathHandler = null;
+                boundHttpPort = 0;
+            }
+        }
+    }
+
     /*
      * Our Utility Methods
      */
@@ -159,10 +230,10 @@ abstract class AbstractHttpSuiteRunner {
      * @param forMechanisms - The mechanisms required to be supported.
      * @return An aggregate {@code HttpServerAuthenticationMechanismFactory} for the supported mechanisms.
      */
-    private static HttpServerAuthenticationMechanismFactory createFactory(Set<HttpAuthenticationMechanism> forMechanisms) {
+    private HttpServerAuthenticationMechanismFactory createFactory(Set<HttpAuthenticationMechanism> forMechanisms) {
         List<HttpServerAuthenticationMechanismFactory> factories =
                forMechanisms.stream()
-                   .map(AbstractHttpSuiteRunner::toFactory)
+                   .map(this::createMechanismFactory)
                    .filter(Objects::nonNull)
                    .toList();
 
@@ -172,6 +243,19 @@ abstract class AbstractHttpSuiteRunner {
         return new AggregateServerMechanismFactory(factoryArray);
     }
 
+    /**
+     * Create the {@code HttpServerAuthenticationMechanismFactory} for a single mechanism.
+     *
+     * This method is not static so the runners can optionally override it, e.g. to wrap the factory
+     * to observe the server side mechanisms.
+     *
+     * @param mechanism the mechanism the factory is required for.
+     * @return the {@code HttpServerAuthenticationMechanismFactory} or {@code null} if the mechanism is not supported.
+     */
+    protected HttpServerAuthenticationMechanismFactory createMechanismFactory(final HttpAuthenticationMechanism mechanism) {
+        return toFactory(mechanism);
+    }
+
     private static AuthenticationManager createAuthenticationManager(HttpServerAuthenticationMechanismFactory mechanismFactory,
                                                                      SecurityDomain securityDomain,
                                                                      HttpAuthenticationMechanism authenticationMechanism) {
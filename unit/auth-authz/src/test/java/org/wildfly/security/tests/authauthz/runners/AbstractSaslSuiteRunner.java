@@ -12,7 +12,6 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite.initialised;
 import static org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite.supportedSaslAuthenticationMechanisms;
 
-import java.io.Closeable;
 import java.io.IOException;
 import java.net.InetSocketAddress;
 import java.net.URI;
@@ -40,9 +39,13 @@ import org.wildfly.security.sasl.SaslMechanismSelector;
 import org.wildfly.security.sasl.util.ServiceLoaderSaslServerFactory;
 import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
 import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.metrics.AuthenticationMetrics;
+import org.wildfly.security.tests.common.authauthz.metrics.AuthenticationPhase;
 import org.xnio.IoFuture;
 import org.xnio.OptionMap;
 import org.xnio.Options;
+import org.xnio.StreamConnection;
+import org.xnio.channels.AcceptingChannel;
 
 /**
  * Base class for the SASL Suite Runners.
@@ -54,9 +57,14 @@ import org.xnio.Options;
 abstract class AbstractSaslSuiteRunner {
 
     static final OptionMap optionMap = OptionMap.create(Options.SSL_ENABLED, Boolean.FALSE);
+    private static final long CONNECTION_TIMEOUT_MILLIS = 5000;
+    private static final String SASL_HOSTNAME = "localhost";
+    // 0 binds to a free port so the suites can be run concurrently in separate forks.
+    private static final int SASL_PORT = Integer.getInteger("sasl.port", 0);
 
     private Endpoint endpoint;
-    private Closeable streamServer;
+    private AcceptingChannel<StreamConnection> streamServer;
+    private URI serverUri;
 
     @BeforeEach
     public void startServer() throws Exception {
@@ -74,7 +82,7 @@ abstract class AbstractSaslSuiteRunner {
 
         SaslServerFactory saslServerFactory = new ServiceLoaderSaslServerFactory(AbstractAuthenticationSuite.class.getClassLoader());
 
-        Set<String> supportedMechanismNames = supportedSaslAuthenticationMechanisms().stream()
+        Set<String> supportedMechanismNames = getSupportedMechanisms().stream()
                 .map(SaslAuthenticationMechanism::getMechanismName)
                 .collect(toSet());
         SaslAuthenticationFactory saslAuthenticationFactory =  SaslAuthenticationFactory.builder()
@@ -84,8 +92,21 @@ abstract class AbstractSaslSuiteRunner {
                 .build();
 
         final SSLContext serverContext = SSLContext.getDefault();
-        streamServer = networkServerProvider.createServer(new InetSocketAddress("localhost", 30123),
-                optionMap, saslAuthenticationFactory, serverContext);
+        streamServer = networkServerProvider.createServer(new InetSocketAddress(SASL_HOSTNAME, SASL_PORT),
+                createServerOptionMap(), saslAuthenticationFactory, serverContext);
+        serverUri = toUri(String.format("remote://%s:%d", SASL_HOSTNAME,
+                streamServer.getLocalAddress(InetSocketAddress.class).getPort()));
+    }
+
+    /**
+     * Get the SASL mechanisms enabled on the server.
+     *
+     * This method is not static so the runners can optionally override it.
+     *
+     * @return the SASL mechanisms enabled on the server, by default those supported by the realm.
+     */
+    protected Set<SaslAuthenticationMechanism> getSupportedMechanisms() {
+        return supportedSaslAuthenticationMechanisms();
     }
 
     /**
@@ -99,6 +120,24 @@ abstract class AbstractSaslSuiteRunner {
         return AbstractAuthenticationSuite.createSecurityDomain();
     }
 
+    /**
+     * Create the {@code OptionMap} used for the Remoting server.
+     *
+     * @return the {@code OptionMap} used for the Remoting server.
+     */
+    protected OptionMap createServerOptionMap() {
+        return optionMap;
+    }
+
+    /**
+     * Get the time to wait for each connection to be established and authenticated.
+     *
+     * @return the time to wait for each connection in milliseconds.
+     */
+    protected long getConnectionTimeoutMillis() {
+        return CONNECTION_TIMEOUT_MILLIS;
+    }
+
     protected Endpoint getEndpoint() {
         return endpoint;
     }
@@ -119,25 +158,14 @@ abstract class AbstractSaslSuiteRunner {
     protected void performSaslTest(final String mechanism, final String userName,
                                  final String password, final boolean expectSuccess) throws IOException {
 
-        AuthenticationContext authContext = AuthenticationContext.empty()
-                .with(MatchRule.ALL, AuthenticationConfiguration.empty()
-                        .useName(userName)
-                        .usePassword(password)
-                        .setSaslMechanismSelector(SaslMechanismSelector.fromString(mechanism))
-                );
-
-        Endpoint endpoint = getEndpoint();
-
-        IoFuture<Connection> futureConnection = authContext.run(
-                (PrivilegedAction<IoFuture<Connection>>) () ->
-                        endpoint.connect(toUri("remote://localhost:30123"),
-                                optionMap)
-        );
+        final long start = System.nanoTime();
+        IoFuture<Connection> futureConnection = connect(mechanism, userName, password);
 
-        IoFuture.Status status = futureConnection.await(5000, TimeUnit.MILLISECONDS);
+        IoFuture.Status status = futureConnection.await(getConnectionTimeoutMillis(), TimeUnit.MILLISECONDS);
 
         if (expectSuccess) {
             assertEquals(IoFuture.Status.DONE, status, "Expected IoFuture to be DONE");
+            AuthenticationMetrics.getInstance().record(mechanism, AuthenticationPhase.HANDSHAKE, start);
             try (Connection connection = futureConnection.get()) {
                 assertNotNull(connection, "Expected a connection to have been opened");
             }
@@ -149,6 +177,32 @@ abstract class AbstractSaslSuiteRunner {
         }
     }
 
+    /**
+     * Begin a connection to the server using a new {@code AuthenticationContext} for the specified
+     * mechanism and credentials.
+     *
+     * @param mechanism the name of the SASL mechanism to use.
+     * @param userName the username to authenticate as.
+     * @param password the password of the user.
+     * @return the {@code IoFuture} for the connection.
+     */
+    protected IoFuture<Connection> connect(final String mechanism, final String userName, final String password) {
+        AuthenticationContext authContext = AuthenticationContext.empty()
+                .with(MatchRule.ALL, AuthenticationConfiguration.empty()
+                        .useName(userName)
+                        .usePassword(password)
+                        .setSaslMechanismSelector(SaslMechanismSelector.fromString(mechanism))
+                );
+
+        Endpoint endpoint = getEndpoint();
+
+        return authContext.run(
+                (PrivilegedAction<IoFuture<Connection>>) () ->
+                        endpoint.connect(serverUri,
+                                optionMap)
+        );
+    }
+
     static URI toUri(final String uri) {
         try {
             return new URI(uri);
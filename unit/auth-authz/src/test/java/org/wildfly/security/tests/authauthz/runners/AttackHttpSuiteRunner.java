@@ -0,0 +1,76 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.authauthz.runners;
+
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.wildfly.security.auth.server.SecurityDomain;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.TestFamily;
+import org.wildfly.security.tests.common.authauthz.TestFilter;
+import org.wildfly.security.tests.common.authauthz.http.HttpTestClient;
+
+/**
+ * A runner to simulate credential stuffing and brute force attacks over HTTP whilst legitimate users continue
+ * to authenticate against the configured {@code SecurityRealm}.
+ *
+ * As this runner is long running it is only enabled when {@code TestFilter.TestFamily} includes
+ * {@code ATTACK}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class AttackHttpSuiteRunner extends AbstractHttpSuiteRunner {
+
+    private final AttackSimulatorUtility attackSimulatorUtility = new AttackSimulatorUtility();
+
+    @TestFactory
+    Stream<DynamicTest> dynamicHttpTests() {
+        System.out.println("AttackHttpSuiteRunner->dynamicHttpTests");
+        List<DynamicTest> dynamicTests = new ArrayList<>();
+
+        Set<HttpAuthenticationMechanism> supportedMechnisms =
+                AbstractAuthenticationSuite.supportedHttpAuthenticationMechanisms();
+
+        TestFilter testFilter = TestFilter.getInstance();
+        HttpTestClient testClient = HttpTestClient.builder()
+                                        .withToUri(AbstractHttpSuiteRunner::toURI)
+                                        .build();
+
+        String realmType = AbstractAuthenticationSuite.realmType();
+        supportedMechnisms.forEach(s -> {
+            if (testFilter.shouldRunTest(s, TestFamily.ATTACK, "Attack")) {
+                dynamicTests.add(
+                        dynamicTest(String.format("[%s] testHttpAttack(%s)", realmType, s),
+                                () -> attackSimulatorUtility.runAttack(realmType, String.format("HTTP %s", s),
+                                        () -> testClient.authenticationAttempt(s))));
+            }
+        });
+
+        if (dynamicTests.isEmpty()) {
+            System.out.println("No Tests Added - Adding a Dummy");
+            dynamicTests.add(dynamicTest("[DUMMY] DUMMY TEST", () -> {}));
+        }
+
+        return dynamicTests.stream();
+    }
+
+    /**
+     * The lockouts of each simulation are cleared by the {@code AttackSimulatorUtility} before the next begins.
+     */
+    @Override
+    protected SecurityDomain createSecurityDomain() {
+        return attackSimulatorUtility.createSecurityDomain();
+    }
+
+}
@@ -0,0 +1,72 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.authauthz.runners;
+
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.wildfly.security.auth.server.SecurityDomain;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.TestFamily;
+import org.wildfly.security.tests.common.authauthz.TestFilter;
+
+/**
+ * A runner to simulate credential stuffing and brute force attacks over SASL whilst legitimate users continue
+ * to authenticate against the configured {@code SecurityRealm}.
+ *
+ * As this runner is long running it is only enabled when {@code TestFilter.TestFamily} includes
+ * {@code ATTACK}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class AttackSaslSuiteRunner extends AbstractSaslSuiteRunner {
+
+    private final AttackSimulatorUtility attackSimulatorUtility = new AttackSimulatorUtility();
+
+    @TestFactory
+    Stream<DynamicTest> dynamicSaslTests() {
+        System.out.println("AttackSaslSuiteRunner->dynamicSaslTests");
+        List<DynamicTest> dynamicTests = new ArrayList<>();
+
+        Set<SaslAuthenticationMechanism> supportedMechnisms =
+                AbstractAuthenticationSuite.supportedSaslAuthenticationMechanisms();
+
+        TestFilter testFilter = TestFilter.getInstance();
+
+        String realmType = AbstractAuthenticationSuite.realmType();
+        supportedMechnisms.forEach(s -> {
+            if (testFilter.shouldRunTest(s, TestFamily.ATTACK, "Attack")) {
+                dynamicTests.add(
+                        dynamicTest(String.format("[%s] testSaslAttack(%s)", realmType, s),
+                                () -> attackSimulatorUtility.runAttack(realmType, String.format("SASL %s", s),
+                                        () -> (u, p, e) -> performSaslTest(s.getMechanismName(), u, p, e))));
+            }
+        });
+
+        if (dynamicTests.isEmpty()) {
+            System.out.println("No Tests Added - Adding a Dummy");
+            dynamicTests.add(dynamicTest("[DUMMY] DUMMY TEST", () -> {}));
+        }
+
+        return dynamicTests.stream();
+    }
+
+    /**
+     * The lockouts of each simulation are cleared by the {@code AttackSimulatorUtility} before the next begins.
+     */
+    @Override
+    protected SecurityDomain createSecurityDomain() {
+        return attackSimulatorUtility.createSecurityDomain();
+    }
+
+}
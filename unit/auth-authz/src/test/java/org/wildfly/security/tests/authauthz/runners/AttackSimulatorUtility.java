@@ -0,0 +1,84 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.authauthz.runners;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.function.Supplier;
+
+import org.wildfly.security.auth.realm.BruteForceRealmWrapper;
+import org.wildfly.security.auth.server.SecurityDomain;
+import org.wildfly.security.auth.server.SecurityRealm;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.common.authauthz.load.AttackReport;
+import org.wildfly.security.tests.common.authauthz.load.AttackSimulator;
+import org.wildfly.security.tests.common.authauthz.load.LoadStatistics;
+
+/**
+ * A utility shared by the attack runners to configure the {@link AttackSimulator} and verify the resulting
+ * {@link AttackReport}.
+ *
+ * The brute force protection uses the lockout threshold of
+ * {@link AbstractAuthenticationSuite#BRUTE_FORCE_MAX_FAILED_ATTEMPTS} but the {@link ScheduledExecutorUtility} is
+ * used for the timeouts so the lockouts from one test can be cleared before the next.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+class AttackSimulatorUtility {
+
+    private static final int DURATION_SECONDS = Integer.getInteger("Attack.Duration", 20);
+    private static final int LEGITIMATE_USERS = Integer.getInteger("Attack.LegitimateUsers", 10);
+    private static final int ATTACKERS = Integer.getInteger("Attack.Attackers", 2);
+    private static final int LOW_AND_SLOW_DELAY_MILLIS = Integer.getInteger("Attack.LowAndSlowDelay", 1000);
+
+    private final ScheduledExecutorUtility scheduledExecutorUtility = new ScheduledExecutorUtility();
+
+    SecurityDomain createSecurityDomain() {
+        return AbstractAuthenticationSuite.createSecurityDomain(s -> {
+            return BruteForceRealmWrapper.create()
+                .wrapping(s)
+                .withExecutor(scheduledExecutorUtility.createScheduledExecutorService())
+                .setMaxFailedAttempts(AbstractAuthenticationSuite.BRUTE_FORCE_MAX_FAILED_ATTEMPTS)
+                .wrap(SecurityRealm.class);
+        });
+    }
+
+    /**
+     * Clear all failure sessions and lockouts so each simulation begins with no identities locked out.
+     */
+    void resetState() {
+        scheduledExecutorUtility.simulateTimeoutAll();
+    }
+
+    void runAttack(final String realmType, final String description,
+            final Supplier<AttackSimulator.AuthenticationAttempt> authenticationAttempts) throws Exception {
+        resetState();
+        AttackSimulator.Builder builder = AttackSimulator.builder()
+                .setDescription(description)
+                .setAuthenticationAttempts(authenticationAttempts)
+                .setLegitimateUsers(LEGITIMATE_USERS)
+                .setAttackers(ATTACKERS)
+                .setDuration(Duration.ofSeconds(DURATION_SECONDS))
+                .setLowAndSlowDelay(Duration.ofMillis(LOW_AND_SLOW_DELAY_MILLIS))
+                .setMaxFailedAttempts(AbstractAuthenticationSuite.BRUTE_FORCE_MAX_FAILED_ATTEMPTS);
+        AbstractAuthenticationSuite.obtainTestIdentities()
+                .forEach(i -> builder.addIdentity(i.username(), i.password()));
+
+        AttackReport report = builder.build().run();
+        System.out.printf("[%s] ", realmType);
+        report.print(System.out);
+
+        LoadStatistics legitimate = report.getLegitimateUnderAttack();
+        assertTrue(legitimate.getCompleted() > 0, "Expected legitimate users to authenticate under attack");
+        assertEquals(0, legitimate.getErrors(), "Legitimate users failed to authenticate under attack");
+        for (LoadStatistics current : report.getUnderAttack().getStatistics()) {
+            assertEquals(0, current.getErrors(), String.format("Unexpected errors for '%s'", current.getName()));
+        }
+        assertEquals(0, report.getTotalMismatched(), "Identities not in the expected lockout state");
+    }
+}
@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DynamicTest;
@@ -32,6 +33,10 @@ import org.wildfly.security.tests.common.authauthz.http.HttpTestClient;
  */
 public class BruteForceAuthnProtectionHttpSuiteRunner extends AbstractHttpSuiteRunner {
 
+    private static final int MAX_FAILED_ATTEMPTS = 5;
+    private static final int LOCKOUT_INTERVAL_MINUTES = 5;
+    private static final int SESSION_TIMEOUT_MINUTES = 2;
+
     @TestFactory
     Stream<DynamicTest> dynamicHttpTests() {
         // By the time this is called startServer() will have been called in our parent
@@ -53,27 +58,37 @@ public class BruteForceAuthnProtectionHttpSuiteRunner extends AbstractHttpSuiteR
         supportedMechnisms.forEach(s -> {
             if (testFilter.shouldRunTest(s, TestFamily.BRUTE_FORCE, "SuccessfulAuth")) {
                 dynamicTests.add(
-                        dynamicTest(String.format("[%s] testSuccessfulAuth(%s)", realmType, s), () -> testSuccessfulAuth(s, testClient)));
+                        isolatedTest(String.format("[%s] testSuccessfulAuth(%s)", realmType, s), () -> testSuccessfulAuth(s, testClient)));
             }
 
             if (testFilter.shouldRunTest(s, TestFamily.BRUTE_FORCE, "DisabledIdentity")) {
                 dynamicTests.add(
-                        dynamicTest(String.format("[%s] testDisabledIdentity(%s)", realmType, s), () -> testDisabledIdentity(s, testClient)));
+                        isolatedTest(String.format("[%s] testDisabledIdentity(%s)", realmType, s), () -> testDisabledIdentity(s, testClient)));
             }
 
             if (testFilter.shouldRunTest(s, TestFamily.BRUTE_FORCE, "SuccessAfterBad")) {
                 dynamicTests.add(
-                        dynamicTest(String.format("[%s] testSuccessAfterBad(%s)", realmType, s), () -> testSuccessAfterBad(s, testClient)));
+                        isolatedTest(String.format("[%s] testSuccessAfterBad(%s)", realmType, s), () -> testSuccessAfterBad(s, testClient)));
             }
 
             if (testFilter.shouldRunTest(s, TestFamily.BRUTE_FORCE, "NonExistant")) {
                 dynamicTests.add(
-                        dynamicTest(String.format("[%s] testNonExistant(%s)", realmType, s), () -> testNonExistant(s, testClient, realmType.equals("JAAS"))));
+                        isolatedTest(String.format("[%s] testNonExistant(%s)", realmType, s), () -> testNonExistant(s, testClient, realmType.equals("JAAS"))));
             }
 
             if (testFilter.shouldRunTest(s, TestFamily.BRUTE_FORCE, "SingleSessionTimeout")) {
                 dynamicTests.add(
-                        dynamicTest(String.format("[%s] testSingleSessionTimeout(%s)", realmType, s), () -> testSingleSessionTimeout(s, testClient)));
+                        isolatedTest(String.format("[%s] testSingleSessionTimeout(%s)", realmType, s), () -> testSingleSessionTimeout(s, testClient)));
+            }
+
+            if (testFilter.shouldRunTest(s, TestFamily.BRUTE_FORCE, "LockoutInterval")) {
+                dynamicTests.add(
+                        isolatedTest(String.format("[%s] testLockoutInterval(%s)", realmType, s), () -> testLockoutInterval(s, testClient)));
+            }
+
+            if (testFilter.shouldRunTest(s, TestFamily.BRUTE_FORCE, "SessionTimeout")) {
+                dynamicTests.add(
+                        isolatedTest(String.format("[%s] testSessionTimeout(%s)", realmType, s), () -> testSessionTimeout(s, testClient)));
             }
         });
 
@@ -93,13 +108,21 @@ public class BruteForceAuthnProtectionHttpSuiteRunner extends AbstractHttpSuiteR
             return BruteForceRealmWrapper.create()
                 .wrapping(s)
                 .withExecutor(scheduledExecutorUtility.createScheduledExecutorService())
-                .setMaxFailedAttempts(5)
-                .setLockoutInterval(5)
-                .setFailureSessionTimeout(2)
+                .setMaxFailedAttempts(MAX_FAILED_ATTEMPTS)
+                .setLockoutInterval(LOCKOUT_INTERVAL_MINUTES)
+                .setFailureSessionTimeout(SESSION_TIMEOUT_MINUTES)
                 .wrap(SecurityRealm.class);
         });
     }
 
+    /**
+     * Trigger any outstanding session timeouts so each test starts without any failed attempts recorded.
+     */
+    @Override
+    protected void resetState() {
+        scheduledExecutorUtility.simulateTimeoutAll();
+    }
+
     // Tests
 
     /**
@@ -226,4 +249,53 @@ public class BruteForceAuthnProtectionHttpSuiteRunner extends AbstractHttpSuiteR
         c.testHttpSuccess(m, "user2", "password2");
         assertEquals(0, scheduledExecutorUtility.sessionCount(), "No session should exist.");
     }
+
+    /**
+     * Make 5 bad calls to trigger a lockout.
+     * Advance the clock to just before the end of the lockout interval and verify the identity is still tracked.
+     * Advance the clock to the end of the lockout interval and verify the identity works again.
+     *
+     * The clock is virtual so the lockout interval elapses without waiting.
+     */
+    public void testLockoutInterval(HttpAuthenticationMechanism m, HttpTestClient c) throws Exception {
+        for (int i = 0; i < MAX_FAILED_ATTEMPTS; i++) {
+            c.testHttpBadPassword(m, "user3", "badpassword");
+        }
+        // The username and password in the next call are correct, but it should still behave
+        // as though the password is bad.
+        c.testHttpBadPassword(m, "user3", "password3");
+        assertEquals(1, scheduledExecutorUtility.sessionCount(), "One session should exist.");
+
+        scheduledExecutorUtility.advance(LOCKOUT_INTERVAL_MINUTES - 1, TimeUnit.MINUTES);
+        assertEquals(1, scheduledExecutorUtility.sessionCount(), "The identity should still be locked out.");
+
+        scheduledExecutorUtility.advance(1, TimeUnit.MINUTES);
+        assertEquals(0, scheduledExecutorUtility.sessionCount(), "No session should exist.");
+        c.testHttpSuccess(m, "user3", "password3");
+    }
+
+    /**
+     * Make 4 bad calls, one less than required to trigger a lockout.
+     * Advance the clock past the session timeout and verify the session has been removed.
+     * Make another 4 bad calls followed by a good call, as the earlier failures have expired
+     * the identity should not be locked out.
+     */
+    public void testSessionTimeout(HttpAuthenticationMechanism m, HttpTestClient c) throws Exception {
+        for (int i = 0; i < MAX_FAILED_ATTEMPTS - 1; i++) {
+            c.testHttpBadPassword(m, "user4", "badpassword");
+        }
+        assertEquals(1, scheduledExecutorUtility.sessionCount(), "One session should exist.");
+
+        scheduledExecutorUtility.advance(SESSION_TIMEOUT_MINUTES - 1, TimeUnit.MINUTES);
+        assertEquals(1, scheduledExecutorUtility.sessionCount(), "The session should not have expired.");
+
+        scheduledExecutorUtility.advance(1, TimeUnit.MINUTES);
+        assertEquals(0, scheduledExecutorUtility.sessionCount(), "The session should have expired.");
+
+        for (int i = 0; i < MAX_FAILED_ATTEMPTS - 1; i++) {
+            c.testHttpBadPassword(m, "user4", "badpassword");
+        }
+        c.testHttpSuccess(m, "user4", "password4");
+        assertEquals(0, scheduledExecutorUtility.sessionCount(), "No session should exist.");
+    }
 }
@@ -12,6 +12,7 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.DynamicTest;
@@ -31,6 +32,10 @@ import org.wildfly.security.tests.common.authauthz.TestFilter;
  */
 public class BruteForceAuthnProtectionSaslSuiteRunner extends AbstractSaslSuiteRunner {
 
+    private static final int MAX_FAILED_ATTEMPTS = 5;
+    private static final int LOCKOUT_INTERVAL_MINUTES = 5;
+    private static final int SESSION_TIMEOUT_MINUTES = 2;
+
     @TestFactory
     Stream<DynamicTest> dynamicSaslTests() {
         // By the time this is called startServer() will have been called in our parent
@@ -70,6 +75,16 @@ public class BruteForceAuthnProtectionSaslSuiteRunner extends AbstractSaslSuiteR
                 dynamicTests.add(
                         dynamicTest(String.format("[%s] testSingleSessionTimeout(%s)", realmType, s), () -> testSingleSessionTimeout(s)));
             }
+
+            if (testFilter.shouldRunTest(s, TestFamily.BRUTE_FORCE, "LockoutInterval")) {
+                dynamicTests.add(
+                        dynamicTest(String.format("[%s] testLockoutInterval(%s)", realmType, s), () -> testLockoutInterval(s)));
+            }
+
+            if (testFilter.shouldRunTest(s, TestFamily.BRUTE_FORCE, "SessionTimeout")) {
+                dynamicTests.add(
+                        dynamicTest(String.format("[%s] testSessionTimeout(%s)", realmType, s), () -> testSessionTimeout(s)));
+            }
         });
 
 
@@ -89,9 +104,9 @@ public class BruteForceAuthnProtectionSaslSuiteRunner extends AbstractSaslSuiteR
             return BruteForceRealmWrapper.create()
                 .wrapping(s)
                 .withExecutor(scheduledExecutorUtility.createScheduledExecutorService())
-                .setMaxFailedAttempts(5)
-                .setLockoutInterval(5)
-                .setFailureSessionTimeout(2)
+                .setMaxFailedAttempts(MAX_FAILED_ATTEMPTS)
+                .setLockoutInterval(LOCKOUT_INTERVAL_MINUTES)
+                .setFailureSessionTimeout(SESSION_TIMEOUT_MINUTES)
                 .wrap(SecurityRealm.class);
         });
     }
@@ -221,4 +236,52 @@ public class BruteForceAuthnProtectionSaslSuiteRunner extends AbstractSaslSuiteR
         assertEquals(0, scheduledExecutorUtility.sessionCount(), "No session should exist.");
     }
 
+    /**
+     * Make 5 bad calls to trigger a lockout.
+     * Advance the clock to just before the end of the lockout interval and verify the identity is still tracked.
+     * Advance the clock to the end of the lockout interval and verify the identity works again.
+     *
+     * The clock is virtual so the lockout interval elapses without waiting.
+     */
+    public void testLockoutInterval(SaslAuthenticationMechanism m) throws Exception {
+        for (int i = 0; i < MAX_FAILED_ATTEMPTS; i++) {
+            performSaslTest(m.getMechanismName(), "user3", "badpassword", false);
+        }
+        // The username and password in the next call are correct, but it should still behave
+        // as though the password is bad.
+        performSaslTest(m.getMechanismName(), "user3", "password3", false);
+        assertEquals(1, scheduledExecutorUtility.sessionCount(), "One session should exist.");
+
+        scheduledExecutorUtility.advance(LOCKOUT_INTERVAL_MINUTES - 1, TimeUnit.MINUTES);
+        assertEquals(1, scheduledExecutorUtility.sessionCount(), "The identity should still be locked out.");
+
+        scheduledExecutorUtility.advance(1, TimeUnit.MINUTES);
+        assertEquals(0, scheduledExecutorUtility.sessionCount(), "No session should exist.");
+        performSaslTest(m.getMechanismName(), "user3", "password3", true);
+    }
+
+    /**
+     * Make 4 bad calls, one less than required to trigger a lockout.
+     * Advance the clock past the session timeout and verify the session has been removed.
+     * Make another 4 bad calls followed by a good call, as the earlier failures have expired
+     * the identity should not be locked out.
+     */
+    public void testSessionTimeout(SaslAuthenticationMechanism m) throws Exception {
+        for (int i = 0; i < MAX_FAILED_ATTEMPTS - 1; i++) {
+            performSaslTest(m.getMechanismName(), "user4", "badpassword", false);
+        }
+        assertEquals(1, scheduledExecutorUtility.sessionCount(), "One session should exist.");
+
+        scheduledExecutorUtility.advance(SESSION_TIMEOUT_MINUTES - 1, TimeUnit.MINUTES);
+        assertEquals(1, scheduledExecutorUtility.sessionCount(), "The session should not have expired.");
+
+        scheduledExecutorUtility.advance(1, TimeUnit.MINUTES);
+        assertEquals(0, scheduledExecutorUtility.sessionCount(), "The session should have expired.");
+
+        for (int i = 0; i < MAX_FAILED_ATTEMPTS - 1; i++) {
+            performSaslTest(m.getMechanismName(), "user4", "badpassword", false);
+        }
+        performSaslTest(m.getMechanismName(), "user4", "password4", true);
+        assertEquals(0, scheduledExecutorUtility.sessionCount(), "No session should exist.");
+    }
 }
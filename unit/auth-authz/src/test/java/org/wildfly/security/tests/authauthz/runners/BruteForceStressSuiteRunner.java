@@ -0,0 +1,373 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.authauthz.runners;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.lang.ref.Reference;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.wildfly.security.auth.server.SecurityDomain;
+import org.wildfly.security.auth.server.ServerAuthenticationContext;
+import org.wildfly.security.evidence.PasswordGuessEvidence;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.common.authauthz.TestFamily;
+import org.wildfly.security.tests.common.authauthz.TestFilter;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.load.LoadReport;
+import org.wildfly.security.tests.common.authauthz.load.LoadStatistics;
+
+/**
+ * A runner to stress the {@code BruteForceRealmWrapper} applied by default to the configured {@code SecurityRealm}.
+ *
+ * Authentication is driven directly against the {@code SecurityDomain} from many threads so the cost of the
+ * brute force protection is not hidden behind a transport. The latency of the same workload is measured with
+ * and without the protection along with the contention seen by the worker threads, the heap retained by the
+ * failure sessions is measured by failing one authentication for every identity.
+ *
+ * Contention is reported from {@code ThreadInfo} as two figures, the time blocked entering a monitor and the time
+ * waiting, which covers {@code Object.wait()} and threads parked by a {@code java.util.concurrent} lock or
+ * condition.
+ *
+ * The latency overhead compares successful attempts with successful attempts and failed attempts with failed
+ * attempts, the consecutive bad attempts against each identity are capped below the lockout threshold so no
+ * identity is locked out and the cheaper rejection of a locked out identity does not mask the overhead.
+ *
+ * The number of distinct identities is controlled by {@code IdentityGenerator.Count}, credential stuffing
+ * scale populations can be tested using e.g. {@code -DIdentityGenerator.Count=100000}.
+ *
+ * As this runner is long running it is only enabled when {@code TestFilter.TestFamily} includes
+ * {@code BRUTE_FORCE_STRESS}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class BruteForceStressSuiteRunner {
+
+    private static final int THREADS = Integer.getInteger("BruteForceStress.Threads", 16);
+    private static final int ATTEMPTS = Integer.getInteger("BruteForceStress.Attempts", 200_000);
+    private static final int BAD_PASSWORD_PERCENTAGE = Integer.getInteger("BruteForceStress.BadPasswordPercentage", 50);
+    private static final int TIMEOUT_SECONDS = Integer.getInteger("BruteForceStress.Timeout", 600);
+    private static final int MAX_REPORTED_ERRORS = 10;
+    /*
+     * Bad attempts against an identity are capped at half of the lockout threshold the suite configures, a
+     * successful authentication clears the failure session so identities are never locked out and the latency of
+     * each outcome with and without the protection is for the same work. The margin allows for attempts decided
+     * in one order completing in another across the threads.
+     */
+    private static final int MAX_CONSECUTIVE_BAD_ATTEMPTS = AbstractAuthenticationSuite.BRUTE_FORCE_MAX_FAILED_ATTEMPTS / 2;
+
+    private static final ThreadMXBean THREAD_MX_BEAN = ManagementFactory.getThreadMXBean();
+    private static final MemoryMXBean MEMORY_MX_BEAN = ManagementFactory.getMemoryMXBean();
+
+    @TestFactory
+    Stream<DynamicTest> dynamicStressTests() {
+        System.out.println("BruteForceStressSuiteRunner->dynamicStressTests");
+        List<DynamicTest> dynamicTests = new ArrayList<>();
+
+        TestFilter testFilter = TestFilter.getInstance();
+        String realmType = AbstractAuthenticationSuite.realmType();
+        if (AbstractAuthenticationSuite.initialised()) {
+            if (testFilter.shouldRunTest(TestFamily.BRUTE_FORCE_STRESS, "LatencyOverhead")) {
+                dynamicTests.add(dynamicTest(String.format("[%s] testLatencyOverhead()", realmType),
+                        () -> testLatencyOverhead(realmType)));
+            }
+
+            if (testFilter.shouldRunTest(TestFamily.BRUTE_FORCE_STRESS, "FailureSessionHeap")) {
+                dynamicTests.add(dynamicTest(String.format("[%s] testFailureSessionHeap()", realmType),
+                        () -> testFailureSessionHeap(realmType)));
+            }
+        }
+
+        if (dynamicTests.isEmpty()) {
+            System.out.println("No Tests Added - Adding a Dummy");
+            dynamicTests.add(dynamicTest("[DUMMY] DUMMY TEST", () -> {}));
+        }
+
+        return dynamicTests.stream();
+    }
+
+    /**
+     * Run the same mix of good and bad attempts from many threads against a domain without brute force protection
+     * and then against a domain with the default protection.
+     */
+    private static void testLatencyOverhead(final String realmType) throws Exception {
+        final List<IdentityDefinition> identities = AbstractAuthenticationSuite.obtainTestIdentities().toList();
+        System.out.printf("testLatencyOverhead(%s) - %d identities, %d threads, %d attempts, %d%% bad passwords\n",
+                realmType, identities.size(), THREADS, ATTEMPTS, BAD_PASSWORD_PERCENTAGE);
+        enableContentionMonitoring();
+
+        // Warm up first so JIT compilation is not attributed to the unprotected measurement.
+        new Workload("warm-up", identities).run(AbstractAuthenticationSuite.createSecurityDomain(UnaryOperator.identity()),
+                ATTEMPTS / 10);
+
+        Workload unprotected = new Workload("unprotected", identities);
+        unprotected.run(AbstractAuthenticationSuite.createSecurityDomain(UnaryOperator.identity()), ATTEMPTS);
+        unprotected.print(realmType);
+
+        Workload protectedWorkload = new Workload("protected", identities);
+        protectedWorkload.run(AbstractAuthenticationSuite.createSecurityDomain(), ATTEMPTS);
+        protectedWorkload.print(realmType);
+
+        printOverhead(realmType, "success", unprotected.success, protectedWorkload.success);
+        printOverhead(realmType, "failure", unprotected.failure, protectedWorkload.failure);
+        System.out.printf("[%s] BruteForceStress - %d attempts locked out, added monitor blocked %d ms in %d events, "
+                + "added waiting or parked %d ms in %d events\n",
+                realmType, protectedWorkload.lockedOut.getCompleted(),
+                protectedWorkload.blockedMillis.get() - unprotected.blockedMillis.get(),
+                protectedWorkload.blockedCount.get() - unprotected.blockedCount.get(),
+                protectedWorkload.waitedMillis.get() - unprotected.waitedMillis.get(),
+                protectedWorkload.waitedCount.get() - unprotected.waitedCount.get());
+
+        assertEquals(0, unprotected.errors(), "Unexpected errors without brute force protection");
+        assertEquals(0, protectedWorkload.errors(), "Unexpected errors with brute force protection");
+        assertEquals(0, protectedWorkload.lockedOut.getCompleted(),
+                "Identities were locked out so the latency overhead is not comparing the same work");
+    }
+
+    private static void printOverhead(final String realmType, final String outcome, final LoadStatistics unprotected,
+            final LoadStatistics protectedStatistics) {
+        System.out.printf("[%s] BruteForceStress - Added %s latency p50 %.3f ms, p99 %.3f ms over %d / %d attempts\n",
+                realmType, outcome,
+                toMillis(percentile(protectedStatistics, 50) - percentile(unprotected, 50)),
+                toMillis(percentile(protectedStatistics, 99) - percentile(unprotected, 99)),
+                protectedStatistics.getCompleted(), unprotected.getCompleted());
+    }
+
+    private static long percentile(final LoadStatistics statistics, final double percentile) {
+        return statistics.getLatency().getValueAtPercentile(percentile);
+    }
+
+    /**
+     * Fail one authentication for every identity so the wrapper tracks as many failure sessions as it is able to,
+     * the growth in the heap after garbage collection is the memory retained by those sessions.
+     */
+    private static void testFailureSessionHeap(final String realmType) throws Exception {
+        final List<IdentityDefinition> identities = AbstractAuthenticationSuite.obtainTestIdentities().toList();
+        final SecurityDomain securityDomain = AbstractAuthenticationSuite.createSecurityDomain();
+        // Warm up the realm and domain first so class loading and caches are not attributed to the sessions.
+        Workload warmUp = new Workload("warm-up", identities.subList(0, 1), 0);
+        warmUp.run(securityDomain, THREADS);
+
+        final long before = usedHeapAfterGc();
+        Workload failures = new Workload("failure-sessions", identities, 100);
+        failures.runSequence(securityDomain);
+        final long after = usedHeapAfterGc();
+        Reference.reachabilityFence(securityDomain);
+
+        final int trackedSessions = Math.min(identities.size(), AbstractAuthenticationSuite.BRUTE_FORCE_MAX_CACHED_SESSIONS);
+        failures.print(realmType);
+        System.out.printf("[%s] BruteForceStress - %d failure sessions retained %d KB, %d bytes per session\n",
+                realmType, trackedSessions, (after - before) / 1024, (after - before) / trackedSessions);
+
+        assertEquals(0, failures.errors(), "Unexpected errors creating failure sessions");
+    }
+
+    private static void enableContentionMonitoring() {
+        if (THREAD_MX_BEAN.isThreadContentionMonitoringSupported()) {
+            THREAD_MX_BEAN.setThreadContentionMonitoringEnabled(true);
+        } else {
+            System.out.println("BruteForceStress - Thread contention monitoring is not supported");
+        }
+    }
+
+    private static long usedHeapAfterGc() throws InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+
+        return MEMORY_MX_BEAN.getHeapMemoryUsage().getUsed();
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    /**
+     * A mix of good and bad attempts against random identities, the statistics are split by the outcome so
+     * attempts with a good password rejected due to a lockout are reported separately.
+     */
+    private static final class Workload {
+
+        private final String name;
+        private final List<IdentityDefinition> identities;
+        private final int badPasswordPercentage;
+        private final LoadStatistics success;
+        private final LoadStatistics failure;
+        private final LoadStatistics lockedOut;
+        private final AtomicInteger reportedErrors = new AtomicInteger();
+        private final AtomicLong blockedMillis = new AtomicLong();
+        private final AtomicLong blockedCount = new AtomicLong();
+        private final AtomicLong waitedMillis = new AtomicLong();
+        private final AtomicLong waitedCount = new AtomicLong();
+        private final AtomicIntegerArray consecutiveBadAttempts;
+        private long elapsedNanos;
+
+        Workload(final String name, final List<IdentityDefinition> identities) {
+            this(name, identities, BAD_PASSWORD_PERCENTAGE);
+        }
+
+        Workload(final String name, final List<IdentityDefinition> identities, final int badPasswordPercentage) {
+            this.name = name;
+            this.identities = identities;
+            this.badPasswordPercentage = badPasswordPercentage;
+            success = new LoadStatistics(name + "-success");
+            failure = new LoadStatistics(name + "-failure");
+            lockedOut = new LoadStatistics(name + "-locked-out");
+            consecutiveBadAttempts = new AtomicIntegerArray(identities.size());
+        }
+
+        /**
+         * Make the specified number of attempts against random identities spread across all of the threads.
+         */
+        void run(final SecurityDomain securityDomain, final int attempts) throws InterruptedException {
+            execute(thread -> {
+                SplittableRandom random = new SplittableRandom(thread);
+                for (int i = thread; i < attempts; i += THREADS) {
+                    int index = random.nextInt(identities.size());
+                    attempt(securityDomain, identities.get(index), nextBad(index, random.nextInt(100) < badPasswordPercentage));
+                }
+            });
+        }
+
+        /**
+         * Decide if the next attempt against the identity uses a bad password, once the identity has had
+         * {@link #MAX_CONSECUTIVE_BAD_ATTEMPTS} bad attempts in a row the next attempt uses the good password.
+         */
+        private boolean nextBad(final int index, final boolean wanted) {
+            final int previous = consecutiveBadAttempts.getAndUpdate(index,
+                    c -> wanted && c < MAX_CONSECUTIVE_BAD_ATTEMPTS ? c + 1 : 0);
+
+            return wanted && previous < MAX_CONSECUTIVE_BAD_ATTEMPTS;
+        }
+
+        /**
+         * Make a single attempt for each identity in turn spread across all of the threads.
+         */
+        void runSequence(final SecurityDomain securityDomain) throws InterruptedException {
+            execute(thread -> {
+                SplittableRandom random = new SplittableRandom(thread);
+                for (int i = thread; i < identities.size(); i += THREADS) {
+                    attempt(securityDomain, identities.get(i), random.nextInt(100) < badPasswordPercentage);
+                }
+            });
+        }
+
+        private void execute(final WorkerTask task) throws InterruptedException {
+            final CountDownLatch startLatch = new CountDownLatch(1);
+            final ExecutorService executorService = Executors.newFixedThreadPool(THREADS);
+            try {
+                for (int i = 0; i < THREADS; i++) {
+                    final int thread = i;
+                    executorService.execute(() -> {
+                        try {
+                            startLatch.await();
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            return;
+                        }
+                        // Sampled after the start latch so waiting for the other threads is not counted.
+                        final ThreadInfo startInfo = THREAD_MX_BEAN.getThreadInfo(Thread.currentThread().getId());
+                        try {
+                            task.run(thread);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                        } finally {
+                            recordContention(startInfo, THREAD_MX_BEAN.getThreadInfo(Thread.currentThread().getId()));
+                        }
+                    });
+                }
+
+                final long start = System.nanoTime();
+                startLatch.countDown();
+                executorService.shutdown();
+                assertTrue(executorService.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                        String.format("The %s workload did not complete in time", name));
+                elapsedNanos = System.nanoTime() - start;
+            } finally {
+                executorService.shutdownNow();
+            }
+        }
+
+        /**
+         * Record the monitor blocking and the waiting or parking of a worker thread between two samples, the times are
+         * only available while thread contention monitoring is enabled.
+         */
+        private void recordContention(final ThreadInfo startInfo, final ThreadInfo endInfo) {
+            blockedCount.addAndGet(endInfo.getBlockedCount() - startInfo.getBlockedCount());
+            waitedCount.addAndGet(endInfo.getWaitedCount() - startInfo.getWaitedCount());
+            if (startInfo.getBlockedTime() >= 0) {
+                blockedMillis.addAndGet(endInfo.getBlockedTime() - startInfo.getBlockedTime());
+                waitedMillis.addAndGet(endInfo.getWaitedTime() - startInfo.getWaitedTime());
+            }
+        }
+
+        private void attempt(final SecurityDomain securityDomain, final IdentityDefinition identity, final boolean badPassword) {
+            final long start = System.nanoTime();
+            try {
+                ServerAuthenticationContext context = securityDomain.createNewAuthenticationContext();
+                context.setAuthenticationName(identity.username());
+                String password = badPassword ? "bad" + identity.password() : identity.password();
+                if (context.verifyEvidence(new PasswordGuessEvidence(password.toCharArray())) && context.authorize()) {
+                    context.succeed();
+                    if (badPassword) {
+                        reportError(identity, true, "Authentication succeeded with a bad password");
+                    } else {
+                        success.recordCompleted(start);
+                    }
+                } else {
+                    context.fail();
+                    (badPassword ? failure : lockedOut).recordCompleted(start);
+                }
+            } catch (Exception e) {
+                reportError(identity, badPassword, e.toString());
+            }
+        }
+
+        private void reportError(final IdentityDefinition identity, final boolean badPassword, final String message) {
+            (badPassword ? failure : success).recordError();
+            if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                System.out.printf("BruteForceStress %s error for '%s': %s\n", name, identity.username(), message);
+            }
+        }
+
+        long errors() {
+            return success.getErrors() + failure.getErrors() + lockedOut.getErrors();
+        }
+
+        void print(final String realmType) {
+            LoadReport report = new LoadReport(String.format("Brute force stress %s, %d threads", name, THREADS),
+                    elapsedNanos, List.of(success, failure, lockedOut));
+            System.out.printf("[%s] ", realmType);
+            report.print(System.out);
+        }
+    }
+
+    @FunctionalInterface
+    private interface WorkerTask {
+
+        void run(int thread) throws InterruptedException;
+    }
+}
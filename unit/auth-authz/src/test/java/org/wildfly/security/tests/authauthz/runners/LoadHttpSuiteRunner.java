@@ -0,0 +1,199 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.authauthz.runners;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.wildfly.security.auth.server.SecurityDomain;
+import org.wildfly.security.http.HttpServerAuthenticationMechanismFactory;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.common.authauthz.HttpAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.TestFamily;
+import org.wildfly.security.tests.common.authauthz.TestFilter;
+import org.wildfly.security.tests.common.authauthz.http.HttpDigestNonceLoadDriver;
+import org.wildfly.security.tests.common.authauthz.http.HttpLoadDriver;
+import org.wildfly.security.tests.common.authauthz.http.HttpTestClient;
+import org.wildfly.security.tests.common.authauthz.load.LoadReport;
+import org.wildfly.security.tests.common.authauthz.load.LoadStatistics;
+import org.wildfly.security.tests.common.authauthz.metrics.LatencyHistogram;
+
+/**
+ * A runner to apply sustained concurrent HTTP load against the configured {@code SecurityRealm}
+ * using all supported mechanisms at the same time.
+ *
+ * As this runner is long running it is only enabled when {@code TestFilter.TestFamily} includes
+ * {@code LOAD}.
+ *
+ * The {@code DigestNonceReuse} test compares HTTP DIGEST with a full challenge for every request against
+ * reusing the server nonce with an incrementing nonce count, the time spent evaluating the requests on the
+ * server is recorded to show how the nonce manager scales with the number of concurrent clients.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class LoadHttpSuiteRunner extends AbstractHttpSuiteRunner {
+
+    private static final int VIRTUAL_USERS = Integer.getInteger("LoadTest.VirtualUsers", 100);
+    private static final int WARM_UP_SECONDS = Integer.getInteger("LoadTest.WarmUp", 5);
+    private static final int DURATION_SECONDS = Integer.getInteger("LoadTest.Duration", 30);
+    private static final int BAD_PASSWORD_PERCENTAGE = Integer.getInteger("LoadTest.BadPasswordPercentage", 10);
+    private static final int REQUESTS_PER_NONCE = Integer.getInteger("LoadTest.RequestsPerNonce", 0);
+
+    private final LoadStatistics serverDigestStatistics = new LoadStatistics("Server DIGEST evaluateRequest");
+
+    @TestFactory
+    Stream<DynamicTest> dynamicHttpTests() {
+        System.out.println("LoadHttpSuiteRunner->dynamicHttpTests");
+        List<DynamicTest> dynamicTests = new ArrayList<>();
+
+        Set<HttpAuthenticationMechanism> supportedMechanisms =
+                AbstractAuthenticationSuite.supportedHttpAuthenticationMechanisms();
+
+        TestFilter testFilter = TestFilter.getInstance();
+        HttpTestClient testClient = HttpTestClient.builder()
+                                        .withToUri(AbstractHttpSuiteRunner::toURI)
+                                        .build();
+
+        String realmType = AbstractAuthenticationSuite.realmType();
+        Set<HttpAuthenticationMechanism> loadMechanisms = EnumSet.noneOf(HttpAuthenticationMechanism.class);
+        supportedMechanisms.forEach(s -> {
+            if (testFilter.shouldRunTest(s, TestFamily.LOAD, "Load")) {
+                loadMechanisms.add(s);
+            }
+        });
+
+        if (!loadMechanisms.isEmpty()) {
+            dynamicTests.add(dynamicTest(String.format("[%s] testHttpLoad(%s)", realmType, loadMechanisms),
+                    () -> testHttpLoad(testClient, realmType, loadMechanisms)));
+        }
+
+        if (supportedMechanisms.contains(HttpAuthenticationMechanism.DIGEST_MD5)
+                && testFilter.shouldRunTest(HttpAuthenticationMechanism.DIGEST_MD5, TestFamily.LOAD, "DigestNonceReuse")) {
+            dynamicTests.add(dynamicTest(String.format("[%s] testDigestNonceReuse()", realmType),
+                    () -> testDigestNonceReuse(testClient, realmType)));
+        }
+
+        if (dynamicTests.isEmpty()) {
+            System.out.println("No Tests Added - Adding a Dummy");
+            dynamicTests.add(dynamicTest("[DUMMY] DUMMY TEST", () -> {}));
+        }
+
+        return dynamicTests.stream();
+    }
+
+    /**
+     * The load runner is measuring the cost of authentication, brute force protection would lock out the
+     * identities used with bad passwords so is not applied.
+     */
+    @Override
+    protected SecurityDomain createSecurityDomain() {
+        return AbstractAuthenticationSuite.createSecurityDomain(UnaryOperator.identity());
+    }
+
+    /**
+     * Wrap the DIGEST factory so the time spent by the server evaluating each request is recorded.
+     */
+    @Override
+    protected HttpServerAuthenticationMechanismFactory createMechanismFactory(final HttpAuthenticationMechanism mechanism) {
+        HttpServerAuthenticationMechanismFactory factory = super.createMechanismFactory(mechanism);
+        if (mechanism == HttpAuthenticationMechanism.DIGEST_MD5 && factory != null) {
+            return new TimedServerMechanismFactory(factory, serverDigestStatistics);
+        }
+
+        return factory;
+    }
+
+    private static void testHttpLoad(HttpTestClient testClient, String realmType,
+            Set<HttpAuthenticationMechanism> mechanisms) throws Exception {
+        HttpLoadDriver.Builder builder = testClient.loadDriver()
+                .setMechanisms(mechanisms)
+                .setVirtualUsers(VIRTUAL_USERS)
+                .setWarmUp(Duration.ofSeconds(WARM_UP_SECONDS))
+                .setDuration(Duration.ofSeconds(DURATION_SECONDS))
+                .setBadPasswordPercentage(BAD_PASSWORD_PERCENTAGE);
+        AbstractAuthenticationSuite.obtainTestIdentities()
+                .forEach(i -> builder.addIdentity(i.username(), i.password()));
+
+        LoadReport report = builder.build().run();
+        System.out.printf("[%s] ", realmType);
+        report.print(System.out);
+
+        assertTrue(report.getTotalCompleted() > 0, "Expected completed authentications");
+        assertEquals(0, report.getTotalErrors(), "Unexpected errors during load");
+    }
+
+    private void testDigestNonceReuse(HttpTestClient testClient, String realmType) throws Exception {
+        NonceResult fullChallenge = runDigest(testClient, HttpDigestNonceLoadDriver.Mode.FULL_CHALLENGE);
+        NonceResult nonceReuse = runDigest(testClient, HttpDigestNonceLoadDriver.Mode.NONCE_REUSE);
+
+        for (NonceResult current : List.of(fullChallenge, nonceReuse)) {
+            System.out.printf("[%s] ", realmType);
+            current.report().print(System.out);
+            LatencyHistogram serverLatency = current.server().getLatency();
+            long requests = current.report().getTotalCompleted();
+            System.out.printf("[%s] %s - server evaluateRequest %d calls (%.2f per request), p50 %.3f ms, p99 %.3f ms, mean %.3f ms%n",
+                    realmType, current.mode(), current.server().getCompleted(),
+                    requests == 0 ? 0 : current.server().getCompleted() / (double) requests,
+                    toMillis(serverLatency.getValueAtPercentile(50)), toMillis(serverLatency.getValueAtPercentile(99)),
+                    serverLatency.getMean() / 1_000_000d);
+            if (current.mode() == HttpDigestNonceLoadDriver.Mode.NONCE_REUSE) {
+                System.out.printf("[%s] %s - %d stale re-challenges (%.3f%% of requests), %d other re-challenges%n",
+                        realmType, current.mode(), current.staleRechallenges(),
+                        requests == 0 ? 0 : current.staleRechallenges() * 100d / requests, current.rechallenges());
+            }
+        }
+
+        double fullThroughput = fullChallenge.report().getStatistics().get(0).getThroughput(fullChallenge.report().getElapsedNanos());
+        double reuseThroughput = nonceReuse.report().getStatistics().get(0).getThroughput(nonceReuse.report().getElapsedNanos());
+        System.out.printf("[%s] DIGEST throughput - %s %.1f ops/s, %s %.1f ops/s (x%.2f)%n", realmType,
+                fullChallenge.mode(), fullThroughput, nonceReuse.mode(), reuseThroughput,
+                fullThroughput == 0 ? 0 : reuseThroughput / fullThroughput);
+
+        for (NonceResult current : List.of(fullChallenge, nonceReuse)) {
+            assertTrue(current.report().getTotalCompleted() > 0, "Expected completed requests for " + current.mode());
+            assertEquals(0, current.report().getTotalErrors(), "Unexpected errors for " + current.mode());
+        }
+    }
+
+    private NonceResult runDigest(HttpTestClient testClient, HttpDigestNonceLoadDriver.Mode mode) throws Exception {
+        HttpDigestNonceLoadDriver.Builder builder = testClient.digestNonceLoadDriver()
+                .setMode(mode)
+                .setVirtualUsers(VIRTUAL_USERS)
+                .setWarmUp(Duration.ofSeconds(WARM_UP_SECONDS))
+                .setDuration(Duration.ofSeconds(DURATION_SECONDS))
+                .setRequestsPerNonce(REQUESTS_PER_NONCE)
+                .setMeasurementListener(serverDigestStatistics::reset);
+        AbstractAuthenticationSuite.obtainTestIdentities()
+                .forEach(i -> builder.addIdentity(i.username(), i.password()));
+
+        HttpDigestNonceLoadDriver driver = builder.build();
+        LoadReport report = driver.run();
+        // Take a copy of the server statistics before the next run resets them.
+        LoadStatistics server = new LoadStatistics(serverDigestStatistics.getName());
+        server.getLatency().add(serverDigestStatistics.getLatency());
+
+        return new NonceResult(mode, report, server, driver.getStaleRechallenges(), driver.getRechallenges());
+    }
+
+    private static double toMillis(final long nanos) {
+        return nanos / 1_000_000d;
+    }
+
+    private record NonceResult(HttpDigestNonceLoadDriver.Mode mode, LoadReport report, LoadStatistics server,
+            long staleRechallenges, long rechallenges) {}
+
+}
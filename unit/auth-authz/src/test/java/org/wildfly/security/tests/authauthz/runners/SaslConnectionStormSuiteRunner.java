@@ -0,0 +1,219 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.authauthz.runners;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.DynamicTest.dynamicTest;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.jboss.remoting3.Connection;
+import org.junit.jupiter.api.DynamicTest;
+import org.junit.jupiter.api.TestFactory;
+import org.wildfly.security.auth.server.SecurityDomain;
+import org.wildfly.security.tests.authauthz.AbstractAuthenticationSuite;
+import org.wildfly.security.tests.common.authauthz.SaslAuthenticationMechanism;
+import org.wildfly.security.tests.common.authauthz.TestFamily;
+import org.wildfly.security.tests.common.authauthz.TestFilter;
+import org.wildfly.security.tests.common.authauthz.identity.IdentityDefinition;
+import org.wildfly.security.tests.common.authauthz.load.LoadReport;
+import org.wildfly.security.tests.common.authauthz.load.LoadStatistics;
+import org.wildfly.security.tests.common.authauthz.load.TaskExecutors;
+import org.xnio.IoFuture;
+import org.xnio.OptionMap;
+import org.xnio.Options;
+
+/**
+ * A runner to open a large number of concurrent Remoting connections against the configured
+ * {@code SecurityRealm} to measure the cost of connection establishment and authentication under load.
+ *
+ * Each connection is opened from its own thread, virtual threads where available, using its own
+ * {@code AuthenticationContext}. All connections for a mechanism are released at the same time and
+ * a separate report is printed for each mechanism.
+ *
+ * As this runner is long running it is only enabled when {@code TestFilter.TestFamily} includes
+ * {@code LOAD}.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+public class SaslConnectionStormSuiteRunner extends AbstractSaslSuiteRunner {
+
+    private static final int CONNECTIONS = Integer.getInteger("SaslStorm.Connections", 2000);
+    private static final int TIMEOUT_SECONDS = Integer.getInteger("SaslStorm.Timeout", 300);
+    private static final long CONNECTION_TIMEOUT_MILLIS = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_REPORTED_ERRORS = 10;
+    private static final Set<SaslAuthenticationMechanism> SCRAM_MECHANISMS = EnumSet.of(
+            SaslAuthenticationMechanism.SCRAM_SHA_1,
+            SaslAuthenticationMechanism.SCRAM_SHA_256,
+            SaslAuthenticationMechanism.SCRAM_SHA_384,
+            SaslAuthenticationMechanism.SCRAM_SHA_512);
+
+    @TestFactory
+    Stream<DynamicTest> dynamicSaslTests() {
+        System.out.println("SaslConnectionStormSuiteRunner->dynamicSaslTests");
+        List<DynamicTest> dynamicTests = new ArrayList<>();
+
+        Set<SaslAuthenticationMechanism> supportedMechnisms = getSupportedMechanisms();
+
+        TestFilter testFilter = TestFilter.getInstance();
+
+        String realmType = AbstractAuthenticationSuite.realmType();
+        supportedMechnisms.forEach(s -> {
+            if (testFilter.shouldRunTest(s, TestFamily.LOAD, "ConnectionStorm")) {
+                dynamicTests.add(
+                        dynamicTest(String.format("[%s] testSaslConnectionStorm(%s)", realmType, s),
+                                () -> testSaslConnectionStorm(realmType, s)));
+            }
+        });
+
+        if (dynamicTests.isEmpty()) {
+            System.out.println("No Tests Added - Adding a Dummy");
+            dynamicTests.add(dynamicTest("[DUMMY] DUMMY TEST", () -> {}));
+        }
+
+        return dynamicTests.stream();
+    }
+
+    /**
+     * The storm also measures SCRAM alongside PLAIN and DIGEST. Like DIGEST, SCRAM authenticates using the clear
+     * password obtained from the realm so the SCRAM mechanisms are added for the realms supporting DIGEST-MD5, they
+     * are only enabled for the storm so the functional runners are not extended.
+     */
+    @Override
+    protected Set<SaslAuthenticationMechanism> getSupportedMechanisms() {
+        Set<SaslAuthenticationMechanism> supportedMechanisms = super.getSupportedMechanisms();
+        if (!supportedMechanisms.contains(SaslAuthenticationMechanism.DIGEST_MD5)) {
+            return supportedMechanisms;
+        }
+
+        Set<SaslAuthenticationMechanism> stormMechanisms = EnumSet.copyOf(supportedMechanisms);
+        stormMechanisms.addAll(SCRAM_MECHANISMS);
+        return stormMechanisms;
+    }
+
+    /**
+     * The storm is measuring the cost of establishing connections, brute force protection is not under
+     * test so is not applied.
+     */
+    @Override
+    protected SecurityDomain createSecurityDomain() {
+        return AbstractAuthenticationSuite.createSecurityDomain(UnaryOperator.identity());
+    }
+
+    /**
+     * All connections are opened at once so the accept backlog needs to be large enough to hold them.
+     */
+    @Override
+    protected OptionMap createServerOptionMap() {
+        return OptionMap.builder()
+                .addAll(super.createServerOptionMap())
+                .set(Options.BACKLOG, CONNECTIONS)
+                .getMap();
+    }
+
+    /**
+     * The single connection verified before each storm may be queued behind the connections of the previous storm
+     * still being closed by the server.
+     */
+    @Override
+    protected long getConnectionTimeoutMillis() {
+        return CONNECTION_TIMEOUT_MILLIS;
+    }
+
+    private void testSaslConnectionStorm(final String realmType,
+            final SaslAuthenticationMechanism mechanism) throws Exception {
+        System.out.printf("testSaslConnectionStorm(%s) - %d connections, virtual threads %b\n",
+                mechanism, CONNECTIONS, TaskExecutors.isVirtualThreadsAvailable());
+
+        final List<IdentityDefinition> identities = AbstractAuthenticationSuite.obtainTestIdentities().toList();
+        // Verify a single connection first so a mechanism which can not authenticate fails fast.
+        performSaslTest(mechanism.getMechanismName(), identities.get(0).username(), identities.get(0).password(), true);
+
+        final LoadStatistics statistics = new LoadStatistics(mechanism.getMechanismName());
+        final AtomicInteger reportedErrors = new AtomicInteger();
+        final CountDownLatch startLatch = new CountDownLatch(1);
+
+        final long elapsed;
+        final ExecutorService executorService = TaskExecutors.newThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < CONNECTIONS; i++) {
+                final IdentityDefinition identity = identities.get(i % identities.size());
+                executorService.execute(() -> {
+                    try {
+                        startLatch.await();
+                        final long start = System.nanoTime();
+                        final Connection connection = awaitConnection(
+                                connect(mechanism.getMechanismName(), identity.username(), identity.password()));
+                        statistics.recordCompleted(start);
+                        connection.closeAsync();
+                    } catch (Exception e) {
+                        statistics.recordError();
+                        if (reportedErrors.incrementAndGet() <= MAX_REPORTED_ERRORS) {
+                            System.out.printf("testSaslConnectionStorm(%s) error for '%s': %s\n",
+                                    mechanism, identity.username(), e);
+                        }
+                    }
+                });
+            }
+
+            final long start = System.nanoTime();
+            startLatch.countDown();
+            executorService.shutdown();
+            assertTrue(executorService.awaitTermination(TIMEOUT_SECONDS, TimeUnit.SECONDS),
+                    "Connections did not complete in time");
+            elapsed = System.nanoTime() - start;
+        } finally {
+            executorService.shutdownNow();
+        }
+
+        LoadReport report = new LoadReport(String.format("SASL connection storm, %d connections", CONNECTIONS),
+                elapsed, List.of(statistics));
+        System.out.printf("[%s] ", realmType);
+        report.print(System.out);
+
+        assertEquals(CONNECTIONS, report.getTotalCompleted(), "Expected all connections to authenticate");
+        assertEquals(0, report.getTotalErrors(), "Unexpected errors during connection storm");
+    }
+
+    /**
+     * Wait for the connection using a {@code CompletableFuture} rather than {@link IoFuture#await()}
+     * so waiting virtual threads are not pinned to their carrier thread.
+     */
+    private static Connection awaitConnection(final IoFuture<Connection> futureConnection) throws Exception {
+        final CompletableFuture<Connection> result = new CompletableFuture<>();
+        futureConnection.addNotifier(new IoFuture.HandlingNotifier<Connection, CompletableFuture<Connection>>() {
+            @Override
+            public void handleCancelled(final CompletableFuture<Connection> attachment) {
+                attachment.cancel(false);
+            }
+
+            @Override
+            public void handleFailed(final IOException exception, final CompletableFuture<Connection> attachment) {
+                attachment.completeExceptionally(exception);
+            }
+
+            @Override
+            public void handleDone(final Connection data, final CompletableFuture<Connection> attachment) {
+                attachment.complete(data);
+            }
+        }, result);
+
+        return result.get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    }
+
+}
@@ -8,7 +8,11 @@ package org.wildfly.security.tests.authauthz.runners;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ExecutionException;
@@ -25,34 +29,71 @@ import java.util.function.Function;
  * This utility is not intended to be a complete mock implementation and just
  * covers the capabilities we need to interact with.
  *
+ * Scheduled tasks never run on their own, instead the utility maintains a virtual clock which
+ * starts at zero and only moves when {@link #advance(long, TimeUnit)} is called, any tasks which
+ * become due are then run on the calling thread. This allows tests of timeouts measured in minutes
+ * to complete instantly.
+ *
  * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
  */
 class ScheduledExecutorUtility {
 
-    private final Map<ScheduledFuture, Runnable> scheduledRunnables;
+    // Tasks can be scheduled from server threads whilst the test thread is inspecting them.
+    private final Map<TestScheduledFuture, Runnable> scheduledRunnables;
+    private long virtualTimeMillis;
 
     ScheduledExecutorUtility() {
-        scheduledRunnables = new HashMap<>();
+        scheduledRunnables = new LinkedHashMap<>();
     }
 
-    Set<ScheduledFuture> getScheduledFutures() {
-        return scheduledRunnables.keySet();
+    synchronized Set<ScheduledFuture> getScheduledFutures() {
+        return new HashSet<>(scheduledRunnables.keySet());
     }
 
     void simulateTimeout(ScheduledFuture future) {
-        Runnable r = scheduledRunnables.remove(future);
+        Runnable r;
+        synchronized (this) {
+            r = scheduledRunnables.remove(future);
+        }
         if (r != null) {
             r.run();
         }
     }
 
-    int sessionCount() {
+    synchronized int sessionCount() {
         return scheduledRunnables.size();
     }
 
     void simulateTimeoutAll() {
-        scheduledRunnables.forEach((k, v) -> v.run());
-        scheduledRunnables.clear();
+        List<Runnable> due;
+        synchronized (this) {
+            due = new ArrayList<>(scheduledRunnables.values());
+            scheduledRunnables.clear();
+        }
+        due.forEach(Runnable::run);
+    }
+
+    /**
+     * Move the virtual clock forward and run any tasks which are now due in the order they became due.
+     *
+     * @param duration the amount of time to move the clock forward.
+     * @param unit the unit of the duration.
+     */
+    void advance(long duration, TimeUnit unit) {
+        List<Runnable> due = new ArrayList<>();
+        synchronized (this) {
+            virtualTimeMillis += unit.toMillis(duration);
+            scheduledRunnables.keySet().stream()
+                    .filter(f -> f.deadline <= virtualTimeMillis)
+                    .sorted(Comparator.comparingLong(f -> f.deadline))
+                    .toList()
+                    .forEach(f -> due.add(scheduledRunnables.remove(f)));
+        }
+        due.forEach(Runnable::run);
+    }
+
+    synchronized long currentTimeMillis() {
+        return virtualTimeMillis;
     }
 
     ScheduledExecutorService createScheduledExecutorService() {
@@ -76,10 +117,17 @@ class ScheduledExecutorUtility {
         public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
             if (TARGET_METHOD.equals(method)) {
                 if (args[0] instanceof Runnable) {
-                    TestScheduledFuture future = new TestScheduledFuture((p) -> scheduledRunnables.remove(p) != null);
-                    scheduledRunnables.put(future, (Runnable)args[0]);
-
-                    return future;
+                    synchronized (ScheduledExecutorUtility.this) {
+                        long deadline = virtualTimeMillis + ((TimeUnit) args[2]).toMillis((Long) args[1]);
+                        TestScheduledFuture future = new TestScheduledFuture(deadline, (p) -> {
+                            synchronized (ScheduledExecutorUtility.this) {
+                                return scheduledRunnables.remove(p) != null;
+                            }
+                        });
+                        scheduledRunnables.put(future, (Runnable)args[0]);
+
+                        return future;
+                    }
                 }
 
                 throw new IllegalArgumentException("Expected Runnable");
@@ -89,20 +137,21 @@ class ScheduledExecutorUtility {
         }
     }
 
-    private static class TestScheduledFuture implements ScheduledFuture {
+    private class TestScheduledFuture implements ScheduledFuture {
 
+        private final long deadline;
         private final Function<Object, Boolean> cancel;
 
         private boolean isCancelled = false;
 
-        public TestScheduledFuture(Function<Object, Boolean> cancel) {
+        public TestScheduledFuture(long deadline, Function<Object, Boolean> cancel) {
+            this.deadline = deadline;
             this.cancel = cancel;
         }
 
         @Override
         public long getDelay(TimeUnit unit) {
-            // Not relevant to test.
-            return 0;
+            return unit.convert(deadline - currentTimeMillis(), TimeUnit.MILLISECONDS);
         }
 
 
@@ -136,8 +185,7 @@ class ScheduledExecutorUtility {
 
         @Override
         public int compareTo(Object o) {
-            // TODO Auto-generated method stub
-            throw new UnsupportedOperationException("Unimplemented method 'compareTo'");
+            return Long.compare(getDelay(TimeUnit.MILLISECONDS), ((ScheduledFuture) o).getDelay(TimeUnit.MILLISECONDS));
         }
 
     }
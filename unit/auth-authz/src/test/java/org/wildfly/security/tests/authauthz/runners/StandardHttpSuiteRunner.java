@@ -67,6 +67,13 @@ public class StandardHttpSuiteRunner extends AbstractHttpSuiteRunner {
             }
         });
 
+        if (supportedMechnisms.contains(HttpAuthenticationMechanism.DIGEST_MD5)
+                && testFilter.shouldRunTest(HttpAuthenticationMechanism.DIGEST_MD5, TestFamily.STANDARD, "ConcurrentDigest")) {
+            dynamicTests.add(
+                    dynamicTest(String.format("[%s] testHttpConcurrentDigest(%s)", realmType, HttpAuthenticationMechanism.DIGEST_MD5),
+                            () -> testClient.testHttpConcurrentDigest()));
+        }
+
         if (dynamicTests.isEmpty()) {
             System.out.println("No Tests Added - Adding a Dummy");
             dynamicTests.add(dynamicTest("[DUMMY] DUMMY TEST", () -> {}));
@@ -0,0 +1,96 @@
+/*
+ * Copyright The WildFly Authors
+ * SPDX-License-Identifier: Apache-2.0
+ */
+
+package org.wildfly.security.tests.authauthz.runners;
+
+import java.util.Map;
+
+import javax.security.auth.callback.CallbackHandler;
+
+import org.wildfly.security.http.HttpAuthenticationException;
+import org.wildfly.security.http.HttpServerAuthenticationMechanism;
+import org.wildfly.security.http.HttpServerAuthenticationMechanismFactory;
+import org.wildfly.security.http.HttpServerRequest;
+import org.wildfly.security.tests.common.authauthz.load.LoadStatistics;
+
+/**
+ * A {@code HttpServerAuthenticationMechanismFactory} wrapping the mechanisms of another factory to record
+ * the time spent within {@code evaluateRequest} on the server.
+ *
+ * All mechanisms are still created by the wrapped factory so any state it shares between mechanisms, e.g.
+ * the DIGEST nonce manager, is unaffected.
+ *
+ * @author <a href="mailto:darran.lofthouse@jboss.com">Darran Lofthouse</a>
+ */
+class TimedServerMechanismFactory implements HttpServerAuthenticationMechanismFactory {
+
+    private final HttpServerAuthenticationMechanismFactory delegate;
+    private final LoadStatistics statistics;
+
+    TimedServerMechanismFactory(final HttpServerAuthenticationMechanismFactory delegate, final LoadStatistics statistics) {
+        this.delegate = delegate;
+        this.statistics = statistics;
+    }
+
+    @Override
+    public String[] getMechanismNames(final Map<String, ?> properties) {
+        return delegate.getMechanismNames(properties);
+    }
+
+    @Override
+    public HttpServerAuthenticationMechanism createAuthenticationMechanism(final String mechanismName,
+            final Map<String, ?> properties, final CallbackHandler callbackHandler) throws HttpAuthenticationException {
+        HttpServerAuthenticationMechanism mechanism =
+                delegate.createAuthenticationMechanism(mechanismName, properties, callbackHandler);
+
+        return mechanism == null ? null : new TimedServerMechanism(mechanism);
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    private class TimedServerMechanism implements HttpServerAuthenticationMechanism {
+
+        private final HttpServerAuthenticationMechanism delegate;
+
+        TimedServerMechanism(final HttpServerAuthenticationMechanism delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public String getMechanismName() {
+            return delegate.getMechanismName();
+        }
+
+        @Override
+        public void evaluateRequest(final HttpServerRequest request) throws HttpAuthenticationException {
+            final long start = System.nanoTime();
+            try {
+                delegate.evaluateRequest(request);
+                statistics.recordCompleted(start);
+            } catch (HttpAuthenticationException | RuntimeException e) {
+                statistics.recordError();
+                throw e;
+            }
+        }
+
+        @Override
+        public Object getNegotiatedProperty(final String propertyName) {
+            return delegate.getNegotiatedProperty(propertyName);
+        }
+
+        @Override
+        public <T> T getNegotiationProperty(final String propertyName, final Class<T> type) {
+            return delegate.getNegotiationProperty(propertyName, type);
+        }
+
+        @Override
+        public void dispose() {
+            delegate.dispose();
+        }
+    }
+}